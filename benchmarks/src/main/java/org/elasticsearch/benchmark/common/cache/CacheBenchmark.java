@@ -0,0 +1,84 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Cache} lookups and insertions under contention, with a skewed key distribution (most lookups
+ * hit a small hot set, as for the request cache or the token_ranges query cache). Run it against two revisions to
+ * compare cache implementations.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(32)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class CacheBenchmark {
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+
+    @Param({"1000", "100000"})
+    public int maximumWeight = 1000;
+
+    // percentage of insertions, other operations are lookups
+    @Param({"0", "10"})
+    public int writePercentage = 0;
+
+    private Cache<Integer, Integer> cache;
+
+    @Setup
+    public void setUp() throws Exception {
+        cache = CacheBuilder.<Integer, Integer>builder().setMaximumWeight(maximumWeight).build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer getOrPut() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // 75% of the operations on the hottest 10% of the keys, 25% spread over twice the cache capacity
+        int key = random.nextInt(4) == 0 ? random.nextInt(2 * maximumWeight) : random.nextInt(maximumWeight / 10);
+        if (random.nextInt(100) < writePercentage) {
+            cache.put(key, key);
+            return key;
+        }
+        return cache.get(key);
+    }
+}
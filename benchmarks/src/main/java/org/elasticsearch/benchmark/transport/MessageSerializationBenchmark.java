@@ -0,0 +1,96 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.transport;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.transport.TcpHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a transport message into heap pages with a separate header buffer, versus recycled pages with the
+ * header written in place (as done by TcpTransport). Run it with {@code -prof gc} to compare allocation rates.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class MessageSerializationBenchmark {
+    // Do NOT make any field final (even if it is not annotated with @Param)! See also
+    // http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/JMHSample_10_ConstantFold.java
+
+    @Param({"100", "10000", "1000000"})
+    public int messageSize = 100;
+
+    private byte[] payload;
+
+    private BigArrays recycling;
+
+    @Setup
+    public void setUp() throws Exception {
+        payload = new byte[messageSize];
+        recycling = new BigArrays(Settings.EMPTY, null);
+    }
+
+    @Benchmark
+    public int heapWithHeaderBuffer() throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeByteArray(payload);
+            final BytesReference body = out.bytes();
+            try (BytesStreamOutput headerOutput = new BytesStreamOutput(TcpHeader.HEADER_SIZE)) {
+                TcpHeader.writeHeader(headerOutput, 42, (byte) 0, Version.CURRENT, body.length());
+                return new CompositeBytesReference(headerOutput.bytes(), body).length();
+            }
+        }
+    }
+
+    @Benchmark
+    public int recycledWithInlineHeader() throws IOException {
+        try (ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(recycling)) {
+            out.skip(TcpHeader.HEADER_SIZE);
+            out.writeByteArray(payload);
+            final int length = out.size();
+            out.seek(0);
+            TcpHeader.writeHeader(out, 42, (byte) 0, Version.CURRENT, length - TcpHeader.HEADER_SIZE);
+            out.seek(length);
+            return out.bytes().length();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra.action.export;
+
+import org.elasticsearch.action.Action;
+import org.elasticsearch.client.ElasticsearchClient;
+
+public class ExportAction extends Action<ExportRequest, ExportResponse, ExportRequestBuilder> {
+
+    public static final ExportAction INSTANCE = new ExportAction();
+    public static final String NAME = "indices:data/read/export";
+
+    private ExportAction() {
+        super(NAME);
+    }
+
+    @Override
+    public ExportResponse newResponse() {
+        return new ExportResponse();
+    }
+
+    @Override
+    public ExportRequestBuilder newRequestBuilder(ElasticsearchClient client) {
+        return new ExportRequestBuilder(client, this);
+    }
+}
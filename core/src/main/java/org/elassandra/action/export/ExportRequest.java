@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra.action.export;
+
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.IndicesRequest;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.query.QueryBuilder;
+
+import java.io.IOException;
+
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+
+/**
+ * Export rows of a cassandra table mapped by an index type, in token order, from the primary token ranges
+ * of the node executing the request. Rows are read from the local memtables and SSTables, the optional query
+ * is only used to filter exported rows. The export is resumed by sending the same request with
+ * the {@link ExportResponse#nextToken()} and {@link ExportResponse#nextAfter()} of the previous response.
+ *
+ * @see ExportResponse
+ */
+public class ExportRequest extends ActionRequest implements IndicesRequest {
+
+    public static final int DEFAULT_SIZE = 1000;
+    public static final int MAX_SIZE = 10000;
+
+    private String index;
+    private String type;
+    @Nullable
+    private QueryBuilder query;
+    private long token = Long.MIN_VALUE;
+    @Nullable
+    private String after;
+    private int size = DEFAULT_SIZE;
+
+    public ExportRequest() {
+    }
+
+    public ExportRequest(String index, String type) {
+        this.index = index;
+        this.type = type;
+    }
+
+    public String index() {
+        return index;
+    }
+
+    public ExportRequest index(String index) {
+        this.index = index;
+        return this;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public ExportRequest type(String type) {
+        this.type = type;
+        return this;
+    }
+
+    public QueryBuilder query() {
+        return query;
+    }
+
+    /**
+     * Optional query filtering the exported rows.
+     */
+    public ExportRequest query(QueryBuilder query) {
+        this.query = query;
+        return this;
+    }
+
+    public long token() {
+        return token;
+    }
+
+    /**
+     * Export rows having a token strictly greater than this token (the cursor returned by the previous response).
+     */
+    public ExportRequest token(long token) {
+        this.token = token;
+        return this;
+    }
+
+    public String after() {
+        return after;
+    }
+
+    /**
+     * Export the rows of the partition having the {@link #token()} that follow the row of this document id in clustering order,
+     * before the rows of the next tokens (the cursor returned by the previous response for tables having clustering columns).
+     */
+    public ExportRequest after(@Nullable String after) {
+        this.after = after;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Maximum number of rows read for a page, at most {@link #MAX_SIZE}. Wide partitions are split across pages.
+     */
+    public ExportRequest size(int size) {
+        this.size = size;
+        return this;
+    }
+
+    @Override
+    public String[] indices() {
+        return new String[] { index };
+    }
+
+    @Override
+    public IndicesOptions indicesOptions() {
+        return IndicesOptions.strictSingleIndexNoExpandForbidClosed();
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = null;
+        if (index == null) {
+            validationException = addValidationError("index is missing", validationException);
+        }
+        if (type == null) {
+            validationException = addValidationError("type is missing", validationException);
+        }
+        if (size <= 0) {
+            validationException = addValidationError("size must be positive", validationException);
+        }
+        if (size > MAX_SIZE) {
+            validationException = addValidationError("size must be less than or equal to [" + MAX_SIZE + "]", validationException);
+        }
+        return validationException;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(index);
+        out.writeString(type);
+        out.writeOptionalNamedWriteable(query);
+        out.writeLong(token);
+        out.writeOptionalString(after);
+        out.writeVInt(size);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        index = in.readString();
+        type = in.readString();
+        query = in.readOptionalNamedWriteable(QueryBuilder.class);
+        token = in.readLong();
+        after = in.readOptionalString();
+        size = in.readVInt();
+    }
+
+    @Override
+    public String toString() {
+        return "ExportRequest{" +
+                "index=" + index +
+                ", type=" + type +
+                ", query=" + query +
+                ", token=" + token +
+                ", after=" + after +
+                ", size=" + size + "}";
+    }
+}
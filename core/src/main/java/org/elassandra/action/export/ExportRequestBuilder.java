@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra.action.export;
+
+import org.elasticsearch.action.ActionRequestBuilder;
+import org.elasticsearch.client.ElasticsearchClient;
+import org.elasticsearch.index.query.QueryBuilder;
+
+public class ExportRequestBuilder extends ActionRequestBuilder<ExportRequest, ExportResponse, ExportRequestBuilder> {
+
+    public ExportRequestBuilder(ElasticsearchClient client, ExportAction action) {
+        super(client, action, new ExportRequest());
+    }
+
+    public ExportRequestBuilder setIndex(String index) {
+        request.index(index);
+        return this;
+    }
+
+    public ExportRequestBuilder setType(String type) {
+        request.type(type);
+        return this;
+    }
+
+    public ExportRequestBuilder setQuery(QueryBuilder query) {
+        request.query(query);
+        return this;
+    }
+
+    public ExportRequestBuilder setToken(long token) {
+        request.token(token);
+        return this;
+    }
+
+    public ExportRequestBuilder setAfter(String after) {
+        request.after(after);
+        return this;
+    }
+
+    public ExportRequestBuilder setSize(int size) {
+        request.size(size);
+        return this;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra.action.export;
+
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of exported rows, in token order.
+ */
+public class ExportResponse extends ActionResponse implements ToXContentObject {
+
+    public static class Hit {
+        private final String id;
+        private final long token;
+        private final BytesReference source;
+
+        public Hit(String id, long token, BytesReference source) {
+            this.id = id;
+            this.token = token;
+            this.source = source;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public long token() {
+            return token;
+        }
+
+        /**
+         * @return the JSON document built from the cassandra row.
+         */
+        public BytesReference source() {
+            return source;
+        }
+    }
+
+    private String nodeId;
+    private Long nextToken;
+    private String nextAfter;
+    private long tookInMillis;
+    private List<Hit> hits;
+
+    ExportResponse() {
+    }
+
+    public ExportResponse(String nodeId, @Nullable Long nextToken, @Nullable String nextAfter, long tookInMillis, List<Hit> hits) {
+        this.nodeId = nodeId;
+        this.nextToken = nextToken;
+        this.nextAfter = nextAfter;
+        this.tookInMillis = tookInMillis;
+        this.hits = hits;
+    }
+
+    /**
+     * @return the node that exported its primary token ranges.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return the token to resume the export on the same node, or null when all primary token ranges have been exported.
+     */
+    @Nullable
+    public Long nextToken() {
+        return nextToken;
+    }
+
+    /**
+     * @return the id of the last row read in the partition of {@link #nextToken()} to resume the export within this partition,
+     *         or null for tables without clustering columns.
+     */
+    @Nullable
+    public String nextAfter() {
+        return nextAfter;
+    }
+
+    public long tookInMillis() {
+        return tookInMillis;
+    }
+
+    public List<Hit> hits() {
+        return hits;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("took", tookInMillis);
+        builder.field("node", nodeId);
+        builder.field("next_token", nextToken);
+        if (nextAfter != null)
+            builder.field("next_after", nextAfter);
+        builder.startArray("hits");
+        for(Hit hit : hits) {
+            builder.startObject();
+            builder.field("_id", hit.id);
+            builder.field("_token", hit.token);
+            builder.rawField("_source", hit.source, XContentType.JSON);
+            builder.endObject();
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(nodeId);
+        out.writeOptionalLong(nextToken);
+        out.writeOptionalString(nextAfter);
+        out.writeVLong(tookInMillis);
+        out.writeVInt(hits.size());
+        for(Hit hit : hits) {
+            out.writeString(hit.id);
+            out.writeLong(hit.token);
+            out.writeBytesReference(hit.source);
+        }
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        nodeId = in.readString();
+        nextToken = in.readOptionalLong();
+        nextAfter = in.readOptionalString();
+        tookInMillis = in.readVLong();
+        int size = in.readVInt();
+        hits = new ArrayList<Hit>(size);
+        for(int i=0; i < size; i++)
+            hits.add(new Hit(in.readString(), in.readLong(), in.readBytesReference()));
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra.action.export;
+
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.cql3.QueryProcessor;
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.service.StorageService;
+import org.apache.cassandra.utils.FBUtilities;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
+import org.elassandra.index.mapper.internal.TokenFieldMapper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.TypeFieldMapper;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.mapper.UidFieldMapper;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.TypeMissingException;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Export the rows of the local node primary token ranges, reading memtables and SSTables through internal CQL range reads,
+ * without any per-document fetch. When a query is provided, Lucene is only used to filter rows of each exported page.
+ * Exports of all nodes of a datacenter can run in parallel, each node exporting its own primary token ranges within the datacenter.
+ */
+public class TransportExportAction extends HandledTransportAction<ExportRequest, ExportResponse> {
+
+    private final ClusterService clusterService;
+    private final IndicesService indicesService;
+
+    @Inject
+    public TransportExportAction(Settings settings, ThreadPool threadPool, TransportService transportService, ClusterService clusterService,
+                                 IndicesService indicesService, ActionFilters actionFilters, IndexNameExpressionResolver indexNameExpressionResolver) {
+        super(settings, ExportAction.NAME, threadPool, transportService, actionFilters, indexNameExpressionResolver, ExportRequest::new);
+        this.clusterService = clusterService;
+        this.indicesService = indicesService;
+    }
+
+    @Override
+    protected void doExecute(final ExportRequest request, final ActionListener<ExportResponse> listener) {
+        threadPool.executor(ThreadPool.Names.SEARCH).execute(new AbstractRunnable() {
+            @Override
+            public void onFailure(Exception e) {
+                listener.onFailure(e);
+            }
+
+            @Override
+            protected void doRun() throws Exception {
+                listener.onResponse(export(request));
+            }
+        });
+    }
+
+    ExportResponse export(final ExportRequest request) throws IOException {
+        final long startTime = System.currentTimeMillis();
+        final Index index = indexNameExpressionResolver.concreteSingleIndex(clusterService.state(), request);
+        final IndexService indexService = indicesService.indexServiceSafe(index);
+        final DocumentMapper docMapper = indexService.mapperService().documentMapper(request.type());
+        if (docMapper == null)
+            throw new TypeMissingException(index, request.type());
+
+        final String ksName = indexService.keyspace();
+        final String cfName = ClusterService.typeToCfName(ksName, request.type());
+        final CFMetaData metadata = ClusterService.getCFMetaData(ksName, cfName);
+        final RowReader reader = new RowReader(indexService, docMapper, metadata);
+        final List<ExportResponse.Hit> hits = new ArrayList<ExportResponse.Hit>();
+        int read = 0;
+
+        // resume the partition of the previous page after its last exported row.
+        if (request.after() != null) {
+            List<UntypedResultSet.Row> rows = reader.read(clusterService.parseElasticId(indexService, request.type(), request.after()), request.size());
+            reader.filter(request, rows, hits);
+            read += rows.size();
+            if (read == request.size())
+                return reader.response(startTime, rows, hits);
+        }
+
+        // non-wrapping primary ranges of the local datacenter ordered by tokens.
+        List<Range<Token>> ranges = new ArrayList<Range<Token>>();
+        for(Range<Token> range : StorageService.instance.getPrimaryRangeForEndpointWithinDC(ksName, FBUtilities.getBroadcastAddress()))
+            ranges.addAll(range.unwrap());
+        Collections.sort(ranges, (r1, r2) -> r1.left.compareTo(r2.left));
+
+        for(Range<Token> range : ranges) {
+            long left = (Long) range.left.getTokenValue();
+            long right = (Long) range.right.getTokenValue();
+            if (range.right.isMinimum())
+                right = Long.MAX_VALUE;
+            if (right <= request.token())
+                continue;
+
+            int remaining = request.size() - read;
+            List<UntypedResultSet.Row> rows = reader.read(Math.max(left, request.token()), right, remaining);
+            reader.filter(request, rows, hits);
+            read += rows.size();
+            if (rows.size() == remaining)
+                return reader.response(startTime, rows, hits);
+        }
+        return new ExportResponse(clusterService.localNode().getId(), null, null, System.currentTimeMillis() - startTime, hits);
+    }
+
+    class RowReader {
+        final IndexService indexService;
+        final DocumentMapper docMapper;
+        final ColumnDefinition[] pkColumns;
+        final int partitionKeySize;
+        final String rangeQuery;
+        final String partitionQuery;
+
+        RowReader(IndexService indexService, DocumentMapper docMapper, CFMetaData metadata) {
+            this.indexService = indexService;
+            this.docMapper = docMapper;
+            this.pkColumns = new ColumnDefinition[metadata.partitionKeyColumns().size() + metadata.clusteringColumns().size()];
+            this.partitionKeySize = metadata.partitionKeyColumns().size();
+            int i = 0;
+            for(ColumnDefinition cd : metadata.partitionKeyColumns())
+                pkColumns[i++] = cd;
+            for(ColumnDefinition cd : metadata.clusteringColumns())
+                pkColumns[i++] = cd;
+
+            DocumentMapper.CqlFragments cqlFragment = docMapper.getCqlFragments();
+            StringBuilder select = new StringBuilder("SELECT token(").append(cqlFragment.ptCols).append(") as \"").append(TokenFieldMapper.NAME).append("\",")
+                    .append(cqlFragment.pkCols);
+            for(Map.Entry<String, ColumnDefinition> entry : docMapper.getColumnDefinitions().entrySet()) {
+                if (!entry.getValue().isPrimaryKeyColumn())
+                    select.append(",\"").append(entry.getKey()).append("\"");
+            }
+            select.append(" FROM \"").append(metadata.ksName).append("\".\"").append(metadata.cfName).append("\" WHERE ");
+            this.rangeQuery = select.toString() + "token(" + cqlFragment.ptCols + ") > ? AND token(" + cqlFragment.ptCols + ") <= ? LIMIT ?";
+
+            // rows of a partition after a clustering key, only for tables having clustering columns.
+            if (metadata.clusteringColumns().isEmpty()) {
+                this.partitionQuery = null;
+            } else {
+                StringBuilder clustering = new StringBuilder();
+                StringBuilder markers = new StringBuilder();
+                for(ColumnDefinition cd : metadata.clusteringColumns()) {
+                    if (clustering.length() > 0) {
+                        clustering.append(',');
+                        markers.append(',');
+                    }
+                    clustering.append('"').append(cd.name.toString()).append('"');
+                    markers.append('?');
+                }
+                this.partitionQuery = select.toString() + cqlFragment.ptWhere + " AND (" + clustering + ") > (" + markers + ") LIMIT ?";
+            }
+        }
+
+        /**
+         * Read at most limit rows having a token in the range (left, right], in token order.
+         */
+        List<UntypedResultSet.Row> read(long left, long right, int limit) {
+            List<UntypedResultSet.Row> rows = new ArrayList<UntypedResultSet.Row>(limit);
+            for(UntypedResultSet.Row row : QueryProcessor.executeInternal(rangeQuery, left, right, limit))
+                rows.add(row);
+            return rows;
+        }
+
+        /**
+         * Read at most limit rows of the partition of a document, following the document row in clustering order.
+         */
+        List<UntypedResultSet.Row> read(ClusterService.DocPrimaryKey after, int limit) {
+            List<UntypedResultSet.Row> rows = new ArrayList<UntypedResultSet.Row>(limit);
+            if (partitionQuery == null || after.isStaticDocument)
+                return rows;
+            Object[] values = Arrays.copyOf(after.values, after.values.length + 1);
+            values[after.values.length] = limit;
+            for(UntypedResultSet.Row row : QueryProcessor.executeInternal(partitionQuery, values))
+                rows.add(row);
+            return rows;
+        }
+
+        /**
+         * Build the response of a full page, resumed after its last row. The next page starts with the
+         * remaining rows of the last partition when the table has clustering columns.
+         */
+        ExportResponse response(long startTime, List<UntypedResultSet.Row> rows, List<ExportResponse.Hit> hits) throws IOException {
+            UntypedResultSet.Row last = rows.get(rows.size() - 1);
+            String after = (partitionQuery == null) ? null : id(last);
+            return new ExportResponse(clusterService.localNode().getId(), last.getLong(TokenFieldMapper.NAME), after,
+                    System.currentTimeMillis() - startTime, hits);
+        }
+
+        String id(UntypedResultSet.Row row) throws IOException {
+            Object[] values = new Object[pkColumns.length];
+            for(int i=0; i < pkColumns.length; i++)
+                values[i] = ClusterService.deserialize(pkColumns[i].type, row.getBytes(pkColumns[i].name.toString()));
+            return ClusterService.stringify(values, values.length);
+        }
+
+        /**
+         * Add rows matching the request query to hits.
+         */
+        void filter(ExportRequest request, List<UntypedResultSet.Row> rows, List<ExportResponse.Hit> hits) throws IOException {
+            if (rows.isEmpty())
+                return;
+            Set<String> ids = (request.query() == null) ? null : matchingIds(request,
+                    rows.get(0).getLong(TokenFieldMapper.NAME), rows.get(rows.size() - 1).getLong(TokenFieldMapper.NAME));
+            for(UntypedResultSet.Row row : rows) {
+                String id = id(row);
+                if (ids != null && !ids.contains(id))
+                    continue;
+                // _token is a metadata field, not serialized in the source.
+                BytesReference source = docMapper.getRowSerializer(row.getColumns(), false).toXContent(row, XContentType.JSON);
+                hits.add(new ExportResponse.Hit(id, row.getLong(TokenFieldMapper.NAME), source));
+            }
+        }
+
+        /**
+         * @return ids of documents matching the request query with a token in [from, to].
+         */
+        Set<String> matchingIds(ExportRequest request, long from, long to) throws IOException {
+            final IndexShard indexShard = indexService.getShard(0);
+            final Set<String> ids = new HashSet<String>();
+            try (Engine.Searcher searcher = indexShard.acquireSearcher("export")) {
+                QueryShardContext context = indexService.newQueryShardContext(0, searcher.reader(), System::currentTimeMillis);
+                BooleanQuery query = new BooleanQuery.Builder()
+                        .add(context.toQuery(request.query()).query(), Occur.MUST)
+                        .add(new TermQuery(new Term(TypeFieldMapper.NAME, docMapper.type())), Occur.FILTER)
+                        .add(LongPoint.newRangeQuery(TokenFieldMapper.NAME, from, to), Occur.FILTER)
+                        .build();
+                final Set<String> fields = new HashSet<String>(Arrays.asList(IdFieldMapper.NAME, UidFieldMapper.NAME));
+                searcher.searcher().search(query, new SimpleCollector() {
+                    LeafReaderContext leaf;
+
+                    @Override
+                    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                        this.leaf = context;
+                    }
+
+                    @Override
+                    public void collect(int doc) throws IOException {
+                        // _id is stored for single type indices, _uid otherwise.
+                        Document document = leaf.reader().document(doc, fields);
+                        String id = document.get(IdFieldMapper.NAME);
+                        ids.add((id != null) ? id : Uid.createUid(document.get(UidFieldMapper.NAME)).id());
+                    }
+
+                    @Override
+                    public boolean needsScores() {
+                        return false;
+                    }
+                });
+            }
+            return ids;
+        }
+    }
+}
@@ -19,14 +19,12 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 
-import org.apache.cassandra.db.Keyspace;
 import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
 import org.apache.cassandra.dht.Range;
 import org.apache.cassandra.dht.Token;
 import org.apache.cassandra.exceptions.ConfigurationException;
 import org.apache.cassandra.locator.AbstractReplicationStrategy;
 import org.apache.cassandra.locator.TokenMetadata;
-import org.apache.cassandra.service.StorageService;
 import org.apache.cassandra.utils.FBUtilities;
 import org.apache.logging.log4j.Logger;
 import org.elassandra.gateway.CassandraGatewayService;
@@ -92,6 +90,7 @@ public abstract class AbstractSearchStrategy {
 
         protected final TokenMetadata metadata;
         protected final AbstractReplicationStrategy strategy;
+        protected final RingSnapshot ring;
         
         public Router(final Index index, final String ksName, BiFunction<Index, UUID, ShardRoutingState> shardsFunc, final ClusterState clusterState, boolean includeReplica) 
         {
@@ -101,17 +100,42 @@ public abstract class AbstractSearchStrategy {
             this.localNode = clusterState.nodes().getLocalNode();
             this.shardsFunc = shardsFunc;
             
+            final DiscoveryNode[] tokenOwnerNodes;  // endpoint ordinal -> DiscoveryNode owning tokens
+            final DiscoveryNode[] replicaNodes;     // endpoint ordinal -> DiscoveryNode resolved by host id
+            final boolean[] startedReplicas;        // endpoint ordinal -> alive node with a started shard
             if (isRoutable(clusterState)) {
-                // only available when keyspaces are initialized and node joined
-                this.strategy = Keyspace.open(ksName).getReplicationStrategy();
-                this.metadata = StorageService.instance.getTokenMetadata().cloneOnlyTokenMap();
+                // only available when keyspaces are initialized and node joined, shared by all indices of the keyspace.
+                this.ring = RingSnapshot.of(ksName);
+                this.strategy = ring.strategy();
+                this.metadata = ring.metadata();
+                InetAddress[] endpoints = ring.endpoints();
+                tokenOwnerNodes = new DiscoveryNode[endpoints.length];
+                replicaNodes = new DiscoveryNode[endpoints.length];
+                startedReplicas = new boolean[endpoints.length];
                 for(DiscoveryNode node : clusterState.nodes()) {
-                    for(Token token : this.metadata.getTokens(node.getInetAddress())) 
-                        this.tokenToNodes.put(token, node);
+                    int ordinal = ring.endpointOrdinal(node.getInetAddress());
+                    if (ordinal >= 0)
+                        tokenOwnerNodes[ordinal] = node;
+                }
+                for(int j=0; j < endpoints.length; j++) {
+                    UUID uuid = ring.hostId(j);
+                    DiscoveryNode node = (uuid == null) ? clusterState.nodes().findByInetAddress(endpoints[j]) : clusterState.nodes().get(uuid.toString());
+                    replicaNodes[j] = node;
+                    startedReplicas[j] = node != null && node.status() == DiscoveryNode.DiscoveryNodeStatus.ALIVE &&
+                            ShardRoutingState.STARTED.equals( shardsFunc.apply(this.index, node.uuid() ));
+                }
+                for(int t=0; t < ring.size(); t++) {
+                    DiscoveryNode node = tokenOwnerNodes[ring.owner(t)];
+                    if (node != null)
+                        this.tokenToNodes.put(ring.token(t), node);
                 }
             } else {
+                this.ring = null;
                 this.strategy = null;
                 this.metadata = null;
+                tokenOwnerNodes = null;
+                replicaNodes = null;
+                startedReplicas = null;
             }
             
             this.tokens = new ArrayList<Token>(this.tokenToNodes.keys());
@@ -128,18 +152,16 @@ public abstract class AbstractSearchStrategy {
 
                 // greenshard = available node -> token range bitset, 
                 boolean orphanRange = true;
-                for(InetAddress endpoint :  (this.metadata == null) ? Collections.singletonList(localNode.getInetAddress()) : this.strategy.calculateNaturalEndpoints(token, this.metadata)) {
-                    UUID uuid = StorageService.instance.getHostId(endpoint);
-                    DiscoveryNode node =  (uuid == null) ? clusterState.nodes().findByInetAddress(endpoint) : clusterState.nodes().get(uuid.toString());
-                    if (node != null && node.status() == DiscoveryNode.DiscoveryNodeStatus.ALIVE) {
-                        if (ShardRoutingState.STARTED.equals( shardsFunc.apply(this.index, node.uuid() ))) {
+                if (this.ring == null) {
+                    if (localNode.status() == DiscoveryNode.DiscoveryNodeStatus.ALIVE && ShardRoutingState.STARTED.equals( shardsFunc.apply(this.index, localNode.uuid() ))) {
+                        orphanRange = false;
+                        setRange(localNode, i);
+                    }
+                } else {
+                    for(int ordinal : this.ring.replicas(token)) {
+                        if (startedReplicas[ordinal]) {
                             orphanRange = false;
-                            BitSet bs = greenShards.get(node);
-                            if (bs == null) {
-                                bs = new BitSet(tokens.size() - 1);
-                                greenShards.put(node, bs);
-                            }
-                            bs.set(i);
+                            setRange(replicaNodes[ordinal], i);
                             if (!includeReplica)
                                 break;
                         }
@@ -179,6 +201,15 @@ public abstract class AbstractSearchStrategy {
                 logger.trace("index=[{}] keyspace=[{}] isConsistent={} greenShards={} redShards={} yellowShards={}",index, ksName, this.isConsistent, this.greenShards, this.redShards, this.yellowShards);
         }
         
+        private void setRange(DiscoveryNode node, int tokenIndex) {
+            BitSet bs = greenShards.get(node);
+            if (bs == null) {
+                bs = new BitSet(tokens.size() - 1);
+                greenShards.put(node, bs);
+            }
+            bs.set(tokenIndex);
+        }
+        
         public abstract Route newRoute(@Nullable String preference, TransportAddress src);
 
         public boolean isConsistent() {
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.cluster.routing;
+
+import org.apache.cassandra.db.Keyspace;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.locator.AbstractReplicationStrategy;
+import org.apache.cassandra.locator.TokenMetadata;
+import org.apache.cassandra.service.StorageService;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable per keyspace view of the cassandra ring: sorted tokens, owner and replica endpoints of each token.
+ * A snapshot is built once per ring version (or replication strategy change) and shared by the routers of all indices
+ * mapped to the keyspace, so that per index routers never clone the TokenMetadata nor call calculateNaturalEndpoints.
+ * Endpoints are referenced by their ordinal in {@link #endpoints()}.
+ */
+public final class RingSnapshot {
+
+    private static final int[] NO_REPLICA = new int[0];
+
+    // keyspace name -> last ring snapshot
+    private static final Map<String, RingSnapshot> snapshots = new ConcurrentHashMap<String, RingSnapshot>();
+
+    private final long ringVersion;
+    private final AbstractReplicationStrategy strategy;
+    private final TokenMetadata metadata;
+
+    private final Token[] tokens;             // sorted ring tokens
+    private final int[] owners;               // token index -> owner endpoint ordinal
+    private final int[][] replicas;           // token index -> natural endpoint ordinals, in replication strategy order
+
+    private final InetAddress[] endpoints;    // endpoint ordinal -> endpoint
+    private final UUID[] hostIds;             // endpoint ordinal -> host id (may be null)
+    private final Map<InetAddress, Integer> endpointOrdinals;
+
+    /**
+     * Returns the current ring snapshot of a keyspace, building a new one if the ring or the replication strategy has changed.
+     * Only available when keyspaces are initialized and the node joined the ring.
+     */
+    public static RingSnapshot of(final String ksName) {
+        final AbstractReplicationStrategy strategy = Keyspace.open(ksName).getReplicationStrategy();
+        final TokenMetadata tokenMetadata = StorageService.instance.getTokenMetadata();
+        return snapshots.compute(ksName, (k, snapshot) ->
+            (snapshot != null && snapshot.isCurrent(strategy, tokenMetadata.getRingVersion())) ? snapshot : new RingSnapshot(strategy, tokenMetadata));
+    }
+
+    /**
+     * Drop the cached snapshot of a keyspace, called when the keyspace is dropped or an index of the keyspace is deleted.
+     */
+    public static void invalidate(final String ksName) {
+        snapshots.remove(ksName);
+    }
+
+    /**
+     * @return the cached snapshot of a keyspace without building it, or null.
+     */
+    public static RingSnapshot cached(final String ksName) {
+        return snapshots.get(ksName);
+    }
+
+    RingSnapshot(final AbstractReplicationStrategy strategy, final TokenMetadata tokenMetadata) {
+        // read the ring version before cloning, a concurrent ring change will be catched by the next isCurrent().
+        this.ringVersion = tokenMetadata.getRingVersion();
+        this.strategy = strategy;
+        this.metadata = tokenMetadata.cloneOnlyTokenMap();
+
+        List<Token> sortedTokens = this.metadata.sortedTokens();
+        this.tokens = sortedTokens.toArray(new Token[sortedTokens.size()]);
+        this.owners = new int[tokens.length];
+        this.replicas = new int[tokens.length][];
+
+        List<InetAddress> endpointList = new ArrayList<InetAddress>();
+        this.endpointOrdinals = new HashMap<InetAddress, Integer>();
+        for(int i=0; i < tokens.length; i++) {
+            owners[i] = ordinal(this.metadata.getEndpoint(tokens[i]), endpointList);
+            List<InetAddress> naturalEndpoints = strategy.calculateNaturalEndpoints(tokens[i], this.metadata);
+            int[] ordinals = new int[naturalEndpoints.size()];
+            for(int j=0; j < ordinals.length; j++)
+                ordinals[j] = ordinal(naturalEndpoints.get(j), endpointList);
+            replicas[i] = ordinals;
+        }
+
+        this.endpoints = endpointList.toArray(new InetAddress[endpointList.size()]);
+        this.hostIds = new UUID[endpoints.length];
+        for(int i=0; i < endpoints.length; i++)
+            hostIds[i] = this.metadata.getHostId(endpoints[i]);
+    }
+
+    private int ordinal(InetAddress endpoint, List<InetAddress> endpointList) {
+        Integer ordinal = endpointOrdinals.get(endpoint);
+        if (ordinal == null) {
+            ordinal = endpointList.size();
+            endpointList.add(endpoint);
+            endpointOrdinals.put(endpoint, ordinal);
+        }
+        return ordinal;
+    }
+
+    public boolean isCurrent(AbstractReplicationStrategy strategy, long ringVersion) {
+        return this.strategy == strategy && this.ringVersion == ringVersion;
+    }
+
+    public long ringVersion() {
+        return this.ringVersion;
+    }
+
+    public AbstractReplicationStrategy strategy() {
+        return this.strategy;
+    }
+
+    /**
+     * @return the cloned token map this snapshot was built from, must not be modified.
+     */
+    public TokenMetadata metadata() {
+        return this.metadata;
+    }
+
+    public int size() {
+        return this.tokens.length;
+    }
+
+    public Token token(int tokenIndex) {
+        return this.tokens[tokenIndex];
+    }
+
+    public int owner(int tokenIndex) {
+        return this.owners[tokenIndex];
+    }
+
+    public InetAddress[] endpoints() {
+        return this.endpoints;
+    }
+
+    public UUID hostId(int ordinal) {
+        return this.hostIds[ordinal];
+    }
+
+    /**
+     * @return the endpoint ordinal, or -1 if the endpoint does not own any token.
+     */
+    public int endpointOrdinal(InetAddress endpoint) {
+        Integer ordinal = this.endpointOrdinals.get(endpoint);
+        return (ordinal == null) ? -1 : ordinal;
+    }
+
+    /**
+     * Natural endpoint ordinals for a token, same as {@link AbstractReplicationStrategy#calculateNaturalEndpoints(Token, TokenMetadata)}
+     * (first ring token greater or equals to the token, wrapping around the ring).
+     */
+    public int[] replicas(Token token) {
+        if (tokens.length == 0)
+            return NO_REPLICA;
+        int idx = Arrays.binarySearch(tokens, token);
+        if (idx < 0)
+            idx = -idx - 1;
+        if (idx == tokens.length)
+            idx = 0;
+        return this.replicas[idx];
+    }
+
+    @Override
+    public String toString() {
+        return "ringVersion="+ringVersion+" tokens="+tokens.length+" endpoints="+Arrays.toString(endpoints);
+    }
+}
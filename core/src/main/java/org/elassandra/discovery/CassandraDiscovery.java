@@ -65,11 +65,14 @@ import org.elasticsearch.transport.TransportService;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -106,6 +109,13 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
     
     private final ConcurrentMap<String, ShardRoutingState> localShardStateMap = new ConcurrentHashMap<String, ShardRoutingState>();
     private final ConcurrentMap<UUID, Map<String,ShardRoutingState>> remoteShardRoutingStateMap = new ConcurrentHashMap<UUID, Map<String,ShardRoutingState>>();
+    // remote X1 values encoded with a metadata version not yet applied locally.
+    private final ConcurrentMap<UUID, String> pendingShardRoutingStateMap = new ConcurrentHashMap<UUID, String>();
+    
+    // publish X1 with the compact encoding, only enable when all nodes decode it (older nodes only parse the JSON format).
+    private final boolean compactShardStates = Boolean.getBoolean("es.compact_shard_states");
+    private final AtomicLong shardStatesGeneration = new AtomicLong(0);
+    private volatile long shardStatesMetaDataVersion = -1;
     
     /**
      * When searchEnabled=true, local shards are visible for routing, otherwise, local shards are seen as UNASSIGNED.
@@ -320,10 +330,8 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
                     if (state.getApplicationState(ApplicationState.X1) != null) {
                         VersionedValue x1 = state.getApplicationState(ApplicationState.X1);
                         if (!endpoint.equals(this.localAddress)) {
-                            Map<String, ShardRoutingState> shardsStateMap;
                             try {
-                                shardsStateMap = jsonMapper.readValue(x1.value, indexShardStateTypeReference);
-                                this.remoteShardRoutingStateMap.put(Gossiper.instance.getHostId(endpoint), shardsStateMap);
+                                updateRemoteShardRoutingState(Gossiper.instance.getHostId(endpoint), x1.value, this.clusterService.state().metaData());
                             } catch (IOException e) {
                                 logger.error("Failed to parse X1 for node [{}]", dn.getId());
                             }
@@ -402,13 +410,13 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
             }
             
             // update remote shard routing view.
+            Set<String> updatedIndices = Collections.emptySet();
             switch(newStatus) {
             case ALIVE:
                 VersionedValue x1 = state.getApplicationState(ApplicationState.X1);
                 if (x1 != null) {
                     try {
-                        Map<String, ShardRoutingState> shardsStateMap = jsonMapper.readValue(x1.value, indexShardStateTypeReference);
-                        this.remoteShardRoutingStateMap.put(dn.uuid(), shardsStateMap);
+                        updatedIndices = updateRemoteShardRoutingState(dn.uuid(), x1.value, this.clusterService.state().metaData());
                     } catch (IOException e) {
                         logger.error("Failed to parse X1 for node=[{}]", dn.getId());
                     }
@@ -416,10 +424,13 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
                 break;
             default:
                 this.remoteShardRoutingStateMap.remove(dn.uuid());
+                this.pendingShardRoutingStateMap.remove(dn.uuid());
             }
 
             if (updatedNode)
                 updateRoutingTable("update-node-" + NetworkAddress.format(endpoint)+"-"+newStatus.toString(), true);
+            else if (!updatedIndices.isEmpty())
+                clusterService.updateRoutingTable("update-node-" + NetworkAddress.format(endpoint)+"-"+newStatus.toString(), updatedIndices);
         }
     }
     
@@ -549,9 +560,10 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
                         if (logger.isTraceEnabled())
                             logger.trace("Endpoint={} X1={} => updating routing table", endpoint, versionValue);
                         
-                        Map<String, ShardRoutingState> shardsStateMap = jsonMapper.readValue(versionValue.value, indexShardStateTypeReference);
-                        this.remoteShardRoutingStateMap.put(Gossiper.instance.getHostId(endpoint), shardsStateMap);
-                        updateRoutingTable("X1-" + endpoint, false);
+                        // only rebuild routing of indices having a new shard state on the remote node.
+                        Set<String> updatedIndices = updateRemoteShardRoutingState(Gossiper.instance.getHostId(endpoint), versionValue.value, this.clusterService.state().metaData());
+                        if (!updatedIndices.isEmpty())
+                            clusterService.updateRoutingTable("X1-" + endpoint, updatedIndices);
                     }
                 } catch (Exception e) {
                     logger.warn("Failed to parse gossip index shard state", e);
@@ -669,6 +681,7 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
                     notifyMetaDataVersionAckListener(Gossiper.instance.getEndpointStateForEndpoint(endpoint));
                 }
                 this.remoteShardRoutingStateMap.remove(removedNode.uuid());
+                this.pendingShardRoutingStateMap.remove(removedNode.uuid());
                 this.clusterGroup.remove(removedNode.getId());
                 updateRoutingTable("node-removed-"+endpoint, true);
             }
@@ -693,6 +706,41 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
         return remoteShardRoutingStateMap.get(nodeUuid);
     }
     
+    /**
+     * Decode a remote X1 value and update the remote shard routing states of the node.
+     * When X1 was encoded with another metadata version, decoding is delayed until this metadata version is applied.
+     * @return names of indices having a new shard state on the remote node.
+     */
+    private synchronized Set<String> updateRemoteShardRoutingState(UUID nodeUuid, String value, MetaData metaData) throws IOException {
+        Map<String, ShardRoutingState> shardsStateMap = ShardRoutingStatesEncoding.decode(value, metaData);
+        if (shardsStateMap == null) {
+            if (logger.isTraceEnabled())
+                logger.trace("node=[{}] X1=[{}] waiting for metadata.version=[{}]", nodeUuid, value, ShardRoutingStatesEncoding.metaDataVersion(value));
+            this.pendingShardRoutingStateMap.put(nodeUuid, value);
+            return Collections.emptySet();
+        }
+        this.pendingShardRoutingStateMap.remove(nodeUuid);
+        Map<String, ShardRoutingState> previous = this.remoteShardRoutingStateMap.put(nodeUuid, shardsStateMap);
+        return ShardRoutingStatesEncoding.diff(previous, shardsStateMap);
+    }
+    
+    /**
+     * Decode remote X1 values waiting for the applied metadata version.
+     */
+    private void updatePendingShardRoutingStates(MetaData metaData) {
+        Set<String> updatedIndices = new HashSet<String>();
+        for(Entry<UUID, String> entry : this.pendingShardRoutingStateMap.entrySet()) {
+            try {
+                updatedIndices.addAll(updateRemoteShardRoutingState(entry.getKey(), entry.getValue(), metaData));
+            } catch (IOException e) {
+                logger.error("Failed to parse X1 for node=[{}]", entry.getKey());
+                this.pendingShardRoutingStateMap.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!updatedIndices.isEmpty())
+            clusterService.updateRoutingTable("X1-metadata-" + metaData.version(), updatedIndices);
+    }
+    
     public void publishShardRoutingState(final String index, final ShardRoutingState shardRoutingState) throws JsonGenerationException, JsonMappingException, IOException {
         ShardRoutingState prevShardRoutingState = localShardStateMap.put(index, shardRoutingState);
         if (shardRoutingState != prevShardRoutingState)
@@ -736,16 +784,29 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
         publishX1(false);
     }
     
-    // Warning: on nodetool enablegossip, Gossiper.instance.isEnable() may be false while receiving a onChange event !
     private void publishX1(boolean force) throws JsonGenerationException, JsonMappingException, IOException {
+        publishX1(this.clusterService.state().metaData(), force);
+    }
+    
+    // Warning: on nodetool enablegossip, Gossiper.instance.isEnable() may be false while receiving a onChange event !
+    private void publishX1(MetaData metaData, boolean force) throws JsonGenerationException, JsonMappingException, IOException {
         if (Gossiper.instance.isEnabled() || force) {
+            String newValue;
             if (searchEnabled.get()) {
-                String newValue = jsonMapper.writerWithType(indexShardStateTypeReference).writeValueAsString(localShardStateMap);
-                Gossiper.instance.addLocalApplicationState(ELASTIC_SHARDS_STATES, StorageService.instance.valueFactory.datacenter(newValue));
+                if (compactShardStates) {
+                    // index ordinals depends on the metadata version, X1 is published again when metadata version change.
+                    newValue = ShardRoutingStatesEncoding.encode(shardStatesGeneration.incrementAndGet(), metaData, localShardStateMap);
+                    shardStatesMetaDataVersion = metaData.version();
+                } else {
+                    newValue = jsonMapper.writerWithType(indexShardStateTypeReference).writeValueAsString(localShardStateMap);
+                }
             } else {
                 // publish an empty map, so other nodes will see local shards UNASSIGNED.
-                Gossiper.instance.addLocalApplicationState(ELASTIC_SHARDS_STATES, StorageService.instance.valueFactory.datacenter("{}"));
+                newValue = (compactShardStates) ? ShardRoutingStatesEncoding.encodeEmpty(shardStatesGeneration.incrementAndGet()) : ShardRoutingStatesEncoding.EMPTY_LEGACY;
             }
+            Gossiper.instance.addLocalApplicationState(ELASTIC_SHARDS_STATES, StorageService.instance.valueFactory.datacenter(newValue));
+            if (logger.isTraceEnabled())
+                logger.trace("X1={} published in gossip state", newValue);
         }
     }
     
@@ -759,7 +820,18 @@ public class CassandraDiscovery extends AbstractLifecycleComponent implements Di
             Gossiper.instance.addLocalApplicationState(ELASTIC_META_DATA, StorageService.instance.valueFactory.datacenter(clusterStateSting));
             if (logger.isTraceEnabled())
                 logger.trace("X2={} published in gossip state", clusterStateSting);
+            
+            // compact X1 depends on the metadata version.
+            if (compactShardStates && searchEnabled.get() && shardStatesMetaDataVersion != clusterState.metaData().version()) {
+                try {
+                    publishX1(clusterState.metaData(), force);
+                } catch (IOException e) {
+                    logger.error("Failed to publish X1", e);
+                }
+            }
         }
+        if (!this.pendingShardRoutingStateMap.isEmpty())
+            updatePendingShardRoutingStates(clusterState.metaData());
     }
 
     @Override
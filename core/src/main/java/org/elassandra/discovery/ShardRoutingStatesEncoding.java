@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra.discovery;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact gossip encoding of the local shard routing states (gossip application state X1).
+ * <p>
+ * Format is <code>2/generation/metadata.version/states</code> where states is a base64 encoded array of 2 bits per index,
+ * indices being ordered by index UUID in the metadata identified by metadata.version. Indices not started on the node
+ * are encoded as UNASSIGNED. The legacy JSON format (index name -> state) is still decoded for mixed clusters.
+ * A receiver having another metadata version cannot map ordinals to indices, and should decode the value again
+ * when its metadata reaches the sender metadata version.
+ */
+public final class ShardRoutingStatesEncoding {
+
+    public static final char VERSION = '2';
+    public static final String EMPTY_LEGACY = "{}";
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+    private static final TypeReference<Map<String, ShardRoutingState>> indexShardStateTypeReference = new TypeReference<Map<String, ShardRoutingState>>() {};
+
+    // last computed index ordinals, indices names ordered by index UUID.
+    private static volatile IndexOrdinals lastOrdinals = null;
+
+    private static class IndexOrdinals {
+        final String clusterUUID;
+        final long version;
+        final String[] names;
+
+        IndexOrdinals(MetaData metaData) {
+            this.clusterUUID = metaData.clusterUUID();
+            this.version = metaData.version();
+            List<IndexMetaData> indices = new ArrayList<IndexMetaData>(metaData.indices().size());
+            for(ObjectCursor<IndexMetaData> cursor : metaData.indices().values())
+                indices.add(cursor.value);
+            Collections.sort(indices, (i1, i2) -> i1.getIndexUUID().compareTo(i2.getIndexUUID()));
+            this.names = new String[indices.size()];
+            for(int i=0; i < names.length; i++)
+                names[i] = indices.get(i).getIndex().getName();
+        }
+
+        boolean matches(MetaData metaData) {
+            return this.version == metaData.version() && this.clusterUUID.equals(metaData.clusterUUID());
+        }
+    }
+
+    private ShardRoutingStatesEncoding() {
+    }
+
+    private static IndexOrdinals ordinals(MetaData metaData) {
+        IndexOrdinals ordinals = lastOrdinals;
+        if (ordinals == null || !ordinals.matches(metaData)) {
+            ordinals = new IndexOrdinals(metaData);
+            lastOrdinals = ordinals;
+        }
+        return ordinals;
+    }
+
+    /**
+     * Encode shard states of indices defined in metaData, other indices are ignored.
+     */
+    public static String encode(long generation, MetaData metaData, Map<String, ShardRoutingState> states) {
+        IndexOrdinals ordinals = ordinals(metaData);
+        byte[] bytes = new byte[(ordinals.names.length + 3) / 4];
+        for(int i=0; i < ordinals.names.length; i++) {
+            ShardRoutingState state = states.get(ordinals.names[i]);
+            if (state != null && state != ShardRoutingState.UNASSIGNED)
+                bytes[i >> 2] |= (state.value() - 1) << ((i & 3) << 1);
+        }
+        return new StringBuilder()
+                .append(VERSION).append('/')
+                .append(generation).append('/')
+                .append(metaData.version()).append('/')
+                .append(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes))
+                .toString();
+    }
+
+    /**
+     * Encode an empty shard states, decoded as all shards UNASSIGNED whatever the receiver metadata version is.
+     */
+    public static String encodeEmpty(long generation) {
+        return String.format(Locale.ROOT, "%c/%d/-1/", VERSION, generation);
+    }
+
+    public static boolean isLegacy(String value) {
+        return value.length() == 0 || value.charAt(0) != VERSION;
+    }
+
+    /**
+     * @return the generation of an encoded value, -1 for the legacy JSON format.
+     */
+    public static long generation(String value) throws IOException {
+        return isLegacy(value) ? -1 : number(value, 1);
+    }
+
+    /**
+     * @return the metadata version of an encoded value, -1 for the legacy JSON format or for empty states.
+     */
+    public static long metaDataVersion(String value) throws IOException {
+        return isLegacy(value) ? -1 : number(value, 2);
+    }
+
+    /**
+     * Decode a gossip shard states value.
+     * @return a map of index name to shard state (UNASSIGNED states are omitted),
+     *     or null if the value was encoded with another metadata version.
+     */
+    public static Map<String, ShardRoutingState> decode(String value, MetaData metaData) throws IOException {
+        if (isLegacy(value))
+            return jsonMapper.readValue(value, indexShardStateTypeReference);
+
+        long version = metaDataVersion(value);
+        if (version == -1)
+            return Collections.emptyMap();
+        if (version != metaData.version())
+            return null;
+
+        IndexOrdinals ordinals = ordinals(metaData);
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(field(value, 3));
+        } catch(IllegalArgumentException e) {
+            throw new IOException("Invalid shard states ["+value+"]", e);
+        }
+        if (bytes.length != (ordinals.names.length + 3) / 4)
+            throw new IOException("Shard states ["+value+"] does not match metadata version ["+version+"]");
+
+        Map<String, ShardRoutingState> states = new HashMap<String, ShardRoutingState>();
+        for(int i=0; i < ordinals.names.length; i++) {
+            int bits = (bytes[i >> 2] >> ((i & 3) << 1)) & 3;
+            if (bits != 0)
+                states.put(ordinals.names[i], ShardRoutingState.fromValue((byte)(bits + 1)));
+        }
+        return states;
+    }
+
+    /**
+     * @return names of indices having a different shard state, where a missing state means UNASSIGNED.
+     */
+    public static Set<String> diff(Map<String, ShardRoutingState> previous, Map<String, ShardRoutingState> current) {
+        if (previous == null)
+            previous = Collections.emptyMap();
+        if (current == null)
+            current = Collections.emptyMap();
+        Set<String> changed = new HashSet<String>();
+        for(Map.Entry<String, ShardRoutingState> entry : current.entrySet()) {
+            if (state(entry.getValue()) != state(previous.get(entry.getKey())))
+                changed.add(entry.getKey());
+        }
+        for(Map.Entry<String, ShardRoutingState> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey()) && state(entry.getValue()) != ShardRoutingState.UNASSIGNED)
+                changed.add(entry.getKey());
+        }
+        return changed;
+    }
+
+    private static ShardRoutingState state(ShardRoutingState state) {
+        return (state == null) ? ShardRoutingState.UNASSIGNED : state;
+    }
+
+    private static long number(String value, int pos) throws IOException {
+        try {
+            return Long.parseLong(field(value, pos));
+        } catch(NumberFormatException e) {
+            throw new IOException("Invalid shard states ["+value+"]", e);
+        }
+    }
+
+    private static String field(String value, int pos) throws IOException {
+        int start = 0;
+        for(int i=0; i < pos; i++) {
+            start = value.indexOf('/', start) + 1;
+            if (start == 0)
+                throw new IOException("Invalid shard states ["+value+"]");
+        }
+        int end = value.indexOf('/', start);
+        return (end < 0) ? value.substring(start) : value.substring(start, end);
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.cassandra.db.ColumnFamilyStore;
 import org.apache.cassandra.db.DecoratedKey;
 import org.apache.cassandra.db.DeletionTime;
 import org.apache.cassandra.db.Keyspace;
+import org.apache.cassandra.db.LivenessInfo;
 import org.apache.cassandra.db.PartitionColumns;
 import org.apache.cassandra.db.RangeTombstone;
 import org.apache.cassandra.db.ReadCommand;
@@ -204,6 +205,12 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
     public final static ByteBuffer ES_QUERY_BYTE_BUFFER = ByteBufferUtil.bytes(ES_QUERY);
     public final static String ES_OPTIONS = "es_options";
     public final static ByteBuffer ES_OPTIONS_BYTE_BUFFER = ByteBufferUtil.bytes(ES_OPTIONS);
+    
+    /**
+     * Lucene field holding the expiration time in seconds of the indexed row (only when all live cells of the full row have a TTL,
+     * and the TTL purge is enabled for the index), used by {@link IndexShard#purgeExpiredDocuments(int)}.
+     */
+    public final static String EXPIRE_FIELD = "_expire";
 
     private final static Field DEFAULT_INTERNAL_VERSION = new NumericDocValuesField(VersionFieldMapper.NAME, -1L);
     private final static Field DEFAULT_EXTERNAL_VERSION = new NumericDocValuesField(VersionFieldMapper.NAME, 1L);
@@ -806,6 +813,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
             final boolean index_static_only;
             final boolean index_on_compaction;
             final boolean index_static_document;
+            final boolean ttl_purge;
             final boolean versionLessEngine;
             
             Mapper[] mappers;   // inititalized in the ImmutableMappingInfo constructor.
@@ -830,6 +838,10 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 this.index_static_columns = getMetaSettings(metadata.settings(), indexService.getIndexSettings(), metaMap, IndexMetaData.INDEX_INDEX_STATIC_COLUMNS_SETTING);
                 this.index_static_only = getMetaSettings(metadata.settings(), indexService.getIndexSettings(), metaMap, IndexMetaData.INDEX_INDEX_STATIC_ONLY_SETTING);
                 this.index_static_document = getMetaSettings(metadata.settings(), indexService.getIndexSettings(), metaMap, IndexMetaData.INDEX_INDEX_STATIC_DOCUMENT_SETTING);
+                
+                // read from the new metadata, index settings may not be updated yet.
+                Settings indexSettings = metadata.index(name).getSettings();
+                this.ttl_purge = IndexMetaData.INDEX_TTL_PURGE_INTERVAL_SETTING.get(indexSettings).millis() > 0 && !IndexSettings.INDEX_TTL_DISABLE_PURGE_SETTING.get(indexSettings);
             }
 
             // get _meta, index, cluster or system settings.
@@ -1031,6 +1043,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
         final String metadataClusterUUID;
         final String nodeId;
         final boolean indexOnCompaction;  // true if at least one index has index_on_compaction=true;
+        final boolean ttlPurge;           // true if at least one index purges documents of expired rows.
         
         ImmutableMappingInfo(final ClusterState state) {
             this.metadataVersion = state.metaData().version();
@@ -1049,6 +1062,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 this.indexedPkColumns = null;
                 this.partitionFunctions = null;
                 this.indexOnCompaction = false;
+                this.ttlPurge = false;
                 return;
             }
             
@@ -1146,6 +1160,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 this.indexedPkColumns = null;
                 this.partitionFunctions = null;
                 this.indexOnCompaction = false;
+                this.ttlPurge = false;
                 return;
             }
 
@@ -1234,16 +1249,20 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
             
             boolean _indexSomeStaticColumns = false;
             boolean _indexOnCompaction = false;
+            boolean _ttlPurge = false;
             for(ImmutableIndexInfo indexInfo : this.indices) {
                 if (indexInfo.index_static_columns)
                     _indexSomeStaticColumns = true;
                 if (indexInfo.index_on_compaction)
                     _indexOnCompaction = true;
-                if (_indexSomeStaticColumns && _indexOnCompaction)
+                if (indexInfo.ttl_purge)
+                    _ttlPurge = true;
+                if (_indexSomeStaticColumns && _indexOnCompaction && _ttlPurge)
                     break;
             }
             this.indexSomeStaticColumnsOnWideRow = _indexSomeStaticColumns;
             this.indexOnCompaction = _indexOnCompaction;
+            this.ttlPurge = _ttlPurge;
         }
         
         public BitSet targetIndices(final Object[] values) {
@@ -1312,6 +1331,10 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     super(inRow, outRow);
                 }
                 
+                public WideRowcument(Row inRow, Row outRow, boolean fullRow) throws IOException {
+                    super(inRow, outRow, fullRow);
+                }
+                
                 /**
                  * Check for missing fields
                  * @return true if the rowcument needs some fields.
@@ -1372,7 +1395,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     if (!clusterings.isEmpty()) {
                         boolean hasMissingFields = false;
                         for(WideRowcument rowcument : rowcuments.values()) {
-                            if (rowcument.hasLiveData && rowcument.hasMissingFields()) {
+                            if (rowcument.hasLiveData && (rowcument.hasMissingFields() || rowcument.mayExpire())) {
                                 hasMissingFields = true;
                                 break;
                             }
@@ -1386,7 +1409,7 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                             for(; rowIt.hasNext(); ) {
                                 Row row = rowIt.next();
                                 try {
-                                    WideRowcument rowcument = new WideRowcument(row, null);
+                                    WideRowcument rowcument = new WideRowcument(row, null, true);
                                     try {
                                         if (indexSomeStaticColumnsOnWideRow && inStaticRow != null)
                                             rowcument.readCellValues(inStaticRow, true);
@@ -1469,6 +1492,10 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 public SkinnyRowcument(Row inRow, Row outRow) throws IOException {
                     super(inRow, outRow);
                 }
+                
+                public SkinnyRowcument(Row inRow, Row outRow, boolean fullRow) throws IOException {
+                    super(inRow, outRow, fullRow);
+                }
             }
 
             @Override
@@ -1489,12 +1516,12 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                         break;
                     case COMPACTION: // remove expired row or reindex a doc when a column has expired, happen only when index_on_compaction=true for at least one elasticsearch index.
                     case UPDATE:
-                        if (rowcument.hasMissingFields()) {
+                        if (rowcument.hasMissingFields() || rowcument.mayExpire()) {
                             SinglePartitionReadCommand command = SinglePartitionReadCommand.fullPartitionRead(baseCfs.metadata, nowInSec, key);
                             RowIterator rowIt = read(command);
                             if (rowIt.hasNext())
                                 try {
-                                    this.rowcument = new SkinnyRowcument(rowIt.next(), null);
+                                    this.rowcument = new SkinnyRowcument(rowIt.next(), null, true);
                                 } catch (IOException e) {
                                     logger.error("Unexpected error", e);
                                 }
@@ -1647,17 +1674,25 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                 final BitSet fieldsNotNull = new BitSet(fieldsToIdx.size());     // regular or static columns only
                 final BitSet tombstoneColumns = new BitSet(fieldsToIdx.size());  // regular or static columns only
                 int   docTtl = Integer.MAX_VALUE;
+                int   rowExpire = Integer.MAX_VALUE;
                 int   inRowDataSize;
                 final boolean isStatic;
                 final boolean hasLiveData;
+                final boolean fullRow;
+                
+                public Rowcument(Row inRow, Row outRow) throws IOException {
+                    this(inRow, outRow, false);
+                }
                 
                 /**
                  * 
                  * @param inRow  = inserted data
                  * @param outRow = removed data
+                 * @param fullRow = true when inRow was read from cassandra with all its columns, false for the updated cells only
                  * @throws IOException
                  */
-                public Rowcument(Row inRow, Row outRow) throws IOException {
+                public Rowcument(Row inRow, Row outRow, boolean fullRow) throws IOException {
+                    this.fullRow = fullRow;
                     inRowDataSize =  inRow != null ? inRow.dataSize() : 0;
                     Row row = inRow != null ? inRow : outRow;
                     this.isStatic = row.isStatic();
@@ -1689,8 +1724,42 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                     // order is important, remove before insert.
                     if (outRow != null)
                         readCellValues(outRow, false);
-                     if (inRow != null)
+                     if (inRow != null) {
                          readCellValues(inRow, true);
+                         rowExpire = expirationTime(inRow);
+                     }
+                }
+                
+                /**
+                 * A row expires when its primary key liveness info and all its live cells have expired,
+                 * so the row expiration time is the max of the expiring cells, or Integer.MAX_VALUE if some live data does not expire.
+                 */
+                private int expirationTime(Row row) {
+                    int expire = Integer.MIN_VALUE;
+                    LivenessInfo livenessInfo = row.primaryKeyLivenessInfo();
+                    if (!livenessInfo.isEmpty() && livenessInfo.isLive(nowInSec)) {
+                        if (!livenessInfo.isExpiring())
+                            return Integer.MAX_VALUE;
+                        expire = livenessInfo.localExpirationTime();
+                    }
+                    for(Cell cell : row.cells()) {
+                        if (cell.isLive(nowInSec)) {
+                            if (!cell.isExpiring())
+                                return Integer.MAX_VALUE;
+                            expire = Math.max(expire, cell.localDeletionTime());
+                        }
+                    }
+                    return (expire == Integer.MIN_VALUE) ? Integer.MAX_VALUE : expire;
+                }
+                
+                /**
+                 * An update may only contain expiring cells while older cells (or the row marker of an INSERT) of the same row
+                 * do not expire, so the expiration time of a regular row is only computed from a full row read, and only when
+                 * the TTL purge is enabled for at least one index.
+                 * @return true if the updated cells expire and the full row should be read to index the expiration time.
+                 */
+                public boolean mayExpire() {
+                    return ttlPurge && !fullRow && !isStatic() && rowExpire < Integer.MAX_VALUE;
                 }
                 
                 public boolean hasLiveData(int nowInSec) {
@@ -1914,6 +1983,10 @@ public class ElasticSecondaryIndex implements Index, ClusterStateListener {
                             
                         try {
                             Context context = buildContext(indexInfo, isStatic());
+                            if (indexInfo.ttl_purge && fullRow && !isStatic() && rowExpire < Integer.MAX_VALUE) {
+                                context.doc().add(new LongPoint(EXPIRE_FIELD, rowExpire));
+                                context.doc().add(new NumericDocValuesField(EXPIRE_FIELD, rowExpire));
+                            }
                             Field uid = context.uid();
                             if (isStatic()) {
                                 uid = new Field(UidFieldMapper.NAME, Uid.createUid(typeName, partitionKey), UidFieldMapper.Defaults.FIELD_TYPE);
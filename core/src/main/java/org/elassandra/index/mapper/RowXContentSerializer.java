@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.elassandra.index.mapper;
+
+import org.apache.cassandra.cql3.CQL3Type;
+import org.apache.cassandra.cql3.ColumnSpecification;
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.ListType;
+import org.apache.cassandra.db.marshal.MapType;
+import org.apache.cassandra.db.marshal.SetType;
+import org.apache.cassandra.db.marshal.UserType;
+import org.apache.cassandra.serializers.SimpleDateSerializer;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.apache.cassandra.utils.FBUtilities;
+import org.apache.cassandra.utils.UUIDGen;
+import org.elassandra.index.mapper.internal.NodeFieldMapper;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.Mapper;
+import org.elasticsearch.index.mapper.MetadataFieldMapper;
+import org.elasticsearch.index.mapper.ObjectMapper;
+import org.elasticsearch.index.mapper.ParentFieldMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Serialize a CQL row as a document _source, written directly to an {@link XContentBuilder}.
+ * <p>
+ * Column to mapper bindings are resolved once for a given result set metadata, so that rows are serialized
+ * without the intermediate map of {@link ClusterService#rowAsMap} and without per field mapper lookups.
+ * The output is the same as {@link ClusterService#buildDocument} applied to {@link ClusterService#rowAsMap}.
+ * Serializers are cached per document mapper, see {@link DocumentMapper#getRowSerializer(List, boolean)}.
+ */
+public final class RowXContentSerializer {
+
+    private final List<ColumnSpecification> columns;
+    private final ColumnWriter[] writers;
+
+    public RowXContentSerializer(final DocumentMapper documentMapper, final List<ColumnSpecification> columns, final boolean forStaticDocument) {
+        this.columns = new ArrayList<ColumnSpecification>(columns);
+        List<ColumnWriter> writerList = new ArrayList<ColumnWriter>(columns.size());
+        for(ColumnSpecification colSpec : columns) {
+            String name = colSpec.name.toString();
+            if (IdFieldMapper.NAME.equals(name) || ParentFieldMapper.NAME.equals(name))
+                continue;
+            FieldMapper fieldMapper = documentMapper.mappers().smartNameFieldMapper(name);
+            ObjectMapper objectMapper = (fieldMapper == null) ? documentMapper.objectMappers().get(name) : null;
+            Mapper mapper = (fieldMapper != null) ? fieldMapper : objectMapper;
+            if (mapper instanceof MetadataFieldMapper)
+                continue;
+            if (mapper != null && forStaticDocument && !ClusterService.isStaticOrPartitionKey(mapper))
+                continue;
+            CQL3Type cql3Type = colSpec.type.asCQL3Type();
+            if (cql3Type == CQL3Type.Native.COUNTER || cql3Type instanceof CQL3Type.Custom)
+                continue;
+            writerList.add(new ColumnWriter(name, colSpec.type, cql3Type, fieldMapper, objectMapper));
+        }
+        this.writers = writerList.toArray(new ColumnWriter[writerList.size()]);
+    }
+
+    public List<ColumnSpecification> columns() {
+        return this.columns;
+    }
+
+    public BytesReference toXContent(UntypedResultSet.Row row, XContentType xContentType) throws IOException {
+        return toXContent(row, xContentType, null);
+    }
+
+    /**
+     * @param nodeId when not null, written as the {@link NodeFieldMapper#NAME} field of the document.
+     */
+    public BytesReference toXContent(UntypedResultSet.Row row, XContentType xContentType, @Nullable String nodeId) throws IOException {
+        XContentBuilder builder = XContentFactory.contentBuilder(xContentType).humanReadable(true);
+        toXContent(builder, row, nodeId);
+        return builder.bytes();
+    }
+
+    public XContentBuilder toXContent(XContentBuilder builder, UntypedResultSet.Row row) throws IOException {
+        return toXContent(builder, row, null);
+    }
+
+    public XContentBuilder toXContent(XContentBuilder builder, UntypedResultSet.Row row, @Nullable String nodeId) throws IOException {
+        builder.startObject();
+        for(ColumnWriter writer : writers) {
+            ByteBuffer bb = row.getBytes(writer.name);
+            if (bb != null && !ByteBufferUtil.EMPTY_BYTE_BUFFER.equals(bb))
+                writer.write(builder, bb);
+        }
+        if (nodeId != null)
+            builder.field(NodeFieldMapper.NAME, nodeId);
+        builder.endObject();
+        return builder;
+    }
+
+    private static final class ColumnWriter {
+        final String name;
+        final AbstractType<?> type;
+        final CQL3Type cql3Type;
+        final FieldMapper fieldMapper;
+        final ObjectMapper objectMapper;
+        final boolean timeuuidAsDate;
+
+        ColumnWriter(String name, AbstractType<?> type, CQL3Type cql3Type, FieldMapper fieldMapper, ObjectMapper objectMapper) {
+            this.name = name;
+            this.type = type;
+            this.cql3Type = cql3Type;
+            this.fieldMapper = fieldMapper;
+            this.objectMapper = objectMapper;
+            this.timeuuidAsDate = fieldMapper instanceof DateFieldMapper;
+        }
+
+        void write(XContentBuilder builder, ByteBuffer bb) throws IOException {
+            if (cql3Type instanceof CQL3Type.Native) {
+                Object value = nativeValue(bb);
+                if (value == null)
+                    return;
+                checkMapper();
+                if (fieldMapper != null)
+                    builder.field(name, fieldMapper.fieldType().valueForDisplay(value));
+                else
+                    ClusterService.toXContent(builder, objectMapper, name, value);
+            } else if (type instanceof ListType || type instanceof SetType) {
+                checkMapper();
+                AbstractType<?> elementType = (type instanceof ListType) ? ((ListType<?>)type).getElementsType() : ((SetType<?>)type).getElementsType();
+                if (elementType instanceof UserType || fieldMapper == null) {
+                    // collections of UDT are rendered through their object mapper.
+                    Collection<?> values = (elementType instanceof UserType) ?
+                            (Collection<?>) ClusterService.deserialize(type, bb, objectMapper) :
+                            (Collection<?>) type.compose(bb);
+                    ClusterService.toXContent(builder, objectMapper, name, (values.size() == 1) ? values.iterator().next() : values);
+                } else {
+                    Collection<?> values = (Collection<?>) type.compose(bb);
+                    if (values.size() == 1) {
+                        builder.field(name, displayValue(values.iterator().next()));
+                    } else {
+                        builder.startArray(name);
+                        for(Object v : values)
+                            builder.value(displayValue(v));
+                        builder.endArray();
+                    }
+                }
+            } else if (type instanceof MapType) {
+                checkMapper();
+                MapType<?,?> mapType = (MapType<?,?>) type;
+                if (mapType.getKeysType().asCQL3Type() != CQL3Type.Native.TEXT)
+                    throw new IOException("Only support map<text,?>, bad type for column "+name);
+                Object value;
+                if (mapType.getValuesType() instanceof UserType) {
+                    value = ClusterService.deserialize(type, bb, objectMapper);
+                } else {
+                    Map<String, Object> map = new LinkedHashMap<String, Object>();
+                    for(Map.Entry<?,?> entry : ((Map<?,?>) type.compose(bb)).entrySet()) {
+                        Mapper subMapper = (objectMapper == null) ? null : objectMapper.getMapper((String)entry.getKey());
+                        map.put((String)entry.getKey(), (subMapper instanceof FieldMapper) ? ((FieldMapper)subMapper).fieldType().cqlValue(entry.getValue()) : entry.getValue());
+                    }
+                    value = map;
+                }
+                ClusterService.toXContent(builder, (fieldMapper != null) ? fieldMapper : objectMapper, name, value);
+            } else if (type instanceof UserType) {
+                checkMapper();
+                ClusterService.toXContent(builder, (fieldMapper != null) ? fieldMapper : objectMapper, name, ClusterService.deserialize(type, bb, objectMapper));
+            }
+        }
+
+        private void checkMapper() throws IOException {
+            if (fieldMapper == null && objectMapper == null)
+                throw new IOException("No mapper found for field "+name);
+        }
+
+        private Object displayValue(Object element) {
+            return fieldMapper.fieldType().valueForDisplay(fieldMapper.fieldType().cqlValue(element));
+        }
+
+        /**
+         * Same conversion as {@link ClusterService#rowAsArray} for native CQL types.
+         */
+        private Object nativeValue(ByteBuffer bb) {
+            switch ((CQL3Type.Native) cql3Type) {
+            case ASCII:
+            case TEXT:
+            case VARCHAR:
+                String text = (String) type.compose(bb);
+                if (fieldMapper == null && objectMapper != null && !objectMapper.isEnabled()) {
+                    // parse text as JSON Map (not enabled object)
+                    return FBUtilities.fromJsonMap(text);
+                }
+                return text;
+            case TIMEUUID:
+                if (timeuuidAsDate)
+                    return UUIDGen.unixTimestamp((UUID) type.compose(bb));
+                return type.compose(bb).toString();
+            case UUID:
+                return type.compose(bb).toString();
+            case TIMESTAMP:
+                return cqlValue(((Date) type.compose(bb)).getTime());
+            case DATE:
+                return cqlValue(SimpleDateSerializer.dayToTimeInMillis((Integer) type.compose(bb)));
+            case TIME:
+            case INT:
+            case SMALLINT:
+            case TINYINT:
+            case BIGINT:
+            case DOUBLE:
+            case FLOAT:
+            case BLOB:
+            case BOOLEAN:
+            case INET:
+                return cqlValue(type.compose(bb));
+            default:
+                return null;
+            }
+        }
+
+        private Object cqlValue(Object value) {
+            return (fieldMapper == null) ? value : fieldMapper.fieldType().cqlValue(value);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra.rest.action.export;
+
+import org.elassandra.action.export.ExportAction;
+import org.elassandra.action.export.ExportRequest;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.action.RestActions;
+import org.elasticsearch.rest.action.RestToXContentListener;
+
+import java.io.IOException;
+
+import static org.elasticsearch.rest.RestRequest.Method.GET;
+import static org.elasticsearch.rest.RestRequest.Method.POST;
+
+/**
+ * Export rows of the local node primary token ranges in token order.
+ * The optional <code>token</code> and <code>after</code> parameters resume the export after the <code>next_token</code>
+ * and <code>next_after</code> of a previous response.
+ */
+public class RestExportAction extends BaseRestHandler {
+
+    public RestExportAction(Settings settings, RestController controller) {
+        super(settings);
+        controller.registerHandler(GET, "/{index}/{type}/_export", this);
+        controller.registerHandler(POST, "/{index}/{type}/_export", this);
+    }
+
+    @Override
+    public RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) throws IOException {
+        ExportRequest exportRequest = new ExportRequest(request.param("index"), request.param("type"));
+        exportRequest.size(request.paramAsInt("size", exportRequest.size()));
+        String token = request.param("token");
+        if (token != null)
+            exportRequest.token(Long.parseLong(token));
+        exportRequest.after(request.param("after"));
+        request.withContentOrSourceParamParserOrNull(parser -> {
+            if (parser == null) {
+                exportRequest.query(RestActions.urlParamsToQueryBuilder(request));
+            } else {
+                exportRequest.query(RestActions.getQueryContent(parser));
+            }
+        });
+        return channel -> client.execute(ExportAction.INSTANCE, exportRequest, new RestToXContentListener<>(channel));
+    }
+}
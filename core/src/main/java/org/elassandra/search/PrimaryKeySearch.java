@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra.search;
+
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.get.GetField;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.ConstantScoreQueryBuilder;
+import org.elasticsearch.index.query.IdsQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.TermQueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHitField;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.ScoreSortBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recognize search requests fully determined by a primary key, so that they can be served by a single token-routed
+ * cassandra read (a realtime GET) instead of a shard fan-out. Eligible queries are a term query on _id, an ids query
+ * with one id, or a bool query of must/filter term queries covering all primary key columns, optionally wrapped
+ * in a constant_score query. Any other search feature (aggregations, sort, highlight, scroll, named queries...) disables the pushdown.
+ * Primary key columns must be mapped as keyword fields without normalizer or integral/double/float fields with term values
+ * in their canonical form, so that a term query matches exactly the row of the _id, and the index must not have a partition
+ * function, so that every row of the table is indexed.
+ */
+public final class PrimaryKeySearch {
+
+    private static final org.codehaus.jackson.map.ObjectMapper jsonMapper = new org.codehaus.jackson.map.ObjectMapper();
+
+    private PrimaryKeySearch() {
+    }
+
+    /**
+     * @return the resolved type (or null for any type) and the document _id, or null if the request is not eligible.
+     */
+    public static String[] typeAndId(final IndexService indexService, final SearchRequest request) throws IOException {
+        if (request.scroll() != null || request.tokenRanges() != null || request.routing() != null || request.preference() != null)
+            return null;
+        if (request.types() != null && request.types().length > 1)
+            return null;
+        if (indexService.getMetaData().partitionFunction() != null)
+            return null;
+
+        final SearchSourceBuilder source = request.source();
+        if (source == null || source.query() == null || !isPlainFetch(source))
+            return null;
+
+        String type = (request.types() != null && request.types().length == 1) ? request.types()[0] : null;
+        if (type == null) {
+            Collection<String> types = indexService.mapperService().types();
+            if (types.size() == 1)
+                type = types.iterator().next();
+        } else if (indexService.mapperService().documentMapper(type) == null) {
+            return null;
+        }
+
+        Map<String, Object> terms = new HashMap<String, Object>();
+        if (!collectTerms(source.query(), terms, type))
+            return null;
+
+        String id = (String) terms.remove(IdFieldMapper.NAME);
+        if (id != null)
+            return terms.isEmpty() ? new String[] { type, id } : null;
+
+        if (type == null)
+            return null;
+        id = primaryKeyId(indexService, type, terms);
+        return (id == null) ? null : new String[] { type, id };
+    }
+
+    private static boolean isPlainFetch(final SearchSourceBuilder source) {
+        if (source.postFilter() != null || source.aggregations() != null || source.suggest() != null || source.highlighter() != null
+                || source.scriptFields() != null || source.docValueFields() != null || source.storedFields() != null
+                || source.searchAfter() != null || source.slice() != null || source.collapse() != null || source.minScore() != null
+                || source.profile() || Boolean.TRUE.equals(source.explain()) || Boolean.TRUE.equals(source.version())
+                || (source.rescores() != null && !source.rescores().isEmpty()) || (source.stats() != null && !source.stats().isEmpty())
+                || (source.ext() != null && !source.ext().isEmpty()) || source.from() > 0 || source.size() == 0)
+            return false;
+        if (source.sorts() != null) {
+            for (Object sort : source.sorts())
+                if (!(sort instanceof ScoreSortBuilder))
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * Collect exact term values of a conjunction, return false if the query contains anything else.
+     */
+    private static boolean collectTerms(final QueryBuilder query, final Map<String, Object> terms, final String type) {
+        if (query.queryName() != null)
+            return false;
+        if (query instanceof TermQueryBuilder) {
+            TermQueryBuilder term = (TermQueryBuilder) query;
+            Object value = term.value();
+            if (value == null)
+                return false;
+            if (IdFieldMapper.NAME.equals(term.fieldName()))
+                value = value.toString();
+            Object previous = terms.put(term.fieldName(), value);
+            return previous == null || previous.equals(value);
+        }
+        if (query instanceof IdsQueryBuilder) {
+            IdsQueryBuilder ids = (IdsQueryBuilder) query;
+            if (ids.ids().size() != 1)
+                return false;
+            if (ids.types().length > 0 && (type == null || !Arrays.asList(ids.types()).contains(type)))
+                return false;
+            String id = ids.ids().iterator().next();
+            Object previous = terms.put(IdFieldMapper.NAME, id);
+            return previous == null || previous.equals(id);
+        }
+        if (query instanceof ConstantScoreQueryBuilder)
+            return collectTerms(((ConstantScoreQueryBuilder) query).innerQuery(), terms, type);
+        if (query instanceof BoolQueryBuilder) {
+            BoolQueryBuilder bool = (BoolQueryBuilder) query;
+            if (!bool.should().isEmpty() || !bool.mustNot().isEmpty() || (bool.must().isEmpty() && bool.filter().isEmpty()))
+                return false;
+            for (QueryBuilder clause : bool.must())
+                if (!collectTerms(clause, terms, type))
+                    return false;
+            for (QueryBuilder clause : bool.filter())
+                if (!collectTerms(clause, terms, type))
+                    return false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Build the elassandra _id from term values when they exactly cover the primary key columns.
+     */
+    private static String primaryKeyId(final IndexService indexService, final String type, final Map<String, Object> terms) throws IOException {
+        CFMetaData cfm = ClusterService.getCFMetaData(indexService.keyspace(), ClusterService.typeToCfName(indexService.keyspace(), type));
+        if (cfm == null || terms.size() != cfm.partitionKeyColumns().size() + cfm.clusteringColumns().size())
+            return null;
+
+        List<Object> values = new ArrayList<Object>(terms.size());
+        for (ColumnDefinition cd : cfm.primaryKeyColumns()) {
+            Object value = terms.get(cd.name.toString());
+            if (value == null)
+                return null;
+            MappedFieldType fieldType = indexService.mapperService().fullName(cd.name.toString());
+            if (fieldType instanceof KeywordFieldMapper.KeywordFieldType) {
+                // a normalized term may match other keys than its value.
+                if (((KeywordFieldMapper.KeywordFieldType) fieldType).normalizer() != null)
+                    return null;
+            } else if (fieldType instanceof NumberFieldMapper.NumberFieldType) {
+                if (!isCanonicalNumber(fieldType.typeName(), value))
+                    return null;
+            } else {
+                return null;
+            }
+            values.add(value);
+        }
+        return (values.size() == 1) ? values.get(0).toString() : jsonMapper.writeValueAsString(values);
+    }
+
+    /**
+     * @return true if the term value is written as the number of the field type, so that the term query does not coerce it
+     *     (for example 1.0 or "01" on an integer field) and the _id built from it is the _id of the matching row.
+     */
+    private static boolean isCanonicalNumber(final String typeName, final Object value) {
+        if (!(value instanceof Number) && !(value instanceof String))
+            return false;
+        final String text = value.toString();
+        try {
+            switch (typeName) {
+            case "byte":
+                return Byte.toString(Byte.parseByte(text)).equals(text);
+            case "short":
+                return Short.toString(Short.parseShort(text)).equals(text);
+            case "integer":
+                return Integer.toString(Integer.parseInt(text)).equals(text);
+            case "long":
+                return Long.toString(Long.parseLong(text)).equals(text);
+            case "float":
+                return Float.toString(Float.parseFloat(text)).equals(text);
+            case "double":
+                return Double.toString(Double.parseDouble(text)).equals(text);
+            default:
+                // half_float and scaled_float terms are rounded.
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Build the search hit of a found document, with a constant score.
+     */
+    public static SearchHit searchHit(final GetResult getResult, final SearchShardTarget shardTarget) {
+        Map<String, SearchHitField> fields = new HashMap<String, SearchHitField>();
+        if (getResult.getFields() != null) {
+            for (GetField field : getResult.getFields().values())
+                fields.put(field.getName(), new SearchHitField(field.getName(), field.getValues()));
+        }
+        SearchHit hit = new SearchHit(0, getResult.getId(), new Text(getResult.getType()), fields);
+        hit.score(1.0f);
+        hit.sourceRef(getResult.internalSourceRef());
+        hit.shard(shardTarget);
+        return hit;
+    }
+}
@@ -19,6 +19,9 @@
 
 package org.elassandra.search.aggregations.bucket.token;
 
+import org.apache.lucene.index.IndexOptions;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.AggregatorFactory;
@@ -51,6 +54,20 @@ public class AbstractRangeAggregatorFactory<AF extends AbstractRangeAggregatorFa
         this.rangeFactory = rangeFactory;
     }
 
+    /**
+     * @return the field name if values are read from an indexed long field, allowing to count documents from points.
+     */
+    private String pointField() {
+        if (config.fieldContext() == null || config.script() != null || config.missing() != null)
+            return null;
+        MappedFieldType fieldType = config.fieldContext().fieldType();
+        if (fieldType instanceof NumberFieldMapper.NumberFieldType
+                && NumberFieldMapper.NumberType.LONG.typeName().equals(fieldType.typeName())
+                && fieldType.indexOptions() != IndexOptions.NONE)
+            return config.fieldContext().field();
+        return null;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData)
             throws IOException {
@@ -60,7 +77,7 @@ public class AbstractRangeAggregatorFactory<AF extends AbstractRangeAggregatorFa
     @Override
     protected Aggregator doCreateInternal(ValuesSource.Numeric valuesSource, Aggregator parent, boolean collectsFromSingleBucket,
             List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
-        return new RangeAggregator(name, factories, valuesSource, config.format(), rangeFactory, ranges, keyed, context, parent,
+        return new RangeAggregator(name, factories, valuesSource, config.format(), rangeFactory, ranges, keyed, pointField(), context, parent,
                 pipelineAggregators, metaData);
     }
 
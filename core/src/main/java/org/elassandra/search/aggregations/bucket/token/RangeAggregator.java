@@ -18,7 +18,21 @@
  */
 package org.elassandra.search.aggregations.bucket.token;
 
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PointValues.IntersectVisitor;
+import org.apache.lucene.index.PointValues.Relation;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -26,7 +40,7 @@ import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
-import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.index.mapper.TypeFieldMapper;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
@@ -102,7 +116,7 @@ public class RangeAggregator extends BucketsAggregator {
             this.toAsStr = toAsStr;
         }
 
-        boolean matches(double value) {
+        boolean matches(long value) {
             return value >= from && value < to;
         }
 
@@ -204,11 +218,25 @@ public class RangeAggregator extends BucketsAggregator {
     final boolean keyed;
     final InternalRange.Factory rangeFactory;
 
-    final double[] maxTo;
+    final long[] maxTo;
+
+    // when not null, bucket counts are computed from the points of this field for segments without deleted documents.
+    final String pointField;
+    // inclusive bounds of the point field values matched by the query, when the query only filters on the point field.
+    final long[] queryBounds;
 
     public RangeAggregator(String name, AggregatorFactories factories, ValuesSource.Numeric valuesSource, DocValueFormat format,
             InternalRange.Factory rangeFactory, Range[] ranges, boolean keyed, SearchContext context,
             Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
+        this(name, factories, valuesSource, format, rangeFactory, ranges, keyed, null, context, parent, pipelineAggregators, metaData);
+    }
+
+    /**
+     * @param pointField name of the single valued long point field backing the values source, or null.
+     */
+    public RangeAggregator(String name, AggregatorFactories factories, ValuesSource.Numeric valuesSource, DocValueFormat format,
+            InternalRange.Factory<?, ?> rangeFactory, Range[] ranges, boolean keyed, String pointField, SearchContext context,
+            Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
 
         super(name, factories, context, parent, pipelineAggregators, metaData);
         assert valuesSource != null;
@@ -219,12 +247,57 @@ public class RangeAggregator extends BucketsAggregator {
 
         this.ranges = ranges;
 
-        maxTo = new double[this.ranges.length];
+        maxTo = new long[this.ranges.length];
         maxTo[0] = this.ranges[0].to;
         for (int i = 1; i < this.ranges.length; ++i) {
             maxTo[i] = Math.max(this.ranges[i].to,maxTo[i-1]);
         }
 
+        // points fast path for top level aggregations without sub-aggregations (docs are never collected).
+        if (pointField != null && parent == null && subAggregators.length == 0
+                && context.minimumScore() == null && context.terminateAfter() == SearchContext.DEFAULT_TERMINATE_AFTER) {
+            this.queryBounds = pointBounds(context.query(), pointField, context);
+        } else {
+            this.queryBounds = null;
+        }
+        this.pointField = (this.queryBounds == null) ? null : pointField;
+    }
+
+    /**
+     * @return the inclusive bounds of the point field values of documents matched by a match_all query or a point range filter,
+     *     or null for any other query.
+     */
+    static long[] pointBounds(Query query, String field, SearchContext context) {
+        if (query instanceof MatchAllDocsQuery) {
+            return new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+        } else if (query instanceof ConstantScoreQuery) {
+            return pointBounds(((ConstantScoreQuery) query).getQuery(), field, context);
+        } else if (query instanceof BoostQuery) {
+            return pointBounds(((BoostQuery) query).getQuery(), field, context);
+        } else if (query instanceof PointRangeQuery) {
+            PointRangeQuery rangeQuery = (PointRangeQuery) query;
+            if (field.equals(rangeQuery.getField()) && rangeQuery.getNumDims() == 1 && rangeQuery.getBytesPerDim() == Long.BYTES)
+                return new long[] { LongPoint.decodeDimension(rangeQuery.getLowerPoint(), 0), LongPoint.decodeDimension(rangeQuery.getUpperPoint(), 0) };
+        } else if (query instanceof TermQuery) {
+            // type filter matching all documents of a single type index.
+            Term term = ((TermQuery) query).getTerm();
+            if (TypeFieldMapper.NAME.equals(term.field()) && context.mapperService().types().size() == 1
+                    && context.mapperService().types().contains(term.text()))
+                return new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+        } else if (query instanceof BooleanQuery && ((BooleanQuery) query).getMinimumNumberShouldMatch() == 0) {
+            long[] bounds = new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+            for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+                if (clause.getOccur() != BooleanClause.Occur.MUST && clause.getOccur() != BooleanClause.Occur.FILTER)
+                    return null;
+                long[] clauseBounds = pointBounds(clause.getQuery(), field, context);
+                if (clauseBounds == null)
+                    return null;
+                bounds[0] = Math.max(bounds[0], clauseBounds[0]);
+                bounds[1] = Math.min(bounds[1], clauseBounds[1]);
+            }
+            return bounds;
+        }
+        return null;
     }
 
     @Override
@@ -235,19 +308,22 @@ public class RangeAggregator extends BucketsAggregator {
     @Override
     public LeafBucketCollector getLeafCollector(LeafReaderContext ctx,
             final LeafBucketCollector sub) throws IOException {
-        final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+        if (pointField != null && ctx.reader().getLiveDocs() == null && countPoints(ctx.reader().getPointValues())) {
+            return LeafBucketCollector.NO_OP_COLLECTOR;
+        }
+        final SortedNumericDocValues values = valuesSource.longValues(ctx);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 values.setDocument(doc);
                 final int valuesCount = values.count();
                 for (int i = 0, lo = 0; i < valuesCount; ++i) {
-                    final double value = values.valueAt(i);
+                    final long value = values.valueAt(i);
                     lo = collect(doc, value, bucket, lo);
                 }
             }
 
-    private int collect(int doc, double value, long owningBucketOrdinal, int lowBound) throws IOException {
+    private int collect(int doc, long value, long owningBucketOrdinal, int lowBound) throws IOException {
         int lo = lowBound, hi = ranges.length - 1; // all candidates are between these indexes
         int mid = (lo + hi) >>> 1;
         while (lo <= hi) {
@@ -298,6 +374,63 @@ public class RangeAggregator extends BucketsAggregator {
         };
     }
 
+    /**
+     * Add the number of points of each range to bucket doc counts, without iterating over documents.
+     * Points fully inside a range are counted per BKD cell, only points of cells crossing range bounds are compared.
+     * @return false if the segment field is not single valued.
+     */
+    private boolean countPoints(PointValues pointValues) throws IOException {
+        if (pointValues == null || pointValues.getDocCount(pointField) == 0)
+            return true; // no value in this segment
+        if (pointValues.size(pointField) != pointValues.getDocCount(pointField))
+            return false;
+
+        final long segmentMin = LongPoint.decodeDimension(pointValues.getMinPackedValue(pointField), 0);
+        final long segmentMax = LongPoint.decodeDimension(pointValues.getMaxPackedValue(pointField), 0);
+        for (int i = 0; i < ranges.length; i++) {
+            if (ranges[i].to == Long.MIN_VALUE)
+                continue;
+            final long lower = Math.max(Math.max(ranges[i].from, queryBounds[0]), segmentMin);
+            final long upper = Math.min(Math.min(ranges[i].to - 1, queryBounds[1]), segmentMax);
+            if (lower > upper)
+                continue;
+            final int count = (lower == segmentMin && upper == segmentMax) ?
+                    pointValues.getDocCount(pointField) : countPoints(pointValues, lower, upper);
+            if (count > 0)
+                incrementBucketDocCount(subBucketOrdinal(0, i), count);
+        }
+        return true;
+    }
+
+    private int countPoints(PointValues pointValues, final long lower, final long upper) throws IOException {
+        final int[] count = new int[1];
+        pointValues.intersect(pointField, new IntersectVisitor() {
+            @Override
+            public void visit(int docID) {
+                count[0]++;
+            }
+
+            @Override
+            public void visit(int docID, byte[] packedValue) {
+                long value = LongPoint.decodeDimension(packedValue, 0);
+                if (value >= lower && value <= upper)
+                    count[0]++;
+            }
+
+            @Override
+            public Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+                long min = LongPoint.decodeDimension(minPackedValue, 0);
+                long max = LongPoint.decodeDimension(maxPackedValue, 0);
+                if (max < lower || min > upper)
+                    return Relation.CELL_OUTSIDE_QUERY;
+                if (min >= lower && max <= upper)
+                    return Relation.CELL_INSIDE_QUERY;
+                return Relation.CELL_CROSSES_QUERY;
+            }
+        });
+        return count[0];
+    }
+
     private long subBucketOrdinal(long owningBucketOrdinal, int rangeOrd) {
         return owningBucketOrdinal * ranges.length + rangeOrd;
     }
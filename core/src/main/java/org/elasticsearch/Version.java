@@ -134,7 +134,9 @@ public class Version {
     public static final Version V_5_4_4_UNRELEASED = new Version(V_5_4_4_ID_UNRELEASED, org.apache.lucene.util.Version.LUCENE_6_5_1);
     public static final int V_5_5_0_ID = 5050099;
     public static final Version V_5_5_0 = new Version(V_5_5_0_ID, org.apache.lucene.util.Version.LUCENE_6_6_0);
-    public static final Version CURRENT = V_5_5_0;
+    public static final int V_5_5_1_ID = 5050199;
+    public static final Version V_5_5_1 = new Version(V_5_5_1_ID, org.apache.lucene.util.Version.LUCENE_6_6_0);
+    public static final Version CURRENT = V_5_5_1;
 
     // unreleased versions must be added to the above list with the suffix _UNRELEASED (with the exception of CURRENT)
 
@@ -149,6 +151,8 @@ public class Version {
 
     public static Version fromId(int id) {
         switch (id) {
+            case V_5_5_1_ID:
+                return V_5_5_1;
             case V_5_5_0_ID:
                 return V_5_5_0;
             case V_5_4_4_ID_UNRELEASED:
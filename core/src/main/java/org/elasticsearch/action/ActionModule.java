@@ -26,9 +26,12 @@ import org.elassandra.action.admin.indices.rebuild.RebuildAction;
 import org.elassandra.action.admin.indices.rebuild.TransportRebuildAction;
 import org.elassandra.action.admin.indices.reload.ReloadAction;
 import org.elassandra.action.admin.indices.reload.TransportReloadAction;
+import org.elassandra.action.export.ExportAction;
+import org.elassandra.action.export.TransportExportAction;
 import org.elassandra.rest.action.admin.indices.cleanup.RestCleanupAction;
 import org.elassandra.rest.action.admin.indices.rebuild.RestRebuildAction;
 import org.elassandra.rest.action.admin.indices.reload.RestReloadAction;
+import org.elassandra.rest.action.export.RestExportAction;
 import org.elasticsearch.action.admin.cluster.allocation.ClusterAllocationExplainAction;
 import org.elasticsearch.action.admin.cluster.allocation.TransportClusterAllocationExplainAction;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthAction;
@@ -426,6 +429,9 @@ public class ActionModule extends AbstractModule {
         actions.register(ReloadAction.INSTANCE, TransportReloadAction.class);
         actions.register(CleanupAction.INSTANCE, TransportCleanupAction.class);
         
+        // token range export of cassandra tables
+        actions.register(ExportAction.INSTANCE, TransportExportAction.class);
+        
         actions.register(IndicesStatsAction.INSTANCE, TransportIndicesStatsAction.class);
         actions.register(IndicesSegmentsAction.INSTANCE, TransportIndicesSegmentsAction.class);
         actions.register(IndicesShardStoresAction.INSTANCE, TransportIndicesShardStoresAction.class);
@@ -538,6 +544,7 @@ public class ActionModule extends AbstractModule {
         registerHandler.accept(new RestRebuildAction(settings, restController));
         registerHandler.accept(new RestReloadAction(settings, restController));
         registerHandler.accept(new RestCleanupAction(settings, restController));
+        registerHandler.accept(new RestExportAction(settings, restController));
         
         
         registerHandler.accept(new RestGetIndicesAction(settings, restController, indexScopedSettings, settingsFilter));
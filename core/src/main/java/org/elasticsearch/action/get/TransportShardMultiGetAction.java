@@ -32,7 +32,6 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexService;
-import org.elasticsearch.index.get.GetResult;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
@@ -85,20 +84,26 @@ public class TransportShardMultiGetAction extends TransportSingleShardAction<Mul
         }
 
         MultiGetShardResponse response = new MultiGetShardResponse();
-        for (int i = 0; i < request.locations.size(); i++) {
-            MultiGetRequest.Item item = request.items.get(i);
-            try {
-                GetResult getResult = indexShard.getService().get(item.type(), item.id(), item.storedFields(), request.realtime(), item.version(),
-                    item.versionType(), item.fetchSourceContext());
-                response.add(request.locations.get(i), new GetResponse(getResult));
-            } catch (Exception e) {
+        // in elassandra, rows are read in batch from cassandra.
+        GetResponse[] responses = new GetResponse[request.locations.size()];
+        MultiGetResponse.Failure[] failures = new MultiGetResponse.Failure[request.locations.size()];
+        indexShard.getService().multiGet(request.items,
+            (i, getResult) -> responses[i] = new GetResponse(getResult),
+            (i, e) -> {
+                MultiGetRequest.Item item = request.items.get(i);
                 if (TransportActions.isShardNotAvailableException(e)) {
                     throw (ElasticsearchException) e;
                 } else {
                     logger.debug((Supplier<?>) () -> new ParameterizedMessage("{} failed to execute multi_get for [{}]/[{}]", shardId,
                         item.type(), item.id()), e);
-                    response.add(request.locations.get(i), new MultiGetResponse.Failure(request.index(), item.type(), item.id(), e));
+                    failures[i] = new MultiGetResponse.Failure(request.index(), item.type(), item.id(), e);
                 }
+            });
+        for (int i = 0; i < request.locations.size(); i++) {
+            if (responses[i] != null) {
+                response.add(request.locations.get(i), responses[i]);
+            } else {
+                response.add(request.locations.get(i), failures[i]);
             }
         }
 
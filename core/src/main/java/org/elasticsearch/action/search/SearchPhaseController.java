@@ -31,10 +31,18 @@ import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.grouping.CollapseTopFieldDocs;
+import org.apache.lucene.util.SetOnce;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.HppcMaps;
 import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ParallelTasks;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
@@ -50,13 +58,14 @@ import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.search.profile.ProfileShardResult;
+import org.elasticsearch.search.profile.ReduceProfileResult;
 import org.elasticsearch.search.profile.SearchProfileShardResults;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.Suggest.Suggestion;
 import org.elasticsearch.search.suggest.Suggest.Suggestion.Entry;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
-
+import org.elasticsearch.threadpool.ThreadPool;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -64,6 +73,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -72,13 +83,27 @@ public final class SearchPhaseController extends AbstractComponent {
 
     private static final ScoreDoc[] EMPTY_DOCS = new ScoreDoc[0];
 
+    /**
+     * Reduces independent top-level aggregations and the top docs concurrently on the {@link ThreadPool.Names#SEARCH_REDUCE}
+     * thread pool, with the help of the reducing thread.
+     */
+    public static final Setting<Boolean> CONCURRENT_REDUCE_SETTING =
+        Setting.boolSetting("search.concurrent_reduce", false, Property.NodeScope);
+
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
+    private final Executor reduceExecutor;
 
     public SearchPhaseController(Settings settings, BigArrays bigArrays, ScriptService scriptService) {
+        this(settings, bigArrays, scriptService, null);
+    }
+
+    public SearchPhaseController(Settings settings, BigArrays bigArrays, ScriptService scriptService, @Nullable ThreadPool threadPool) {
         super(settings);
         this.bigArrays = bigArrays;
         this.scriptService = scriptService;
+        this.reduceExecutor = threadPool != null && CONCURRENT_REDUCE_SETTING.get(settings) ?
+            threadPool.executor(ThreadPool.Names.SEARCH_REDUCE) : null;
     }
 
     public AggregatedDfs aggregateDfs(Collection<DfsSearchResult> results) {
@@ -405,7 +430,7 @@ public final class SearchPhaseController extends AbstractComponent {
      * @param queryResults a list of non-null query shard results
      */
     public ReducedQueryPhase reducedQueryPhase(Collection<? extends SearchPhaseResult> queryResults, boolean isScrollRequest) {
-        return reducedQueryPhase(queryResults, null, new ArrayList<>(), new TopDocsStats(), 0, isScrollRequest);
+        return reducedQueryPhase(queryResults, null, new ArrayList<>(), new TopDocsStats(), 0, 0L, isScrollRequest);
     }
 
     /**
@@ -416,12 +441,14 @@ public final class SearchPhaseController extends AbstractComponent {
      * @param bufferedTopDocs a list of pre-collected / buffered top docs. if this list is non-null all top docs have been consumed
      *                    from all non-null query results.
      * @param numReducePhases the number of non-final reduce phases applied to the query results.
+     * @param partialReduceNanos the elapsed time of the non-final reduce phases, in nanoseconds.
      * @see QuerySearchResult#consumeAggs()
      * @see QuerySearchResult#consumeProfileResult()
      */
     private ReducedQueryPhase reducedQueryPhase(Collection<? extends SearchPhaseResult> queryResults,
                                                 List<InternalAggregations> bufferedAggs, List<TopDocs> bufferedTopDocs,
-                                                TopDocsStats topDocsStats, int numReducePhases, boolean isScrollRequest) {
+                                                TopDocsStats topDocsStats, int numReducePhases, long partialReduceNanos,
+                                                boolean isScrollRequest) {
         assert numReducePhases >= 0 : "num reduce phases must be >= 0 but was: " + numReducePhases;
         numReducePhases++; // increment for this phase
         boolean timedOut = false;
@@ -485,32 +512,120 @@ public final class SearchPhaseController extends AbstractComponent {
                 profileResults.put(key, result.consumeProfileResult());
             }
         }
-        final Suggest suggest = groupedSuggestions.isEmpty() ? null : new Suggest(Suggest.reduce(groupedSuggestions));
-        ReduceContext reduceContext = new ReduceContext(bigArrays, scriptService, true);
-        final InternalAggregations aggregations = aggregationsList.isEmpty() ? null : reduceAggs(aggregationsList,
-            firstResult.pipelineAggregators(), reduceContext);
-        final SearchProfileShardResults shardResults = profileResults.isEmpty() ? null : new SearchProfileShardResults(profileResults);
-        final SortedTopDocs scoreDocs = this.sortDocs(isScrollRequest, queryResults, bufferedTopDocs, topDocsStats, from, size);
+        final long reduceStartNanos = System.nanoTime();
+        final Map<String, Long> breakdown = hasProfileResults ? ConcurrentCollections.newConcurrentMap() : null;
+        final Map<String, Long> aggregationTimings = hasProfileResults ? ConcurrentCollections.newConcurrentMap() : null;
+        final ReduceContext reduceContext = new ReduceContext(bigArrays, scriptService, true);
+        final int finalFrom = from;
+        final int finalSize = size;
+        final SetOnce<Suggest> suggest = new SetOnce<>();
+        final SetOnce<SortedTopDocs> scoreDocs = new SetOnce<>();
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        // completion suggestions are reduced again with the top docs, so suggestions and top docs are reduced by the same task
+        tasks.add(() -> {
+            if (hasSuggest) {
+                final long startNanos = System.nanoTime();
+                suggest.set(groupedSuggestions.isEmpty() ? null : new Suggest(Suggest.reduce(groupedSuggestions)));
+                addTiming(breakdown, ReduceProfileResult.SUGGEST, startNanos);
+            }
+            final long startNanos = System.nanoTime();
+            scoreDocs.set(this.sortDocs(isScrollRequest, queryResults, bufferedTopDocs, topDocsStats, finalFrom, finalSize));
+            addTiming(breakdown, ReduceProfileResult.TOP_DOCS, startNanos);
+            return null;
+        });
+        final InternalAggregation[] reducedAggs = aggregationsList.isEmpty() ? null
+            : addAggsReduceTasks(aggregationsList, reduceContext, tasks, aggregationTimings);
+        final boolean concurrent = runReduceTasks(tasks);
+        InternalAggregations aggregations = null;
+        if (reducedAggs != null) {
+            final long startNanos = System.nanoTime();
+            aggregations = reduceSiblingPipelines(new InternalAggregations(Arrays.asList(reducedAggs)),
+                firstResult.pipelineAggregators(), reduceContext);
+            if (firstResult.pipelineAggregators() != null) {
+                addTiming(breakdown, ReduceProfileResult.SIBLING_PIPELINES, startNanos);
+            }
+        }
+        SearchProfileShardResults shardResults = null;
+        if (profileResults.isEmpty() == false) {
+            if (numReducePhases > 1) {
+                breakdown.put(ReduceProfileResult.PARTIAL_REDUCES, partialReduceNanos);
+            }
+            shardResults = new SearchProfileShardResults(profileResults,
+                new ReduceProfileResult(concurrent, System.nanoTime() - reduceStartNanos, breakdown, aggregationTimings));
+        }
         return new ReducedQueryPhase(topDocsStats.totalHits, topDocsStats.fetchHits, topDocsStats.maxScore,
-            timedOut, terminatedEarly, suggest, aggregations, shardResults, scoreDocs.scoreDocs, scoreDocs.sortFields,
+            timedOut, terminatedEarly, suggest.get(), aggregations, shardResults, scoreDocs.get().scoreDocs, scoreDocs.get().sortFields,
             firstResult != null ? firstResult.sortValueFormats() : null,
-            numReducePhases, scoreDocs.isSortedByField, size, from, firstResult == null);
+            numReducePhases, scoreDocs.get().isSortedByField, size, from, firstResult == null);
     }
 
 
     /**
      * Performs an intermediate reduce phase on the aggregations. For instance with this reduce phase never prune information
-     * that relevant for the final reduce step. For final reduce see {@link #reduceAggs(List, List, ReduceContext)}
+     * that relevant for the final reduce step. For final reduce see {@link #reducedQueryPhase(Collection, boolean)}
      */
     private InternalAggregations reduceAggsIncrementally(List<InternalAggregations> aggregationsList) {
+        if (aggregationsList.isEmpty()) {
+            return null;
+        }
         ReduceContext reduceContext = new ReduceContext(bigArrays, scriptService, false);
-        return aggregationsList.isEmpty() ? null : reduceAggs(aggregationsList,
-            null, reduceContext);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        InternalAggregation[] reducedAggs = addAggsReduceTasks(aggregationsList, reduceContext, tasks, null);
+        runReduceTasks(tasks);
+        return new InternalAggregations(Arrays.asList(reducedAggs));
+    }
+
+    /**
+     * Adds a task reducing each top-level aggregation, see {@link InternalAggregations#reduceGroup(List, ReduceContext)}.
+     * @return the array holding the reduced aggregations once the tasks are executed
+     */
+    private static InternalAggregation[] addAggsReduceTasks(List<InternalAggregations> aggregationsList, ReduceContext reduceContext,
+                                                            List<Callable<Void>> tasks, @Nullable Map<String, Long> timings) {
+        final Map<String, List<InternalAggregation>> aggByName = InternalAggregations.groupByName(aggregationsList);
+        final InternalAggregation[] reducedAggs = new InternalAggregation[aggByName.size()];
+        int i = 0;
+        for (Map.Entry<String, List<InternalAggregation>> entry : aggByName.entrySet()) {
+            final int slot = i++;
+            tasks.add(() -> {
+                final long startNanos = System.nanoTime();
+                reducedAggs[slot] = InternalAggregations.reduceGroup(entry.getValue(), reduceContext);
+                addTiming(timings, entry.getKey(), startNanos);
+                return null;
+            });
+        }
+        return reducedAggs;
+    }
+
+    /**
+     * Runs independent reduce tasks, on the reduce executor and the calling thread if concurrent reduce is enabled.
+     * @return true if the tasks were executed concurrently
+     */
+    private boolean runReduceTasks(List<Callable<Void>> tasks) {
+        try {
+            if (reduceExecutor != null && tasks.size() > 1) {
+                ParallelTasks.invokeAll(reduceExecutor, tasks);
+                return true;
+            }
+            for (Callable<Void> task : tasks) {
+                task.call();
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchException("interrupted while reducing search results", e);
+        } catch (Exception e) {
+            throw ExceptionsHelper.convertToRuntime(e);
+        }
+    }
+
+    private static void addTiming(@Nullable Map<String, Long> timings, String name, long startNanos) {
+        if (timings != null) {
+            timings.put(name, System.nanoTime() - startNanos);
+        }
     }
 
-    private InternalAggregations reduceAggs(List<InternalAggregations> aggregationsList,
-                                            List<SiblingPipelineAggregator> pipelineAggregators, ReduceContext reduceContext) {
-        InternalAggregations aggregations = InternalAggregations.reduce(aggregationsList, reduceContext);
+    private InternalAggregations reduceSiblingPipelines(InternalAggregations aggregations,
+                                                        List<SiblingPipelineAggregator> pipelineAggregators, ReduceContext reduceContext) {
         if (pipelineAggregators != null) {
             List<InternalAggregation> newAggs = StreamSupport.stream(aggregations.spliterator(), false)
                 .map((p) -> (InternalAggregation) p)
@@ -611,6 +726,7 @@ public final class SearchPhaseController extends AbstractComponent {
         private int index;
         private final SearchPhaseController controller;
         private int numReducePhases = 0;
+        private long partialReduceNanos = 0;
         private final TopDocsStats topDocsStats = new TopDocsStats();
 
         /**
@@ -651,6 +767,7 @@ public final class SearchPhaseController extends AbstractComponent {
 
         private synchronized void consumeInternal(QuerySearchResult querySearchResult) {
             if (index == bufferSize) {
+                final long startNanos = System.nanoTime();
                 if (hasAggs) {
                     InternalAggregations reducedAggs = controller.reduceAggsIncrementally(Arrays.asList(aggsBuffer));
                     Arrays.fill(aggsBuffer, null);
@@ -664,6 +781,7 @@ public final class SearchPhaseController extends AbstractComponent {
                     topDocsBuffer[0] = reducedTopDocs;
                 }
                 numReducePhases++;
+                partialReduceNanos += System.nanoTime() - startNanos;
                 index = 1;
             }
             final int i = index++;
@@ -686,11 +804,15 @@ public final class SearchPhaseController extends AbstractComponent {
             return hasTopDocs ? Arrays.asList(topDocsBuffer).subList(0, index) : null;
         }
 
+        private synchronized long getPartialReduceNanos() {
+            return partialReduceNanos;
+        }
+
 
         @Override
         public ReducedQueryPhase reduce() {
             return controller.reducedQueryPhase(results.asList(), getRemainingAggs(), getRemainingTopDocs(), topDocsStats,
-                numReducePhases, false);
+                numReducePhases, getPartialReduceNanos(), false);
         }
 
         /**
@@ -26,6 +26,7 @@ import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.IndicesRequest;
 import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -42,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -141,6 +143,21 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
         this.extraParams = extraParams;
     }
 
+    /**
+     * Build hits from doc values without reading cassandra when all requested fields have doc values,
+     * overriding the index.docvalues_fetch setting. Carried to shards as an extra parameter.
+     */
+    public SearchRequest docValuesFetch(boolean docValuesFetch) {
+        Map<String, Object> params = (this.extraParams == null) ? new HashMap<>() : new HashMap<>(this.extraParams);
+        params.put(ClusterService.DOCVALUES_FETCH, docValuesFetch);
+        this.extraParams = params;
+        return this;
+    }
+
+    public Boolean docValuesFetch() {
+        return (this.extraParams == null) ? null : (Boolean) this.extraParams.get(ClusterService.DOCVALUES_FETCH);
+    }
+
     
     @Override
     public ActionRequestValidationException validate() {
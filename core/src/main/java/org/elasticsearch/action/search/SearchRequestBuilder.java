@@ -131,6 +131,14 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
     
+    /**
+     * Build hits from doc values without reading cassandra when all requested fields have doc values.
+     */
+    public SearchRequestBuilder setDocValuesFetch(boolean docValuesFetch) {
+        request.docValuesFetch(docValuesFetch);
+        return this;
+    }
+    
     /**
      * An optional document count, upon collecting which the search
      * query will early terminate
@@ -19,6 +19,9 @@
 
 package org.elasticsearch.action.search;
 
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.util.Supplier;
+import org.elassandra.search.PrimaryKeySearch;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsGroup;
@@ -37,11 +40,24 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.search.stats.ShardSearchStats;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.InternalSearchResponse;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.RemoteClusterAware;
@@ -57,6 +73,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.LongSupplier;
 
@@ -264,6 +281,10 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 timeProvider.getAbsoluteStartMillis(), localIndices.indices());
         }
         Map<String, AliasFilter> aliasFilter = buildPerIndexAliasFilter(searchRequest, clusterState, indices, remoteAliasMap);
+        if (remoteShardIterators.isEmpty() && indices.length == 1 &&
+            executePrimaryKeySearch(timeProvider, searchRequest, localIndices, indices[0], aliasFilter.get(indices[0].getUUID()), listener)) {
+            return;
+        }
         Map<String, Set<String>> routingMap = indexNameExpressionResolver.resolveSearchRouting(clusterState, searchRequest.routing(),
             searchRequest.indices());
         String[] concreteIndices = new String[indices.length];
@@ -308,6 +329,73 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
             Collections.unmodifiableMap(aliasFilter), concreteIndexBoosts, listener).start();
     }
 
+    /**
+     * Serve a search request fully determined by a primary key as a single token-routed cassandra read (realtime GET semantic)
+     * when index.primary_key_pushdown is enabled.
+     * @return false if the request is not eligible and must be executed as a regular search.
+     */
+    private boolean executePrimaryKeySearch(SearchTimeProvider timeProvider, SearchRequest searchRequest, OriginalIndices localIndices,
+                                            Index index, AliasFilter aliasFilter, ActionListener<SearchResponse> listener) {
+        if (aliasFilter != null && aliasFilter.getQueryBuilder() != null) {
+            return false;
+        }
+        final IndexShard indexShard;
+        final String[] typeAndId;
+        try {
+            IndexService indexService = clusterService.indexServiceSafe(index);
+            if (!indexService.getIndexSettings().isPrimaryKeyPushdown()) {
+                return false;
+            }
+            indexShard = indexService.getShardOrNull(0);
+            if (indexShard == null || indexShard.state() != IndexShardState.STARTED) {
+                return false;
+            }
+            typeAndId = PrimaryKeySearch.typeAndId(indexService, searchRequest);
+            if (typeAndId == null) {
+                return false;
+            }
+        } catch (Exception e) {
+            logger.debug((Supplier<?>) () -> new ParameterizedMessage("primary key pushdown not applicable for index [{}]", index), e);
+            return false;
+        }
+
+        threadPool.executor(ThreadPool.Names.GET).execute(new AbstractRunnable() {
+            @Override
+            public void onFailure(Exception e) {
+                listener.onFailure(e);
+            }
+
+            @Override
+            protected void doRun() throws Exception {
+                FetchSourceContext fetchSourceContext = searchRequest.source().fetchSource();
+                ShardSearchStats searchStats = indexShard.shardShearchStats();
+                searchStats.onPrePrimaryKeySearch();
+                final long startTime = System.nanoTime();
+                final GetResult getResult;
+                try {
+                    getResult = indexShard.getService().get(typeAndId[0] == null ? "_all" : typeAndId[0], typeAndId[1], null, true,
+                        Versions.MATCH_ANY, VersionType.INTERNAL, fetchSourceContext == null ? FetchSourceContext.FETCH_SOURCE : fetchSourceContext);
+                } catch (Exception e) {
+                    searchStats.onFailedPrimaryKeySearch();
+                    throw e;
+                }
+                searchStats.onPrimaryKeySearch(System.nanoTime() - startTime, getResult.isExists());
+                final SearchHits hits;
+                if (getResult.isExists()) {
+                    SearchShardTarget shardTarget = new SearchShardTarget(clusterService.localNode().getId(), indexShard.shardId(), null,
+                        localIndices);
+                    hits = new SearchHits(new SearchHit[] { PrimaryKeySearch.searchHit(getResult, shardTarget) }, 1, 1.0f);
+                } else {
+                    hits = new SearchHits(new SearchHit[0], 0, 0);
+                }
+                InternalSearchResponse internalResponse = new InternalSearchResponse(hits, null, null, null, false, null, 1);
+                long tookInMillis = TimeUnit.NANOSECONDS.toMillis(timeProvider.getRelativeCurrentNanos() - timeProvider.getRelativeStartNanos());
+                listener.onResponse(new SearchResponse(internalResponse, null, 1, 1, tookInMillis, ShardSearchFailure.EMPTY_ARRAY));
+            }
+        });
+        return true;
+    }
+
     static GroupShardsIterator<SearchShardIterator> mergeShardsIterators(GroupShardsIterator<ShardIterator> localShardsIterator,
                                                              OriginalIndices localIndices,
                                                              List<SearchShardIterator> remoteShardIterators) {
@@ -54,6 +54,7 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.loader.SettingsLoader;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -352,6 +353,26 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContent {
     public static final Setting<Boolean> INDEX_TOKEN_RANGES_BITSET_CACHE_SETTING =
             Setting.boolSetting(SETTING_TOKEN_RANGES_BITSET_CACHE, Boolean.getBoolean(ClusterService.SETTING_SYSTEM_TOKEN_RANGES_BITSET_CACHE), Property.Dynamic, Property.IndexScope);
     
+    public static final String SETTING_DOCVALUES_FETCH = "index."+ClusterService.DOCVALUES_FETCH; 
+    public static final Setting<Boolean> INDEX_DOCVALUES_FETCH_SETTING =
+            Setting.boolSetting(SETTING_DOCVALUES_FETCH, Boolean.getBoolean(ClusterService.SETTING_SYSTEM_DOCVALUES_FETCH), Property.Dynamic, Property.IndexScope);
+    
+    public static final String SETTING_COMPRESS_SOURCE = "index."+ClusterService.COMPRESS_SOURCE; 
+    public static final Setting<Boolean> INDEX_COMPRESS_SOURCE_SETTING =
+            Setting.boolSetting(SETTING_COMPRESS_SOURCE, Boolean.getBoolean(ClusterService.SETTING_SYSTEM_COMPRESS_SOURCE), Property.Dynamic, Property.IndexScope);
+    
+    public static final String SETTING_TOKEN_ORDERED_FETCH = "index."+ClusterService.TOKEN_ORDERED_FETCH; 
+    public static final Setting<Boolean> INDEX_TOKEN_ORDERED_FETCH_SETTING =
+            Setting.boolSetting(SETTING_TOKEN_ORDERED_FETCH, Boolean.getBoolean(ClusterService.SETTING_SYSTEM_TOKEN_ORDERED_FETCH), Property.Dynamic, Property.IndexScope);
+    
+    public static final String SETTING_SCROLL_PREFETCH = "index."+ClusterService.SCROLL_PREFETCH; 
+    public static final Setting<Integer> INDEX_SCROLL_PREFETCH_SETTING =
+            Setting.intSetting(SETTING_SCROLL_PREFETCH, Integer.getInteger(ClusterService.SETTING_SYSTEM_SCROLL_PREFETCH, 0), 0, Property.Dynamic, Property.IndexScope);
+    
+    public static final String SETTING_PRIMARY_KEY_PUSHDOWN = "index."+ClusterService.PRIMARY_KEY_PUSHDOWN; 
+    public static final Setting<Boolean> INDEX_PRIMARY_KEY_PUSHDOWN_SETTING =
+            Setting.boolSetting(SETTING_PRIMARY_KEY_PUSHDOWN, Boolean.getBoolean(ClusterService.SETTING_SYSTEM_PRIMARY_KEY_PUSHDOWN), Property.Dynamic, Property.IndexScope);
+    
     public static final String SETTING_VERSION_LESS_ENGINE = "index."+ClusterService.VERSION_LESS_ENGINE; 
     public static final Setting<Boolean> INDEX_VERSION_LESS_ENGINE_SETTING =
             Setting.boolSetting(SETTING_VERSION_LESS_ENGINE, true, Property.Final, Property.IndexScope);
@@ -368,6 +389,11 @@ public class IndexMetaData implements Diffable<IndexMetaData>, ToXContent {
     public static final Setting<Boolean> INDEX_INDEX_STATIC_DOCUMENT_SETTING =
             Setting.boolSetting(SETTING_INDEX_STATIC_DOCUMENT, false, Property.Final, Property.IndexScope);
     
+    public static final String SETTING_TTL_PURGE_INTERVAL = "index."+ClusterService.TTL_PURGE_INTERVAL; 
+    public static final Setting<TimeValue> INDEX_TTL_PURGE_INTERVAL_SETTING =
+            Setting.timeSetting(SETTING_TTL_PURGE_INTERVAL, TimeValue.parseTimeValue(System.getProperty(ClusterService.SETTING_SYSTEM_TTL_PURGE_INTERVAL, "-1"), SETTING_TTL_PURGE_INTERVAL), 
+                    TimeValue.MINUS_ONE, Property.Dynamic, Property.IndexScope);
+    
     // hard-coded hash function as of 2.0
     // older indices will read which hash function to use in their index settings
     //private static final HashFunction MURMUR3_HASH_FUNCTION = new Murmur3HashFunction();
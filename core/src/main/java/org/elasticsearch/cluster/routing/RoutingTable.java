@@ -50,6 +50,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 
 /**
@@ -453,18 +454,25 @@ public class RoutingTable implements Iterable<IndexRoutingTable>, Diffable<Routi
     
     // update routing table for one index.
     public static RoutingTable build(ClusterService clusterService, ClusterState clusterState, Index index) {
+        return build(clusterService, clusterState, Collections.singleton(index.getName()));
+    }
+    
+    // update routing table for some indices, keep the routing table of other indices.
+    public static RoutingTable build(ClusterService clusterService, ClusterState clusterState, Set<String> indices) {
         ImmutableOpenMap.Builder<String, IndexRoutingTable> indicesRoutingMap = new ImmutableOpenMap.Builder<>();
         for(ObjectObjectCursor<String, IndexRoutingTable> entry : clusterState.routingTable().indicesRouting()) {
-            if (!entry.key.equals(index))
+            if (!indices.contains(entry.key))
                 indicesRoutingMap.put(entry.value.getIndex().getName(), entry.value);
         }
         
-        // may update the routing table for the specified index
-        IndexMetaData indexMetaData = clusterState.metaData().index(index);
-        if (indexMetaData != null) {
-            IndexRoutingTable.Builder indexRoutingTableBuilder = new IndexRoutingTable.Builder(index, clusterService, clusterState);
-            if (indexRoutingTableBuilder.shards.size() > 0)
-                indicesRoutingMap.put(index.getName(), indexRoutingTableBuilder.build());
+        // may update the routing table for the specified indices
+        for(String index : indices) {
+            IndexMetaData indexMetaData = clusterState.metaData().index(index);
+            if (indexMetaData != null) {
+                IndexRoutingTable.Builder indexRoutingTableBuilder = new IndexRoutingTable.Builder(indexMetaData.getIndex(), clusterService, clusterState);
+                if (indexRoutingTableBuilder.shards.size() > 0)
+                    indicesRoutingMap.put(index, indexRoutingTableBuilder.build());
+            }
         }
         return new RoutingTable(clusterState.routingTable().version(), indicesRoutingMap.build());
     }
@@ -40,7 +40,9 @@ import org.apache.cassandra.cql3.statements.IndexTarget;
 import org.apache.cassandra.cql3.statements.ParsedStatement;
 import org.apache.cassandra.cql3.statements.TableAttributes;
 import org.apache.cassandra.db.CBuilder;
+import org.apache.cassandra.db.ColumnFamilyStore;
 import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.db.DecoratedKey;
 import org.apache.cassandra.db.Keyspace;
 import org.apache.cassandra.db.KeyspaceNotDefinedException;
 import org.apache.cassandra.db.SystemKeyspace;
@@ -75,6 +77,7 @@ import org.apache.cassandra.serializers.MarshalException;
 import org.apache.cassandra.serializers.SimpleDateSerializer;
 import org.apache.cassandra.service.ClientState;
 import org.apache.cassandra.service.ElassandraDaemon;
+import org.apache.cassandra.service.MigrationListener;
 import org.apache.cassandra.service.MigrationManager;
 import org.apache.cassandra.service.QueryState;
 import org.apache.cassandra.service.StorageService;
@@ -94,7 +97,9 @@ import org.elassandra.ConcurrentMetaDataUpdateException;
 import org.elassandra.NoPersistedMetaDataException;
 import org.elassandra.cluster.routing.AbstractSearchStrategy;
 import org.elassandra.cluster.routing.PrimaryFirstSearchStrategy;
+import org.elassandra.cluster.routing.RingSnapshot;
 import org.elassandra.discovery.CassandraDiscovery;
+import org.elassandra.index.ElasticSecondaryIndex;
 import org.elassandra.index.ExtendedElasticSecondaryIndex;
 import org.elassandra.index.mapper.internal.NodeFieldMapper;
 import org.elassandra.index.mapper.internal.TokenFieldMapper;
@@ -128,20 +133,26 @@ import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.OperationRouting;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.SuppressForbidden;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.geo.GeoPoint;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.discovery.Discovery;
 import org.elasticsearch.gateway.MetaStateService;
@@ -207,6 +218,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.LongConsumer;
@@ -238,6 +250,7 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
     public static final String INDEX_PREFIX = "index.";
     public static final String TABLE_PREFIX = "";
     private static final int CREATE_ELASTIC_ADMIN_RETRY_ATTEMPTS = Integer.getInteger(SYSTEM_PREFIX + "create_elastic_admin_retry_attempts", 5);
+    private static final int REINDEX_PAGE_SIZE = Integer.getInteger(SYSTEM_PREFIX + "reindex_page_size", 1000);
 
     /**
      * Dynamic mapping update timeout
@@ -294,6 +307,31 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
      */
     public static final String TOKEN_RANGES_BITSET_CACHE    = "token_ranges_bitset_cache";
     
+    /**
+     * Build search hits from lucene doc values only (no cassandra read) when requested fields all have doc values.
+     */
+    public static final String DOCVALUES_FETCH    = "docvalues_fetch";
+    
+    /**
+     * Store the _source column as deflate compressed SMILE instead of the raw request bytes.
+     */
+    public static final String COMPRESS_SOURCE    = "compress_source";
+    
+    /**
+     * Fetch hits from cassandra in partition token order to improve read locality, hits are returned in score order.
+     */
+    public static final String TOKEN_ORDERED_FETCH    = "token_ordered_fetch";
+    
+    /**
+     * Number of cassandra reads submitted ahead of the hit being fetched for scroll requests, 0 to disable.
+     */
+    public static final String SCROLL_PREFETCH    = "scroll_prefetch";
+    
+    /**
+     * Serve search requests fully determined by a primary key as a single token-routed cassandra read (no shard fan-out).
+     */
+    public static final String PRIMARY_KEY_PUSHDOWN    = "primary_key_pushdown";
+    
     /**
      * Expiration time for unused cached token_ranges queries. 
      */
@@ -314,6 +352,11 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
      */
     public static final String INDEX_STATIC_DOCUMENT = "index_static_document";
     
+    /**
+     * Interval between two purges of documents whose cassandra row has expired (TTL), -1 to disable.
+     */
+    public static final String TTL_PURGE_INTERVAL = "ttl_purge_interval";
+    
     // system property settings
     public static final String SETTING_SYSTEM_MAPPING_UPDATE_TIMEOUT = SYSTEM_PREFIX+MAPPING_UPDATE_TIMEOUT;
     public static final String SETTING_SYSTEM_SECONDARY_INDEX_CLASS = SYSTEM_PREFIX+SECONDARY_INDEX_CLASS;
@@ -326,7 +369,13 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
     public static final String SETTING_SYSTEM_VERSION_LESS_ENGINE = SYSTEM_PREFIX+VERSION_LESS_ENGINE; 
     public static final String SETTING_SYSTEM_TOKEN_PRECISION_STEP = SYSTEM_PREFIX+TOKEN_PRECISION_STEP;
     public static final String SETTING_SYSTEM_TOKEN_RANGES_BITSET_CACHE = SYSTEM_PREFIX+TOKEN_RANGES_BITSET_CACHE;
+    public static final String SETTING_SYSTEM_DOCVALUES_FETCH = SYSTEM_PREFIX+DOCVALUES_FETCH;
+    public static final String SETTING_SYSTEM_COMPRESS_SOURCE = SYSTEM_PREFIX+COMPRESS_SOURCE;
+    public static final String SETTING_SYSTEM_TOKEN_ORDERED_FETCH = SYSTEM_PREFIX+TOKEN_ORDERED_FETCH;
+    public static final String SETTING_SYSTEM_SCROLL_PREFETCH = SYSTEM_PREFIX+SCROLL_PREFETCH;
+    public static final String SETTING_SYSTEM_PRIMARY_KEY_PUSHDOWN = SYSTEM_PREFIX+PRIMARY_KEY_PUSHDOWN;
     public static final String SETTING_SYSTEM_TOKEN_RANGES_QUERY_EXPIRE = SYSTEM_PREFIX+TOKEN_RANGES_QUERY_EXPIRE;
+    public static final String SETTING_SYSTEM_TTL_PURGE_INTERVAL = SYSTEM_PREFIX+TTL_PURGE_INTERVAL;
     
     // elassandra cluster settings
     public static final String SETTING_CLUSTER_MAPPING_UPDATE_TIMEOUT = CLUSTER_PREFIX+MAPPING_UPDATE_TIMEOUT;
@@ -361,14 +410,18 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
         }
         
         public List<ByteBuffer> serialize(ParsedStatement.Prepared prepared) {
-            List<ByteBuffer> boundValues = new ArrayList<ByteBuffer>(values.length);
-            for (int i = 0; i < values.length; i++) {
-                Object v = values[i];
-                AbstractType type = prepared.boundNames.get(i).type;
-                boundValues.add(v instanceof ByteBuffer || v == null ? (ByteBuffer) v : type.decompose(v));
-            }
-            return boundValues;
+            return bind(prepared, values);
+        }
+    }
+    
+    public static List<ByteBuffer> bind(ParsedStatement.Prepared prepared, Object[] values) {
+        List<ByteBuffer> boundValues = new ArrayList<ByteBuffer>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            Object v = values[i];
+            AbstractType type = prepared.boundNames.get(i).type;
+            boundValues.add(v instanceof ByteBuffer || v == null ? (ByteBuffer) v : type.decompose(v));
         }
+        return boundValues;
     }
     
     
@@ -420,6 +473,25 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
     
     private volatile CassandraShardStartedBarrier shardStartedBarrier;
     private final OperationRouting operationRouting;
+    
+    // schema generation by table id, incremented when the columns of the table change to invalidate cached CQL statements.
+    private final Map<UUID, AtomicInteger> tableSchemaGenerations = new ConcurrentHashMap<UUID, AtomicInteger>();
+    // invalidate cached CQL statements and ring snapshots on cassandra schema changes.
+    private final MigrationListener schemaCacheInvalidator = new MigrationListener() {
+        @Override
+        public void onUpdateColumnFamily(String ksName, String cfName, boolean affectsStatements) {
+            if (affectsStatements) {
+                UUID cfId = Schema.instance.getId(ksName, cfName);
+                if (cfId != null)
+                    tableSchemaGeneration(cfId).incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onDropKeyspace(String ksName) {
+            RingSnapshot.invalidate(ksName);
+        }
+    };
 
     @Inject
     public ClusterService(Settings settings, ClusterSettings clusterSettings, ThreadPool threadPool, Supplier<DiscoveryNode> localNodeSupplier) {
@@ -520,7 +592,7 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
         
         // update the router cache with the effective router
         AbstractSearchStrategy effectiveSearchStrategy = searchStrategyInstance(searchStrategyClass(indexMetaData, state));
-        if (! effectiveSearchStrategy.equals(PrimaryFirstSearchStrategy.class) ) {
+        if (effectiveSearchStrategy.getClass() != PrimaryFirstSearchStrategy.class) {
             AbstractSearchStrategy.Router router2 = effectiveSearchStrategy.newRouter(indexMetaData.getIndex(), indexMetaData.keyspace(), this::getShardRoutingStates, state);
             this.routers.put(indexMetaData.getIndex().getName(), router2);
         } else {
@@ -1165,6 +1237,52 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
         });
     }
     
+    /**
+     * Update the routing table of some indices only, when shard states of remote nodes change.
+     */
+    public void updateRoutingTable(String source, Set<String> indices) {
+        submitStateUpdateTask(source, new IndicesRoutingUpdateTask(indices));
+    }
+    
+    /**
+     * Cluster state update task rebuilding only the routing table of the provided indices.
+     */
+    public class IndicesRoutingUpdateTask extends ClusterStateUpdateTask {
+        final Set<String> indices;
+        
+        public IndicesRoutingUpdateTask(Set<String> indices) {
+            this.indices = indices;
+        }
+        
+        @Override
+        public ClusterState execute(ClusterState currentState) {
+             return ClusterState.builder(currentState).incrementVersion().build();
+        }
+
+        @Override
+        public void onFailure(String source, Exception t) {
+            logger.error((Supplier<?>) () -> new ParameterizedMessage("unexpected failure during [{}]", source), t);
+        }
+    }
+    
+    /**
+     * @return indices to route when only {@link IndicesRoutingUpdateTask} were executed without nodes, metadata or blocks change, null to route all indices.
+     */
+    private Set<String> routingUpdatedIndices(TaskInputs taskInputs, ClusterState previousClusterState, ClusterState newClusterState) {
+        if (previousClusterState.nodes() != newClusterState.nodes() || 
+            previousClusterState.metaData() != newClusterState.metaData() ||
+            previousClusterState.blocks() != newClusterState.blocks())
+            return null;
+        
+        Set<String> indices = new HashSet<String>();
+        for(ClusterServiceTaskBatcher.UpdateTask updateTask : taskInputs.updateTasks) {
+            if (!(updateTask.task instanceof IndicesRoutingUpdateTask))
+                return null;
+            indices.addAll(((IndicesRoutingUpdateTask)updateTask.task).indices);
+        }
+        return indices;
+    }
+    
     
     public void updateTableSchema(final MapperService mapperService, final MappingMetaData mappingMd) throws IOException {
         try {
@@ -1407,6 +1525,7 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
     @Override
     protected void doStart() {
         super.doStart();
+        MigrationManager.instance.register(schemaCacheInvalidator);
         // add post-applied because 2i shoukd be created/deleted after that cassandra indices have taken the new mapping.
         this.addStateApplier(cassandraSecondaryIndicesApplier);
         
@@ -1555,8 +1674,11 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
                 logger.debug("cluster state updated, version [{}], source [{}]", newClusterState.version(), taskInputs.summary);
             }
 
-            // update routing table.
-            newClusterState = ClusterState.builder(newClusterState).routingTable(RoutingTable.build(this, newClusterState)).build();
+            // update routing table, for all indices or only for indices having a new remote shard state.
+            final Set<String> routingUpdatedIndices = routingUpdatedIndices(taskInputs, previousClusterState, newClusterState);
+            newClusterState = ClusterState.builder(newClusterState).routingTable(routingUpdatedIndices == null ? 
+                    RoutingTable.build(this, newClusterState) : 
+                    RoutingTable.build(this, newClusterState, routingUpdatedIndices)).build();
             
             ClusterChangedEvent clusterChangedEvent = new ClusterChangedEvent(taskInputs.summary, newClusterState, previousClusterState);
             // new cluster state, notify all listeners
@@ -1611,8 +1733,9 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
             });
             
             // update cluster state routing table
-            // TODO: update the routing table only for updated indices.
-            newClusterState = ClusterState.builder(newClusterState).routingTable(RoutingTable.build(this, newClusterState)).build();
+            newClusterState = ClusterState.builder(newClusterState).routingTable(routingUpdatedIndices == null ? 
+                    RoutingTable.build(this, newClusterState) : 
+                    RoutingTable.build(this, newClusterState, routingUpdatedIndices)).build();
             final ClusterState newClusterState3 = newClusterState;
             updateState(css -> newClusterState3);
             
@@ -1869,7 +1992,89 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
     public boolean rowExists(final IndexService indexService, final String type, final String id) 
             throws InvalidRequestException, RequestExecutionException, RequestValidationException, IOException {
         DocPrimaryKey docPk = parseElasticId(indexService, type, id);
-        return process(ConsistencyLevel.LOCAL_ONE, buildExistsQuery(indexService.mapperService().documentMapper(type), indexService.keyspace(), typeToCfName(indexService.keyspace(), type), id), docPk.values).size() > 0;
+        DocumentMapper docMapper = indexService.mapperService().documentMapper(type);
+        ParsedStatement.Prepared prepared = cqlStatement(indexService, type, "exists", () -> buildExistsQuery(docMapper, indexService.keyspace(), typeToCfName(indexService.keyspace(), type), id));
+        return execute(prepared, ConsistencyLevel.LOCAL_ONE, docPk.serialize(prepared)).size() > 0;
+    }
+    
+    /**
+     * Check if a row has live data on the local node, without coordination.
+     */
+    public boolean rowExistsInternal(final IndexService indexService, final String type, final String id) throws IOException {
+        DocPrimaryKey docPk = parseElasticId(indexService, type, id);
+        DocumentMapper docMapper = indexService.mapperService().documentMapper(type);
+        ParsedStatement.Prepared prepared = cqlStatement(indexService, type, "exists", () -> buildExistsQuery(docMapper, indexService.keyspace(), typeToCfName(indexService.keyspace(), type), id));
+        ResultMessage result = prepared.statement.executeInternal(QueryState.forInternalCalls(), QueryOptions.forInternalCalls(docPk.serialize(prepared)));
+        return (result instanceof ResultMessage.Rows) && ((ResultMessage.Rows) result).result.size() > 0;
+    }
+    
+    /**
+     * Re-indexes the local cassandra partitions of the given document ids with the elasticsearch secondary index of the table,
+     * so that their documents are rebuilt from the stored rows. A partition is read once for several ids of the same partition.
+     */
+    public void reindexPartitionsInternal(final IndexService indexService, final String type, final Collection<String> ids) throws IOException {
+        ColumnFamilyStore cfs = Keyspace.open(indexService.keyspace()).getColumnFamilyStore(typeToCfName(indexService.keyspace(), type));
+        Set<Index> indexes = new HashSet<>();
+        for (Index index : cfs.indexManager.listIndexes()) {
+            if (index instanceof ElasticSecondaryIndex)
+                indexes.add(index);
+        }
+        if (indexes.isEmpty())
+            return;
+        
+        Set<DecoratedKey> keys = new HashSet<>();
+        for (String id : ids) {
+            DocPrimaryKey docPk = parseElasticId(indexService, type, id);
+            CBuilder builder = CBuilder.create(cfs.metadata.getKeyValidatorAsClusteringComparator());
+            for (int i = 0; i < cfs.metadata.partitionKeyColumns().size(); i++)
+                builder.add(docPk.values[i]);
+            keys.add(cfs.decorateKey(CFMetaData.serializePartitionKey(builder.build())));
+        }
+        for (DecoratedKey key : keys)
+            cfs.indexManager.indexPartition(key, indexes, REINDEX_PAGE_SIZE);
+    }
+    
+    /**
+     * Prepared fetch statement of a type, cached in the document mapper (and so invalidated on mapping update)
+     * by table id and column set, for the schema generation of the table it was prepared with.
+     */
+    public ParsedStatement.Prepared fetchStatement(final IndexService indexService, final String type, final String[] requiredColumns, boolean forStaticDocument, Map<String, ColumnDefinition> columnDefs) 
+            throws IOException {
+        String[] columns = requiredColumns.clone();
+        Arrays.sort(columns);
+        String key = (forStaticDocument ? "static:" : "fetch:") + String.join(",", columns);
+        return cqlStatement(indexService, type, key, () -> buildFetchQuery(indexService, type, requiredColumns, forStaticDocument, columnDefs));
+    }
+    
+    private ParsedStatement.Prepared cqlStatement(final IndexService indexService, final String type, String key, CheckedSupplier<String, IOException> query) throws IOException {
+        DocumentMapper docMapper = indexService.mapperService().documentMapper(type);
+        UUID cfId = getCFMetaData(indexService.keyspace(), typeToCfName(indexService.keyspace(), type)).cfId;
+        key = cfId + "/" + key;
+        // read the table schema generation first, a concurrent schema change will invalidate the statement.
+        int schemaGeneration = tableSchemaGeneration(cfId).get();
+        ParsedStatement.Prepared prepared = docMapper.getCqlStatement(key, schemaGeneration);
+        if (prepared == null) {
+            String cql = query.get();
+            if (logger.isTraceEnabled())
+                logger.trace("new statement={}", cql);
+            prepared = QueryProcessor.prepareInternal(cql);
+            docMapper.putCqlStatement(key, schemaGeneration, prepared);
+        }
+        return prepared;
+    }
+    
+    private AtomicInteger tableSchemaGeneration(UUID cfId) {
+        return tableSchemaGenerations.computeIfAbsent(cfId, k -> new AtomicInteger());
+    }
+    
+    /**
+     * Execute a prepared statement from the coordinator node, through the configured CQL query handler.
+     */
+    public static UntypedResultSet execute(ParsedStatement.Prepared prepared, ConsistencyLevel cl, List<ByteBuffer> values) 
+            throws RequestExecutionException, RequestValidationException {
+        ResultMessage result = ClientState.getCQLQueryHandler().processPrepared(prepared.statement, QueryState.forInternalCalls(), 
+                QueryOptions.forInternalCalls(cl, values), Collections.emptyMap(), System.nanoTime());
+        return (result instanceof ResultMessage.Rows) ? UntypedResultSet.create(((ResultMessage.Rows) result).result) : UntypedResultSet.create(Collections.emptyList());
     }
     
     
@@ -1892,7 +2097,8 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
      */
     public UntypedResultSet fetchRow(final IndexService indexService, final String type, final  DocPrimaryKey docPk, final String[] columns, final ConsistencyLevel cl, Map<String,ColumnDefinition> columnDefs) throws InvalidRequestException,
             RequestExecutionException, RequestValidationException, IOException {
-        return process(cl, buildFetchQuery(indexService, type, columns, docPk.isStaticDocument, columnDefs), docPk. values);
+        ParsedStatement.Prepared prepared = fetchStatement(indexService, type, columns, docPk.isStaticDocument, columnDefs);
+        return execute(prepared, cl, docPk.serialize(prepared));
     }
     
     public Engine.GetResult fetchSourceInternal(final IndexService indexService, String type, String id, Map<String,ColumnDefinition> columnDefs, LongConsumer onRefresh) throws IOException {
@@ -1927,7 +2133,9 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
     }
 
     public UntypedResultSet fetchRowInternal(final IndexService indexService, final String cfName, final String[] columns, final Object[] pkColumns, boolean forStaticDocument, Map<String,ColumnDefinition> columnDefs) throws ConfigurationException, IOException, IndexNotFoundException  {
-        return QueryProcessor.executeInternal(buildFetchQuery(indexService, cfName, columns, forStaticDocument, columnDefs), pkColumns);
+        ParsedStatement.Prepared prepared = fetchStatement(indexService, cfName, columns, forStaticDocument, columnDefs);
+        ResultMessage result = prepared.statement.executeInternal(QueryState.forInternalCalls(), QueryOptions.forInternalCalls(bind(prepared, pkColumns)));
+        return (result instanceof ResultMessage.Rows) ? UntypedResultSet.create(((ResultMessage.Rows) result).result) : UntypedResultSet.create(Collections.emptyList());
     }
   
     private String regularColumn(final IndexService indexService, final String type) throws IOException {
@@ -2357,7 +2565,8 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
         } 
        
         if (docMapper.sourceMapper().enabled()) {
-            sourceMap.put(SourceFieldMapper.NAME, request.source());
+            sourceMap.put(SourceFieldMapper.NAME, indexService.getIndexSettings().isCompressSource() ? 
+                    compressSource(request.source(), request.getContentType()) : request.source());
         }
         
         for (String field : sourceMap.keySet()) {
@@ -2496,6 +2705,19 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
     }
     
     
+    /**
+     * Encode a _source as deflate compressed SMILE. Stored bytes are returned as is by {@link #source(IndexService, DocumentMapper, UntypedResultSet.Row, Uid)}
+     * and only decoded when a consumer needs a map or a JSON rendering (see {@link CompressorFactory#uncompressIfNeeded(BytesReference)}).
+     */
+    public static BytesReference compressSource(BytesReference source, XContentType contentType) throws IOException {
+        BytesStreamOutput bStream = new BytesStreamOutput(Math.max(64, source.length() / 2));
+        try (XContentParser parser = contentType.xContent().createParser(NamedXContentRegistry.EMPTY, source);
+             XContentBuilder builder = new XContentBuilder(XContentType.SMILE.xContent(), CompressorFactory.COMPRESSOR.streamOutput(bStream))) {
+            builder.copyCurrentStructure(parser);
+        }
+        return bStream.bytes();
+    }
+    
     public BytesReference source(IndexService indexService, DocumentMapper docMapper, Map sourceAsMap, Uid uid) throws JsonParseException, JsonMappingException, IOException {
         if (docMapper.sourceMapper().enabled()) {
             // retreive from _source columns stored as blob in cassandra if available.
@@ -2514,6 +2736,31 @@ public class ClusterService extends org.elasticsearch.cluster.service.BaseCluste
         return source( indexService, docMapper, sourceAsMap, new Uid(docMapper.type(), id));
     }
 
+    /**
+     * Build the _source of a row without the intermediate map of {@link #rowAsMap(IndexService, String, UntypedResultSet.Row)}.
+     */
+    public BytesReference source(IndexService indexService, DocumentMapper docMapper, UntypedResultSet.Row row, Uid uid) throws IOException {
+        return source(indexService, docMapper, row, uid, null);
+    }
+
+    /**
+     * Build the _source of a row, including the _node field when nodeId is not null and the _source is rebuilt from columns.
+     */
+    public BytesReference source(IndexService indexService, DocumentMapper docMapper, UntypedResultSet.Row row, Uid uid, @Nullable String nodeId) throws IOException {
+        if (docMapper.sourceMapper().enabled() && row.has(SourceFieldMapper.NAME)) {
+            // retreive from _source columns stored as blob in cassandra if available.
+            ByteBuffer bb = row.getBlob(SourceFieldMapper.NAME);
+            if (bb.hasRemaining())
+                return new BytesArray(ByteBufferUtil.getArray(bb));
+        }
+        // rebuild _source from all cassandra columns.
+        return docMapper.getRowSerializer(row.getColumns(), isStaticDocument(indexService, uid)).toXContent(row, XContentType.JSON, nodeId);
+    }
+    
+    public BytesReference source(IndexService indexService, DocumentMapper docMapper, UntypedResultSet.Row row, String id) throws IOException {
+        return source( indexService, docMapper, row, new Uid(docMapper.type(), id));
+    }
+
     
     public DocPrimaryKey parseElasticId(final IndexService indexService, final String type, final String id) throws IOException {
         return parseElasticId(indexService, type, id, null);
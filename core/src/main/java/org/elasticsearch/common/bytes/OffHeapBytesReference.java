@@ -0,0 +1,119 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.bytes;
+
+import org.apache.cassandra.utils.memory.MemoryUtil;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.lease.Releasable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A copy of a {@link BytesReference} stored in native memory, out of the java heap. The native memory is freed when
+ * the reference is closed; reading a closed reference throws an {@link AlreadyClosedException}, so readers should rather
+ * take an on-heap copy with {@link #copy()} that never fails.
+ */
+public final class OffHeapBytesReference extends BytesReference implements Releasable {
+
+    private final int length;
+    private long peer;
+
+    public OffHeapBytesReference(BytesReference bytes) {
+        this.length = bytes.length();
+        this.peer = MemoryUtil.allocate(Math.max(1, length));
+        try {
+            BytesRefIterator iterator = bytes.iterator();
+            long offset = 0;
+            BytesRef ref;
+            while ((ref = iterator.next()) != null) {
+                MemoryUtil.setBytes(peer + offset, ref.bytes, ref.offset, ref.length);
+                offset += ref.length;
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return an on-heap copy of the bytes, or null if this reference has been closed.
+     */
+    public synchronized BytesArray copy() {
+        if (peer == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        MemoryUtil.getBytes(peer, bytes, 0, length);
+        return new BytesArray(bytes);
+    }
+
+    private BytesArray ensureCopy() {
+        BytesArray bytes = copy();
+        if (bytes == null) {
+            throw new AlreadyClosedException("off-heap bytes already released");
+        }
+        return bytes;
+    }
+
+    @Override
+    public synchronized byte get(int index) {
+        if (peer == 0) {
+            throw new AlreadyClosedException("off-heap bytes already released");
+        }
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index [" + index + "] out of bounds [" + length + "]");
+        }
+        return MemoryUtil.getByte(peer + index);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public BytesReference slice(int from, int length) {
+        return ensureCopy().slice(from, length);
+    }
+
+    @Override
+    public BytesRef toBytesRef() {
+        return ensureCopy().toBytesRef();
+    }
+
+    /**
+     * Returns the size of the native memory, the on-heap footprint is negligible.
+     */
+    @Override
+    public long ramBytesUsed() {
+        return length;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (peer != 0) {
+            MemoryUtil.free(peer);
+            peer = 0;
+        }
+    }
+}
@@ -29,11 +29,14 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.ToLongBiFunction;
 
@@ -51,16 +54,13 @@ import java.util.function.ToLongBiFunction;
  * if they are reading a segment that a writer is writing to).
  * <p>
  * The LRU functionality is backed by a single doubly-linked list chaining the entries in order of insertion. This
- * LRU list is protected by a lock that serializes all writes to it. There are opportunities for improvements
- * here if write throughput is a concern.
- * <ol>
- * <li>LRU list mutations could be inserted into a blocking queue that a single thread is reading from
- * and applying to the LRU list.</li>
- * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
- * <li>Locks on the list could be taken per node being modified instead of globally.</li>
- * </ol>
+ * LRU list is protected by a lock that serializes all writes to it. Cache hits do not take this lock: promotions are
+ * recorded in striped, bounded read buffers (one stripe per thread hash) and replayed on the LRU list by the next
+ * writer holding the lock, or by the reader filling a stripe if the lock is free. Read buffers are lossy, a promotion
+ * is dropped when its stripe is full or contended, so the LRU order is an approximation under heavy concurrent reads,
+ * but the order of the promotions of a given thread is preserved.
  * <p>
- * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
+ * Evictions only occur after a mutation to the cache (meaning an entry insertion, a read buffer drain, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
  *
  * @param <K> The type of the keys
@@ -323,6 +323,63 @@ public class Cache<K, V> {
     // lock protecting mutations to the LRU list
     private ReleasableLock lruLock = new ReleasableLock(new ReentrantLock());
 
+    /**
+     * A bounded multiple-producers single-consumer ring buffer of entries to promote. Producers never block, an entry
+     * is dropped if the buffer is full or if another producer won the race for the same slot. The buffer is drained
+     * while holding the LRU lock.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    static final class ReadBuffer<K, V> {
+        static final int SIZE = 16;
+        static final int MASK = SIZE - 1;
+
+        final AtomicReferenceArray<Entry<K, V>> buffer = new AtomicReferenceArray<>(SIZE);
+        final AtomicLong writeCounter = new AtomicLong();
+        // only written by the thread holding the LRU lock
+        volatile long readCounter = 0;
+
+        /**
+         * @return false if the buffer is full and should be drained
+         */
+        boolean offer(Entry<K, V> entry) {
+            long tail = writeCounter.get();
+            if (tail - readCounter >= SIZE) {
+                return false;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) (tail & MASK), entry);
+            }
+            return true;
+        }
+
+        void drain(Consumer<Entry<K, V>> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & MASK);
+                Entry<K, V> entry = buffer.get(index);
+                if (entry == null) {
+                    // the producer has not published the entry yet
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(entry);
+            }
+            readCounter = head;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) private final ReadBuffer<K, V>[] readBuffers =
+        new ReadBuffer[Math.min(64, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1)];
+
+    {
+        for (int i = 0; i < readBuffers.length; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
     /**
      * Returns the value to which the specified key is mapped, or null if this map contains no mapping for the key.
      *
@@ -339,11 +396,36 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            afterRead(entry, now);
             return entry.value;
         }
     }
 
+    /**
+     * Record the promotion of an entry in the read buffer of the current thread, and drain the read buffers if this one
+     * is full and the LRU lock is free.
+     */
+    private void afterRead(Entry<K, V> entry, long now) {
+        ReadBuffer<K, V> readBuffer = readBuffers[(int) Thread.currentThread().getId() & (readBuffers.length - 1)];
+        if (readBuffer.offer(entry) == false) {
+            try (ReleasableLock ignored = lruLock.tryAcquire()) {
+                if (ignored != null) {
+                    drainReadBuffers();
+                    readBuffer.offer(entry);
+                    evict(now);
+                }
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        for (ReadBuffer<K, V> readBuffer : readBuffers) {
+            readBuffer.drain(this::relink);
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -517,6 +599,7 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffers();
             evict(now);
         }
     }
@@ -547,6 +630,9 @@ public class Cache<K, V> {
      * @return an LRU-ordered {@link Iterable} over the keys in the cache
      */
     public Iterable<K> keys() {
+        try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffers();
+        }
         return () -> new Iterator<K>() {
             private CacheIterator iterator = new CacheIterator(head);
 
@@ -574,6 +660,9 @@ public class Cache<K, V> {
      * @return an LRU-ordered {@link Iterable} over the values in the cache
      */
     public Iterable<V> values() {
+        try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffers();
+        }
         return () -> new Iterator<V>() {
             private CacheIterator iterator = new CacheIterator(head);
 
@@ -667,19 +756,11 @@ public class Cache<K, V> {
     }
 
     private boolean promote(Entry<K, V> entry, long now) {
-        boolean promoted = true;
+        boolean promoted;
         try (ReleasableLock ignored = lruLock.acquire()) {
-            switch (entry.state) {
-                case DELETED:
-                    promoted = false;
-                    break;
-                case EXISTING:
-                    relinkAtHead(entry);
-                    break;
-                case NEW:
-                    linkAtHead(entry);
-                    break;
-            }
+            // replay buffered promotions first to keep the LRU order of each thread
+            drainReadBuffers();
+            promoted = relink(entry);
             if (promoted) {
                 evict(now);
             }
@@ -687,6 +768,19 @@ public class Cache<K, V> {
         return promoted;
     }
 
+    private boolean relink(Entry<K, V> entry) {
+        switch (entry.state) {
+            case EXISTING:
+                relinkAtHead(entry);
+                return true;
+            case NEW:
+                linkAtHead(entry);
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
@@ -80,7 +80,7 @@ public final class CompressedXContent {
      */
     public CompressedXContent(ToXContent xcontent, XContentType type, ToXContent.Params params) throws IOException {
         BytesStreamOutput bStream = new BytesStreamOutput();
-        OutputStream compressedStream = CompressorFactory.COMPRESSOR.streamOutput(bStream);
+        OutputStream compressedStream = CompressorFactory.XCONTENT_COMPRESSOR.streamOutput(bStream);
         CRC32 crc32 = new CRC32();
         OutputStream checkedStream = new CheckedOutputStream(compressedStream, crc32);
         try (XContentBuilder builder = XContentFactory.contentBuilder(type, checkedStream)) {
@@ -105,7 +105,7 @@ public final class CompressedXContent {
             this.crc32 = crc32(new BytesArray(uncompressed()));
         } else {
             BytesStreamOutput out = new BytesStreamOutput();
-            try (OutputStream compressedOutput = CompressorFactory.COMPRESSOR.streamOutput(out)) {
+            try (OutputStream compressedOutput = CompressorFactory.XCONTENT_COMPRESSOR.streamOutput(out)) {
                 data.writeTo(compressedOutput);
             }
             this.bytes = BytesReference.toBytes(out.bytes());
@@ -34,7 +34,34 @@ import java.util.Objects;
  */
 public class CompressorFactory {
 
-    public static final Compressor COMPRESSOR = new DeflateCompressor();
+    public static final Compressor DEFLATE = new DeflateCompressor();
+    public static final Compressor LZ4 = new Lz4Compressor();
+
+    /** The default compressor, used when no compression scheme is configured. */
+    public static final Compressor COMPRESSOR = DEFLATE;
+
+    /**
+     * System property selecting the compressor of {@link CompressedXContent} (mappings, cluster metadata),
+     * <code>deflate</code> (default) or <code>lz4</code>. Nodes always read both, but nodes not supporting lz4
+     * cannot read lz4 content, so lz4 should only be enabled once all nodes have been upgraded.
+     */
+    public static final String XCONTENT_COMPRESSION_SCHEME = "es.xcontent.compression_scheme";
+
+    public static final Compressor XCONTENT_COMPRESSOR = compressor(System.getProperty(XCONTENT_COMPRESSION_SCHEME, "deflate"));
+
+    /**
+     * Returns the compressor of a compression scheme name, <code>deflate</code> or <code>lz4</code>.
+     */
+    public static Compressor compressor(String scheme) {
+        switch (scheme) {
+            case "deflate":
+                return DEFLATE;
+            case "lz4":
+                return LZ4;
+            default:
+                throw new IllegalArgumentException("unknown compression scheme [" + scheme + "], expected [deflate] or [lz4]");
+        }
+    }
 
     public static boolean isCompressed(BytesReference bytes) {
         return compressor(bytes) != null;
@@ -42,12 +69,16 @@ public class CompressorFactory {
 
     @Nullable
     public static Compressor compressor(BytesReference bytes) {
-            if (COMPRESSOR.isCompressed(bytes)) {
+            if (DEFLATE.isCompressed(bytes)) {
                 // bytes should be either detected as compressed or as xcontent,
                 // if we have bytes that can be either detected as compressed or
                 // as a xcontent, we have a problem
                 assert XContentFactory.xContentType(bytes) == null;
-                return COMPRESSOR;
+                return DEFLATE;
+            }
+            if (LZ4.isCompressed(bytes)) {
+                assert XContentFactory.xContentType(bytes) == null;
+                return LZ4;
             }
 
         XContentType contentType = XContentFactory.xContentType(bytes);
@@ -0,0 +1,89 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.xxhash.XXHashFactory;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * {@link Compressor} implementation based on the LZ4 block format, much cheaper in CPU than DEFLATE
+ * at the cost of a lower compression ratio.
+ */
+public class Lz4Compressor implements Compressor {
+
+    // An arbitrary header that we use to identify compressed streams, see DeflateCompressor.
+    private static final byte[] HEADER = new byte[]{'L', 'Z', '4', '\0'};
+    private static final int BLOCK_SIZE = 64 * 1024;
+    // default seed of LZ4 block streams
+    private static final int SEED = 0x9747b28c;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+    private static final XXHashFactory XXHASH = XXHashFactory.fastestInstance();
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public StreamInput streamInput(StreamInput in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        int len = 0;
+        while (len < headerBytes.length) {
+            final int read = in.read(headerBytes, len, headerBytes.length - len);
+            if (read == -1) {
+                break;
+            }
+            len += read;
+        }
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with LZ4!");
+        }
+        return new InputStreamStreamInput(new LZ4BlockInputStream(in, LZ4.fastDecompressor(),
+            XXHASH.newStreamingHash32(SEED).asChecksum()));
+    }
+
+    @Override
+    public StreamOutput streamOutput(StreamOutput out) throws IOException {
+        out.writeBytes(HEADER);
+        final boolean syncFlush = true;
+        return new OutputStreamStreamOutput(new LZ4BlockOutputStream(out, BLOCK_SIZE, LZ4.fastCompressor(),
+            XXHASH.newStreamingHash32(SEED).asChecksum(), syncFlush));
+    }
+}
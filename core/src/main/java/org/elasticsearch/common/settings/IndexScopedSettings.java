@@ -94,11 +94,17 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
         IndexMetaData.INDEX_SYNCHRONOUS_REFRESH_SETTING,
         IndexMetaData.INDEX_SNAPSHOT_WITH_SSTABLE_SETTING,
         IndexMetaData.INDEX_TOKEN_RANGES_BITSET_CACHE_SETTING,
+        IndexMetaData.INDEX_DOCVALUES_FETCH_SETTING,
+        IndexMetaData.INDEX_COMPRESS_SOURCE_SETTING,
+        IndexMetaData.INDEX_TOKEN_ORDERED_FETCH_SETTING,
+        IndexMetaData.INDEX_SCROLL_PREFETCH_SETTING,
+        IndexMetaData.INDEX_PRIMARY_KEY_PUSHDOWN_SETTING,
         IndexMetaData.INDEX_SETTING_KEYSPACE_SETTING,
         IndexMetaData.INDEX_SETTING_REPLICATION_SETTING,
         IndexMetaData.INDEX_INDEX_STATIC_COLUMNS_SETTING,
         IndexMetaData.INDEX_INDEX_STATIC_ONLY_SETTING,
         IndexMetaData.INDEX_INDEX_STATIC_DOCUMENT_SETTING,
+        IndexMetaData.INDEX_TTL_PURGE_INTERVAL_SETTING,
         
         SearchSlowLog.INDEX_SEARCH_SLOWLOG_THRESHOLD_FETCH_DEBUG_SETTING,
         SearchSlowLog.INDEX_SEARCH_SLOWLOG_THRESHOLD_FETCH_WARN_SETTING,
@@ -137,6 +143,7 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
         IndexSettings.INDEX_CHECK_ON_STARTUP,
         IndexSettings.MAX_REFRESH_LISTENERS_PER_SHARD,
         IndexSettings.MAX_SLICES_PER_SCROLL,
+        IndexSettings.SEARCH_CONCURRENCY_SETTING,
         ShardsLimitAllocationDecider.INDEX_TOTAL_SHARDS_PER_NODE_SETTING,
         IndexSettings.INDEX_GC_DELETES_SETTING,
         IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING,
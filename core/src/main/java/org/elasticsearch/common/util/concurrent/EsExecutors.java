@@ -22,6 +22,7 @@ package org.elasticsearch.common.util.concurrent;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.node.Node;
 
 import java.util.Arrays;
@@ -78,6 +79,22 @@ public class EsExecutors {
         return new EsThreadPoolExecutor(name, size, size, 0, TimeUnit.MILLISECONDS, queue, threadFactory, new EsAbortPolicy(), contextHolder);
     }
 
+    /**
+     * Returns a fixed size executor whose queue capacity is adjusted between {@code minQueueSize} and {@code maxQueueSize}
+     * according to the measured queue time of tasks, see {@link QueueResizingEsThreadPoolExecutor}.
+     */
+    public static QueueResizingEsThreadPoolExecutor newAutoQueueFixed(String name, int size, int minQueueSize, int maxQueueSize,
+                                                                      TimeValue targetQueueTime, TimeValue interval,
+                                                                      ThreadFactory threadFactory, ThreadContext contextHolder) {
+        if (minQueueSize < 0 || minQueueSize > maxQueueSize) {
+            throw new IllegalArgumentException("min queue size [" + minQueueSize + "] of [" + name + "] executor must be between 0 and "
+                + "the max queue size [" + maxQueueSize + "]");
+        }
+        ResizableBlockingQueue<Runnable> queue = new ResizableBlockingQueue<>(ConcurrentCollections.<Runnable>newBlockingQueue(), maxQueueSize);
+        return new QueueResizingEsThreadPoolExecutor(name, size, queue, minQueueSize, maxQueueSize, targetQueueTime, interval,
+            threadFactory, contextHolder);
+    }
+
     private static final ExecutorService DIRECT_EXECUTOR_SERVICE = new AbstractExecutorService() {
 
         @Override
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs a list of independent tasks on an executor with the help of the calling thread. The calling thread runs the first
+ * task, then any task the executor rejected or did not start yet, so that the caller never waits for tasks queued behind
+ * other work and the executor can be bounded without risking a deadlock.
+ */
+public final class ParallelTasks {
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * Runs all tasks and waits for their completion, even when some of them fail.
+     *
+     * @return the task results, in the order of the tasks
+     * @throws Exception the failure of the first failed task, failures of other tasks being suppressed
+     */
+    public static <T> List<T> invokeAll(Executor executor, List<? extends Callable<T>> tasks) throws Exception {
+        final List<FutureTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(new FutureTask<>(task));
+        }
+        for (int i = 1; i < futures.size(); i++) {
+            try {
+                executor.execute(futures.get(i));
+            } catch (EsRejectedExecutionException e) {
+                // remaining tasks are run by the calling thread
+                break;
+            }
+        }
+
+        final List<T> results = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        for (FutureTask<T> future : futures) {
+            // no-op if the task was already started by the executor
+            future.run();
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure instanceof Exception) {
+            throw (Exception) failure;
+        } else if (failure != null) {
+            throw new UncategorizedExecutionException("Failed execution", failure);
+        }
+        return results;
+    }
+}
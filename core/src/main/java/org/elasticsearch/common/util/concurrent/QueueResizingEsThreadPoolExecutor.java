@@ -0,0 +1,201 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size thread pool executor adjusting the capacity of its queue with a CoDel like policy. The minimum time
+ * spent by tasks in the queue is measured over each interval: a minimum above the target queue time means that a
+ * standing queue persisted during the whole interval, so the capacity is halved and new tasks are rejected early
+ * rather than waiting in the queue. Otherwise the capacity grows by a step, up to the maximum queue size.
+ */
+public final class QueueResizingEsThreadPoolExecutor extends EsThreadPoolExecutor {
+
+    private static final Logger logger = Loggers.getLogger(QueueResizingEsThreadPoolExecutor.class);
+
+    private final String name;
+    private final ResizableBlockingQueue<Runnable> workQueue;
+    private final int minQueueSize;
+    private final int maxQueueSize;
+    private final int step;
+    private final long targetQueueTimeNanos;
+    private final long intervalNanos;
+
+    private final AtomicLong intervalStartNanos;
+    private final AtomicLong minQueueTimeNanos = new AtomicLong(Long.MAX_VALUE);
+    private final CounterMetric adjustments = new CounterMetric();
+    private volatile long lastMinQueueTimeNanos = 0;
+
+    QueueResizingEsThreadPoolExecutor(String name, int size, ResizableBlockingQueue<Runnable> workQueue, int minQueueSize,
+                                      int maxQueueSize, TimeValue targetQueueTime, TimeValue interval,
+                                      ThreadFactory threadFactory, ThreadContext contextHolder) {
+        super(name, size, size, 0, TimeUnit.MILLISECONDS, workQueue, threadFactory, new EsAbortPolicy(), contextHolder);
+        assert minQueueSize <= maxQueueSize : "min queue size [" + minQueueSize + "] > max queue size [" + maxQueueSize + "]";
+        this.name = name;
+        this.workQueue = workQueue;
+        this.minQueueSize = minQueueSize;
+        this.maxQueueSize = maxQueueSize;
+        this.step = Math.max(1, (maxQueueSize - minQueueSize) / 10);
+        this.targetQueueTimeNanos = targetQueueTime.nanos();
+        this.intervalNanos = interval.nanos();
+        this.intervalStartNanos = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        super.beforeExecute(t, r);
+        if (r instanceof TimedRunnable) {
+            final long now = System.nanoTime();
+            minQueueTimeNanos.accumulateAndGet(now - ((TimedRunnable) r).creationTimeNanos, Math::min);
+            final long start = intervalStartNanos.get();
+            if (now - start >= intervalNanos && intervalStartNanos.compareAndSet(start, now)) {
+                adjustQueueCapacity(minQueueTimeNanos.getAndSet(Long.MAX_VALUE));
+            }
+        }
+    }
+
+    /**
+     * Adjusts the queue capacity according to the minimum queue time measured over the last interval.
+     */
+    void adjustQueueCapacity(long minQueueTime) {
+        if (minQueueTime == Long.MAX_VALUE) {
+            // no task started since the last adjustment
+            return;
+        }
+        lastMinQueueTimeNanos = minQueueTime;
+        final int capacity = workQueue.capacity();
+        final int newCapacity;
+        if (minQueueTime > targetQueueTimeNanos) {
+            newCapacity = Math.max(minQueueSize, capacity / 2);
+        } else {
+            newCapacity = Math.min(maxQueueSize, capacity + step);
+        }
+        if (newCapacity != capacity) {
+            workQueue.capacity(newCapacity);
+            adjustments.inc();
+            logger.debug("[{}]: min queue time [{}] (target [{}]), queue capacity adjusted from [{}] to [{}]", name,
+                TimeValue.timeValueNanos(minQueueTime), TimeValue.timeValueNanos(targetQueueTimeNanos), capacity, newCapacity);
+        }
+    }
+
+    /**
+     * @return the current queue capacity.
+     */
+    public int getQueueCapacity() {
+        return workQueue.capacity();
+    }
+
+    /**
+     * @return the number of queue capacity adjustments.
+     */
+    public long getQueueAdjustments() {
+        return adjustments.count();
+    }
+
+    /**
+     * @return the minimum queue time of the last interval in nanoseconds.
+     */
+    public long getLastMinQueueTimeNanos() {
+        return lastMinQueueTimeNanos;
+    }
+
+    @Override
+    protected Runnable wrapRunnable(Runnable command) {
+        return new TimedRunnable(super.wrapRunnable(command));
+    }
+
+    @Override
+    protected Runnable unwrap(Runnable runnable) {
+        if (runnable instanceof TimedRunnable) {
+            runnable = ((TimedRunnable) runnable).original;
+        }
+        return super.unwrap(runnable);
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "[min queue size = " + minQueueSize + ", max queue size = " + maxQueueSize + "]";
+    }
+
+    /**
+     * Records the time a task was submitted. It is an {@link AbstractRunnable} forwarding force execution and rejections,
+     * so that the executor and the {@link EsAbortPolicy} handle it as the original runnable.
+     */
+    private static final class TimedRunnable extends AbstractRunnable {
+        private final Runnable original;
+        private final long creationTimeNanos;
+        private boolean started = false;
+
+        TimedRunnable(Runnable original) {
+            this.original = original;
+            this.creationTimeNanos = System.nanoTime();
+        }
+
+        @Override
+        protected void doRun() {
+            started = true;
+            original.run();
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            // an abstract runnable handles its own failures, others propagate to the executor
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new RuntimeException(e);
+        }
+
+        @Override
+        public void onRejection(Exception e) {
+            if (original instanceof AbstractRunnable) {
+                ((AbstractRunnable) original).onRejection(e);
+            } else {
+                onFailure(e);
+            }
+        }
+
+        @Override
+        public void onAfter() {
+            // a started abstract runnable already called its own onAfter
+            if (started == false && original instanceof AbstractRunnable) {
+                ((AbstractRunnable) original).onAfter();
+            }
+        }
+
+        @Override
+        public boolean isForceExecution() {
+            return original instanceof AbstractRunnable && ((AbstractRunnable) original).isForceExecution();
+        }
+
+        @Override
+        public String toString() {
+            return original.toString();
+        }
+    }
+}
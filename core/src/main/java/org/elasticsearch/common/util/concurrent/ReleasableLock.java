@@ -56,6 +56,19 @@ public class ReleasableLock implements Releasable {
         return this;
     }
 
+    /**
+     * Acquires the lock only if it is free at the time of invocation.
+     *
+     * @return this lock if it was acquired, otherwise null
+     */
+    public ReleasableLock tryAcquire() {
+        if (lock.tryLock()) {
+            assert addCurrentThread();
+            return this;
+        }
+        return null;
+    }
+
     private boolean addCurrentThread() {
         holdingThreads.set(true);
         return true;
@@ -38,6 +38,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  *
@@ -198,6 +199,36 @@ public class XContentMapValues {
             matchAllAutomaton);
     }
 
+    /**
+     * Returns a predicate telling whether a top-level property of a document may be kept by
+     * {@link #filter(String[], String[])}, that is, if the property or one of its sub properties
+     * matches the {@code includes} and the property itself is not excluded.
+     */
+    public static Predicate<String> filterTopLevel(String[] includes, String[] excludes) {
+        final CharacterRunAutomaton include;
+        if (includes == null || includes.length == 0) {
+            include = null;
+        } else {
+            include = new CharacterRunAutomaton(makeMatchDotsInFieldNames(Regex.simpleMatchToAutomaton(includes)));
+        }
+        final CharacterRunAutomaton exclude;
+        if (excludes == null || excludes.length == 0) {
+            exclude = null;
+        } else {
+            exclude = new CharacterRunAutomaton(makeMatchDotsInFieldNames(Regex.simpleMatchToAutomaton(excludes)));
+        }
+        return (key) -> {
+            if (include != null && step(include, key, 0) == -1) {
+                return false;
+            }
+            if (exclude != null) {
+                int excludeState = step(exclude, key, 0);
+                return excludeState == -1 || exclude.isAccept(excludeState) == false;
+            }
+            return true;
+        };
+    }
+
     /** Make matches on objects also match dots in field names.
      *  For instance, if the original simple regex is `foo`, this will translate
      *  it into `foo` OR `foo.*`. */
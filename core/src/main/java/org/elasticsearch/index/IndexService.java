@@ -55,6 +55,7 @@ import org.elasticsearch.index.shard.IndexEventListener;
 import org.elasticsearch.index.shard.IndexSearcherWrapper;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardClosedException;
+import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShadowIndexShard;
@@ -115,6 +116,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
     private final List<SearchOperationListener> searchOperationListeners;
     private volatile AsyncRefreshTask refreshTask;
     private volatile AsyncTranslogFSync fsyncTask;
+    private volatile AsyncTTLPurgeTask ttlPurgeTask;
     private final ThreadPool threadPool;
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
@@ -179,6 +181,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         this.searchOperationListeners = Collections.unmodifiableList(searchOperationListeners);
         // kick off async ops for the first shard in this index
         this.refreshTask = new AsyncRefreshTask(this);
+        this.ttlPurgeTask = new AsyncTTLPurgeTask(this);
         rescheduleFsyncTask(indexSettings.getTranslogDurability());
     }
 
@@ -260,7 +263,7 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                     }
                 }
             } finally {
-                IOUtils.close(bitsetFilterCache, tokenRangesBitsetFilterCache, indexCache, indexFieldData, mapperService, refreshTask, fsyncTask);
+                IOUtils.close(bitsetFilterCache, tokenRangesBitsetFilterCache, indexCache, indexFieldData, mapperService, refreshTask, fsyncTask, ttlPurgeTask);
             }
         }
     }
@@ -664,6 +667,9 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
             if (refreshTask.getInterval().equals(indexSettings.getRefreshInterval()) == false) {
                 rescheduleRefreshTasks();
             }
+            if (ttlPurgeTask.getInterval().equals(indexSettings.getTTLPurgeInterval()) == false) {
+                rescheduleTTLPurgeTask();
+            }
             final Translog.Durability durability = indexSettings.getTranslogDurability();
             if (durability != oldTranslogDurability) {
                 rescheduleFsyncTask(durability);
@@ -695,6 +701,14 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
 
     }
 
+    private void rescheduleTTLPurgeTask() {
+        try {
+            ttlPurgeTask.close();
+        } finally {
+            ttlPurgeTask = new AsyncTTLPurgeTask(this);
+        }
+    }
+
     public interface ShardStoreDeleter {
         void deleteShardStore(String reason, ShardLock lock, IndexSettings indexSettings) throws IOException;
 
@@ -756,6 +770,23 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         }
     }
 
+    private void maybePurgeExpiredDocuments() {
+        if (indexSettings.isTTLPurgeDisabled())
+            return;
+        final int nowInSec = (int) (threadPool.absoluteTimeInMillis() / 1000);
+        for (IndexShard shard : this.shards.values()) {
+            if (shard.state() == IndexShardState.STARTED) {
+                try {
+                    shard.purgeExpiredDocuments(nowInSec);
+                } catch (IndexShardClosedException | AlreadyClosedException ex) {
+                    // fine - continue;
+                } catch (IOException e) {
+                    logger.warn("failed to purge expired documents", e);
+                }
+            }
+        }
+    }
+
     abstract static class BaseAsyncTask implements Runnable, Closeable {
         protected final IndexService indexService;
         protected final ThreadPool threadPool;
@@ -899,6 +930,31 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         }
     }
 
+    /**
+     * Deletes documents of expired cassandra rows (TTL) for all shards of this index in a defined interval.
+     */
+    final class AsyncTTLPurgeTask extends BaseAsyncTask {
+
+        AsyncTTLPurgeTask(IndexService indexService) {
+            super(indexService, indexService.getIndexSettings().getTTLPurgeInterval());
+        }
+
+        @Override
+        protected void runInternal() {
+            indexService.maybePurgeExpiredDocuments();
+        }
+
+        @Override
+        protected String getThreadPool() {
+            return ThreadPool.Names.GENERIC;
+        }
+
+        @Override
+        public String toString() {
+            return "ttl_purge";
+        }
+    }
+
     AsyncRefreshTask getRefreshTask() { // for tests
         return refreshTask;
     }
@@ -133,6 +133,11 @@ public final class IndexSettings {
      */
     public static final Setting<Integer> MAX_SLICES_PER_SCROLL = Setting.intSetting("index.max_slices_per_scroll",
         1024, 1, Property.Dynamic, Property.IndexScope);
+    /**
+     * Maximum number of leaf slices searched in parallel by a single query, 1 disables concurrent segment search.
+     */
+    public static final Setting<Integer> SEARCH_CONCURRENCY_SETTING = Setting.intSetting("index.search.concurrency",
+        1, 1, Property.Dynamic, Property.IndexScope);
 
     private final Index index;
     private final Version version;
@@ -166,6 +171,12 @@ public final class IndexSettings {
     
     private final String keyspace;
     private volatile boolean tokenRangesBitsetCache;
+    private volatile boolean docValuesFetch;
+    private volatile boolean compressSource;
+    private volatile boolean tokenOrderedFetch;
+    private volatile int scrollPrefetch;
+    private volatile boolean primaryKeyPushdown;
+    private volatile TimeValue ttlPurgeInterval;
     
     /**
      * The maximum number of refresh listeners allows on this shard.
@@ -175,6 +186,7 @@ public final class IndexSettings {
      * The maximum number of slices allowed in a scroll request.
      */
     private volatile int maxSlicesPerScroll;
+    private volatile int searchConcurrency;
     /**
      * Whether the index is required to have at most one type.
      */
@@ -257,6 +269,7 @@ public final class IndexSettings {
         
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
+        ttlPurgeInterval = scopedSettings.get(IndexMetaData.INDEX_TTL_PURGE_INTERVAL_SETTING);
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
         mergeSchedulerConfig = new MergeSchedulerConfig(this);
         gcDeletesInMillis = scopedSettings.get(INDEX_GC_DELETES_SETTING).getMillis();
@@ -267,6 +280,12 @@ public final class IndexSettings {
         TTLPurgeDisabled = scopedSettings.get(INDEX_TTL_DISABLE_PURGE_SETTING);
         maxRefreshListeners = scopedSettings.get(MAX_REFRESH_LISTENERS_PER_SHARD);
         maxSlicesPerScroll = scopedSettings.get(MAX_SLICES_PER_SCROLL);
+        searchConcurrency = scopedSettings.get(SEARCH_CONCURRENCY_SETTING);
+        docValuesFetch = scopedSettings.get(IndexMetaData.INDEX_DOCVALUES_FETCH_SETTING);
+        compressSource = scopedSettings.get(IndexMetaData.INDEX_COMPRESS_SOURCE_SETTING);
+        tokenOrderedFetch = scopedSettings.get(IndexMetaData.INDEX_TOKEN_ORDERED_FETCH_SETTING);
+        scrollPrefetch = scopedSettings.get(IndexMetaData.INDEX_SCROLL_PREFETCH_SETTING);
+        primaryKeyPushdown = scopedSettings.get(IndexMetaData.INDEX_PRIMARY_KEY_PUSHDOWN_SETTING);
         this.mergePolicyConfig = new MergePolicyConfig(logger, this);
         singleType = scopedSettings.get(MapperService.INDEX_MAPPING_SINGLE_TYPE_SETTING);
 
@@ -293,8 +312,15 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_SLICES_PER_SCROLL, this::setMaxSlicesPerScroll);
+        scopedSettings.addSettingsUpdateConsumer(SEARCH_CONCURRENCY_SETTING, this::setSearchConcurrency);
 
         scopedSettings.addSettingsUpdateConsumer(IndexMetaData.INDEX_TOKEN_RANGES_BITSET_CACHE_SETTING, this::setTokenRangesBitsetCache);
+        scopedSettings.addSettingsUpdateConsumer(IndexMetaData.INDEX_DOCVALUES_FETCH_SETTING, this::setDocValuesFetch);
+        scopedSettings.addSettingsUpdateConsumer(IndexMetaData.INDEX_COMPRESS_SOURCE_SETTING, this::setCompressSource);
+        scopedSettings.addSettingsUpdateConsumer(IndexMetaData.INDEX_TOKEN_ORDERED_FETCH_SETTING, this::setTokenOrderedFetch);
+        scopedSettings.addSettingsUpdateConsumer(IndexMetaData.INDEX_SCROLL_PREFETCH_SETTING, this::setScrollPrefetch);
+        scopedSettings.addSettingsUpdateConsumer(IndexMetaData.INDEX_PRIMARY_KEY_PUSHDOWN_SETTING, this::setPrimaryKeyPushdown);
+        scopedSettings.addSettingsUpdateConsumer(IndexMetaData.INDEX_TTL_PURGE_INTERVAL_SETTING, this::setTTLPurgeInterval);
     }
 
     private void setTranslogFlushThresholdSize(ByteSizeValue byteSizeValue) {
@@ -313,6 +339,65 @@ public final class IndexSettings {
         this.tokenRangesBitsetCache = enable;
     }
     
+    private void setDocValuesFetch(Boolean enable) {
+        this.docValuesFetch = enable;
+    }
+    
+    /**
+     * Returns <code>true</code> if search hits are built from doc values by default when all requested fields have doc values.
+     */
+    public boolean isDocValuesFetch() {
+        return this.docValuesFetch;
+    }
+    
+    private void setCompressSource(Boolean enable) {
+        this.compressSource = enable;
+    }
+    
+    /**
+     * Returns <code>true</code> if the _source column is written as compressed SMILE, existing rows are decoded whatever their encoding.
+     */
+    public boolean isCompressSource() {
+        return this.compressSource;
+    }
+    
+    private void setTokenOrderedFetch(Boolean enable) {
+        this.tokenOrderedFetch = enable;
+    }
+    
+    /**
+     * Returns <code>true</code> if the fetch phase reads cassandra rows in partition token order.
+     */
+    public boolean isTokenOrderedFetch() {
+        return this.tokenOrderedFetch;
+    }
+    
+    private void setScrollPrefetch(int scrollPrefetch) {
+        this.scrollPrefetch = scrollPrefetch;
+    }
+    
+    /**
+     * Returns the number of cassandra reads submitted ahead of the hit being fetched for scroll requests, 0 if disabled.
+     */
+    public int getScrollPrefetch() {
+        return this.scrollPrefetch;
+    }
+    
+    private void setPrimaryKeyPushdown(Boolean enable) {
+        this.primaryKeyPushdown = enable;
+    }
+    
+    /**
+     * Returns <code>true</code> if search requests fully determined by a primary key are served by a direct cassandra read.
+     */
+    public boolean isPrimaryKeyPushdown() {
+        return this.primaryKeyPushdown;
+    }
+    
+    private void setTTLPurgeInterval(TimeValue timeValue) {
+        this.ttlPurgeInterval = timeValue;
+    }
+    
     /**
      * Returns the settings for this index. These settings contain the node and index level settings where
      * settings that are specified on both index and node level are overwritten by the index settings.
@@ -476,6 +561,13 @@ public final class IndexSettings {
         return refreshInterval;
     }
 
+    /**
+     * Returns the interval in which documents of expired cassandra rows are purged from the shards of this index. <tt>-1</tt> means purge is disabled.
+     */
+    public TimeValue getTTLPurgeInterval() {
+        return ttlPurgeInterval;
+    }
+
     /**
      * Returns the transaction log threshold size when to forcefully flush the index and clear the transaction log.
      */
@@ -571,6 +663,17 @@ public final class IndexSettings {
         this.maxSlicesPerScroll = value;
     }
 
+    /**
+     * Returns the maximum number of leaf slices a query searches in parallel on this index.
+     */
+    public int getSearchConcurrency() {
+        return searchConcurrency;
+    }
+
+    private void setSearchConcurrency(int value) {
+        this.searchConcurrency = value;
+    }
+
     public IndexScopedSettings getScopedSettings() { return scopedSettings;}
     
     public String getKeyspace() {
@@ -521,6 +521,14 @@ public enum FieldData {
             return values.get(docID);
         }
 
+        @Override
+        public void get(int[] docIDs, int count, double[] values) {
+            final NumericDocValues longValues = this.values;
+            for (int i = 0; i < count; i++) {
+                values[i] = longValues.get(docIDs[i]);
+            }
+        }
+
     }
 
     private static class SortedDoubleCastedValues extends SortedNumericDoubleValues {
@@ -37,6 +37,16 @@ public abstract class NumericDoubleValues {
    * @return numeric value
    */
   public abstract double get(int docID);
+
+  /**
+   * Reads the values of the first {@code count} documents of {@code docIDs} into {@code values}, with the same semantics as
+   * {@link #get(int)}. Implementations wrapping doc values override it to read a block of values in a tight loop.
+   */
+  public void get(int[] docIDs, int count, double[] values) {
+      for (int i = 0; i < count; i++) {
+          values[i] = get(docIDs[i]);
+      }
+  }
   
   // TODO: this interaction with sort comparators is really ugly...
   /** Returns numeric docvalues view of raw double bits */
@@ -40,6 +40,14 @@ final class SortableLongBitsToNumericDoubleValues extends NumericDoubleValues {
         return NumericUtils.sortableLongToDouble(values.get(docID));
     }
 
+    @Override
+    public void get(int[] docIDs, int count, double[] values) {
+        final NumericDocValues longValues = this.values;
+        for (int i = 0; i < count; i++) {
+            values[i] = NumericUtils.sortableLongToDouble(longValues.get(docIDs[i]));
+        }
+    }
+
     /** Return the wrapped values. */
     public NumericDocValues getLongValues() {
         return values;
@@ -20,11 +20,13 @@ package org.elasticsearch.index.fieldvisitor;
 
 import com.google.common.collect.ImmutableSet;
 
+import org.apache.cassandra.config.ColumnDefinition;
 import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
@@ -35,6 +37,7 @@ import org.elasticsearch.index.mapper.TTLFieldMapper;
 import org.elasticsearch.index.mapper.TimestampFieldMapper;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.mapper.UidFieldMapper;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
@@ -49,6 +52,7 @@ import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.unmodifiableSet;
@@ -107,12 +111,34 @@ public class FieldsVisitor extends StoredFieldVisitor {
             }
         }
         if (loadSource()) {
-            for(String columnName : searchContext.mapperService().documentMapper(type).getColumnDefinitions().keySet()) 
-                requiredColumns.add( columnName );
+            Map<String, ColumnDefinition> columnDefs = searchContext.mapperService().documentMapper(type).getColumnDefinitions();
+            Predicate<String> sourceFilter = sourceColumnFilter(searchContext);
+            if (sourceFilter == null) {
+                requiredColumns.addAll(columnDefs.keySet());
+            } else {
+                // only fetch columns surviving the _source includes/excludes, primary key columns ensure the row is returned.
+                for(Map.Entry<String, ColumnDefinition> entry : columnDefs.entrySet()) {
+                    if (entry.getValue().isPrimaryKeyColumn() || sourceFilter.test(entry.getKey()))
+                        requiredColumns.add( entry.getKey() );
+                }
+            }
         }
         return new TreeSet<String>(requiredColumns);
     }
     
+    /**
+     * @return a predicate on column names built from the _source includes/excludes of the search,
+     *     or null when all columns are needed (no filtering, highlighting or script fields reading the _source).
+     */
+    protected Predicate<String> sourceColumnFilter(SearchContext searchContext) {
+        FetchSourceContext fetchSourceContext = searchContext.fetchSourceContext();
+        if (fetchSourceContext == null || !fetchSourceContext.fetchSource() || searchContext.highlight() != null || searchContext.hasScriptFields())
+            return null;
+        if (fetchSourceContext.includes().length == 0 && fetchSourceContext.excludes().length == 0)
+            return null;
+        return XContentMapValues.filterTopLevel(fetchSourceContext.includes(), fetchSourceContext.excludes());
+    }
+
     public boolean loadSource() {
         return this.loadSource;
     }
@@ -20,11 +20,34 @@
 package org.elasticsearch.index.get;
 
 import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.cql3.QueryOptions;
+import org.apache.cassandra.cql3.QueryProcessor;
 import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.cql3.statements.ParsedStatement;
+import org.apache.cassandra.cql3.statements.SelectStatement;
 import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.db.DecoratedKey;
+import org.apache.cassandra.db.ReadQuery;
+import org.apache.cassandra.db.SinglePartitionReadCommand;
+import org.apache.cassandra.db.filter.DataLimits;
+import org.apache.cassandra.db.partitions.PartitionIterator;
+import org.apache.cassandra.db.partitions.PartitionIterators;
+import org.apache.cassandra.db.rows.RowIterator;
 import org.apache.cassandra.exceptions.RequestExecutionException;
 import org.apache.cassandra.exceptions.RequestValidationException;
+import org.apache.cassandra.service.ClientState;
+import org.apache.cassandra.service.StorageProxy;
+import org.apache.cassandra.utils.FBUtilities;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.util.Supplier;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.Bits;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.get.MultiGetRequest;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.cluster.service.ClusterService.DocPrimaryKey;
 import org.elasticsearch.common.Nullable;
@@ -51,19 +74,26 @@ import org.elasticsearch.index.mapper.ParentFieldMapper;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.index.mapper.TTLFieldMapper;
 import org.elasticsearch.index.mapper.TimestampFieldMapper;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.mapper.UidFieldMapper;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
+import org.elasticsearch.index.shard.IllegalIndexShardStateException;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.fetch.subphase.ParentFieldSubFetchPhase;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  */
@@ -152,34 +182,242 @@ public final class ShardGetService extends AbstractIndexShardComponent {
         return FetchSourceContext.DO_NOT_FETCH_SOURCE;
     }
 
+    /**
+     * Multi-get of documents of this shard. Items are grouped by cached fetch statement, and rows of each group are read
+     * in one round of parallel single partition reads (a partition read twice in a group is deferred to the next round),
+     * instead of one coordinator CQL query per item.
+     * Results and failures are reported per item slot.
+     */
+    public void multiGet(List<MultiGetRequest.Item> items, BiConsumer<Integer, GetResult> onResult, BiConsumer<Integer, Exception> onFailure) {
+        currentMetric.inc();
+        try {
+            long now = System.nanoTime();
+            int nowInSec = FBUtilities.nowInSeconds();
+            Map<ParsedStatement.Prepared, List<PendingGet>> pendingByStatement = new LinkedHashMap<ParsedStatement.Prepared, List<PendingGet>>();
+            for (int i = 0; i < items.size(); i++) {
+                MultiGetRequest.Item item = items.get(i);
+                try {
+                    FetchSourceContext fetchSourceContext = normalizeFetchSourceContent(item.fetchSourceContext(), item.storedFields());
+                    String type = resolveType(item.type(), item.id());
+                    DocumentMapper docMapper = (type == null || type.equals("_all")) ? null : mapperService.documentMapper(type);
+                    if (docMapper == null) {
+                        missingMetric.inc(System.nanoTime() - now);
+                        onResult.accept(i, new GetResult(shardId.getIndexName(), type, item.id(), -1, false, null, null));
+                        continue;
+                    }
+                    DocPrimaryKey docPk = clusterService.parseElasticId(this.indexService, type, item.id());
+                    ParsedStatement.Prepared prepared = clusterService.fetchStatement(this.indexService, type, columns(docMapper, item.storedFields(), fetchSourceContext), 
+                            docPk.isStaticDocument, docMapper.getColumnDefinitions());
+                    pendingByStatement.computeIfAbsent(prepared, k -> new ArrayList<PendingGet>())
+                        .add(new PendingGet(i, type, item.id(), item.storedFields(), fetchSourceContext, docMapper, docPk));
+                } catch (Exception e) {
+                    onFailure.accept(i, e);
+                }
+            }
+
+            for (Map.Entry<ParsedStatement.Prepared, List<PendingGet>> entry : pendingByStatement.entrySet()) {
+                try {
+                    readRows(entry.getKey(), entry.getValue(), nowInSec);
+                } catch (Exception e) {
+                    for (PendingGet get : entry.getValue())
+                        onFailure.accept(get.slot, e);
+                    continue;
+                }
+                for (PendingGet get : entry.getValue()) {
+                    if (get.failure != null) {
+                        onFailure.accept(get.slot, get.failure);
+                        continue;
+                    }
+                    try {
+                        GetResult getResult = innerGetFromRow(get.type, get.id, get.gFields, get.fetchSourceContext, get.docMapper, get.row);
+                        if (getResult.isExists()) {
+                            existsMetric.inc(System.nanoTime() - now);
+                        } else {
+                            missingMetric.inc(System.nanoTime() - now);
+                        }
+                        onResult.accept(get.slot, getResult);
+                    } catch (Exception e) {
+                        onFailure.accept(get.slot, e);
+                    }
+                }
+            }
+        } finally {
+            currentMetric.dec();
+        }
+    }
+
+    private static class PendingGet {
+        final int slot;
+        final String type;
+        final String id;
+        final String[] gFields;
+        final FetchSourceContext fetchSourceContext;
+        final DocumentMapper docMapper;
+        final DocPrimaryKey docPk;
+        UntypedResultSet.Row row = null;
+        Exception failure = null;
+
+        PendingGet(int slot, String type, String id, String[] gFields, FetchSourceContext fetchSourceContext, DocumentMapper docMapper, DocPrimaryKey docPk) {
+            this.slot = slot;
+            this.type = type;
+            this.id = id;
+            this.gFields = gFields;
+            this.fetchSourceContext = fetchSourceContext;
+            this.docMapper = docMapper;
+            this.docPk = docPk;
+        }
+    }
+
+    /**
+     * Read rows of pending gets sharing the same fetch statement, the local replica is read when available.
+     * Gets that cannot be read as a single partition command are fetched one by one, and failures reported per get.
+     * <p>
+     * The grouped read calls {@link StorageProxy#read} directly, as the default {@link QueryProcessor} does for a single
+     * statement, because the CQL query handler has no entry point for a group of partition reads. When a custom
+     * query handler is configured, gets are executed one by one through {@link ClusterService#execute} so that
+     * the handler still sees every multi-get read.
+     */
+    private void readRows(ParsedStatement.Prepared prepared, List<PendingGet> gets, int nowInSec) {
+        if (ClientState.getCQLQueryHandler() != QueryProcessor.instance) {
+            for (PendingGet get : gets)
+                fetchRow(prepared, get);
+            return;
+        }
+        SelectStatement select = (SelectStatement) prepared.statement;
+        List<PendingGet> remaining = gets;
+        while (!remaining.isEmpty()) {
+            Map<DecoratedKey, PendingGet> round = new HashMap<DecoratedKey, PendingGet>();
+            List<SinglePartitionReadCommand> commands = new ArrayList<SinglePartitionReadCommand>(remaining.size());
+            List<PendingGet> next = new ArrayList<PendingGet>();
+            for (PendingGet get : remaining) {
+                QueryOptions options = QueryOptions.forInternalCalls(ConsistencyLevel.LOCAL_ONE, get.docPk.serialize(prepared));
+                ReadQuery readQuery = select.getQuery(options, nowInSec);
+                if (!(readQuery instanceof SinglePartitionReadCommand.Group)) {
+                    fetchRow(prepared, get);
+                    continue;
+                }
+                for (SinglePartitionReadCommand command : ((SinglePartitionReadCommand.Group) readQuery).commands) {
+                    if (round.putIfAbsent(command.partitionKey(), get) == null)
+                        commands.add(command);
+                    else
+                        next.add(get);
+                }
+            }
+            if (!commands.isEmpty()) {
+                // per command limits still apply, the group is not limited.
+                SinglePartitionReadCommand.Group group = new SinglePartitionReadCommand.Group(commands, DataLimits.NONE);
+                try (PartitionIterator partitions = StorageProxy.read(group, ConsistencyLevel.LOCAL_ONE, System.nanoTime())) {
+                    while (partitions.hasNext()) {
+                        RowIterator partition = partitions.next();
+                        PendingGet get = round.get(partition.partitionKey());
+                        UntypedResultSet rs = UntypedResultSet.create(select.process(PartitionIterators.singletonIterator(partition), nowInSec));
+                        if (get != null && !rs.isEmpty())
+                            get.row = rs.one();
+                    }
+                }
+            }
+            remaining = next;
+        }
+    }
+
+    private void fetchRow(ParsedStatement.Prepared prepared, PendingGet get) {
+        try {
+            UntypedResultSet rs = ClusterService.execute(prepared, ConsistencyLevel.LOCAL_ONE, get.docPk.serialize(prepared));
+            if (!rs.isEmpty())
+                get.row = rs.one();
+        } catch (Exception e) {
+            get.failure = new ElasticsearchException("Cannot fetch source type [" + get.type + "] and id [" + get.id + "]", e);
+        }
+    }
+
     private GetResult innerGet(String type, String id, String[] gFields, boolean realtime, long version, VersionType versionType, FetchSourceContext fetchSourceContext) {
         fetchSourceContext = normalizeFetchSourceContent(fetchSourceContext, gFields);
       
         //Engine.GetResult get = null;
+        type = resolveType(type, id);
         if (type == null || type.equals("_all")) {
+            return new GetResult(shardId.getIndexName(), type, id, -1, false, null, null);
+        }
+        
+        DocumentMapper docMapper = mapperService.documentMapper(type);
+        if (docMapper == null) {
+            //get.release();
+            return new GetResult(shardId.getIndexName(), type, id, -1, false, null, null);
+        }
+
+        // In elassandra, Engine does not store the source any more, but fetch it from cassandra.
+        UntypedResultSet result;
+        try {
+            result = clusterService.fetchRow(this.indexService, type, id, columns(docMapper, gFields, fetchSourceContext), 
+                    docMapper.getColumnDefinitions());
+        } catch (RequestExecutionException | RequestValidationException | IOException e1) {
+            throw new ElasticsearchException("Cannot fetch source type [" + type + "] and id [" + id + "]", e1);
+        }
+        return innerGetFromRow(type, id, gFields, fetchSourceContext, docMapper, result.isEmpty() ? null : result.one());
+    }
+    
+    /**
+     * Search for the matching type (table) when type is null or _all.
+     * The _uid terms of the local shard are checked first, tables are probed only when the document is not found in the index
+     * (not yet refreshed or not indexed).
+     */
+    private String resolveType(String type, String id) {
+        if (type == null || type.equals("_all")) {
+            Collection<String> types = mapperService.types();
+            if (types.size() == 1) {
+                // the fetch will tell if the row exists.
+                return types.iterator().next();
+            }
             try {
-                for (String typeX : mapperService.types() ) {
+                String indexedType = indexedType(types, id);
+                if (indexedType != null)
+                    return indexedType;
+            } catch (IOException | IllegalIndexShardStateException e) {
+                logger.debug((Supplier<?>) () -> new ParameterizedMessage("failed to lookup _uid of [{}], probing tables", id), e);
+            }
+            try {
+                for (String typeX : types) {
                     // search for the matching type (table)
                     if (clusterService.rowExists(indexService, typeX, id)) {
-                        type = typeX;
-                        break;
+                        return typeX;
                     }
                 }
             } catch (RequestExecutionException | RequestValidationException | IOException e1) {
                 throw new ElasticsearchException("Cannot fetch source type [" + type + "] and id [" + id + "]", e1);
             }
         }
-        if (type == null || type.equals("_all")) {
-            return new GetResult(shardId.getIndexName(), type, id, -1, false, null, null);
-        }
-        
-        DocumentMapper docMapper = mapperService.documentMapper(type);
-        if (docMapper == null) {
-            //get.release();
-            return new GetResult(shardId.getIndexName(), type, id, -1, false, null, null);
+        return type;
+    }
+    
+    /**
+     * @return the type of a live document with this id in the last refreshed reader, or null if not found.
+     */
+    private String indexedType(Collection<String> types, String id) throws IOException {
+        try (Engine.Searcher searcher = indexShard.acquireSearcher("get")) {
+            for (LeafReaderContext context : searcher.reader().leaves()) {
+                Terms terms = context.reader().terms(UidFieldMapper.NAME);
+                if (terms == null)
+                    continue;
+                TermsEnum termsEnum = terms.iterator();
+                Bits liveDocs = context.reader().getLiveDocs();
+                for (String typeX : types) {
+                    if (termsEnum.seekExact(Uid.createUidAsBytes(typeX, id))) {
+                        PostingsEnum docs = termsEnum.postings(null, PostingsEnum.NONE);
+                        for (int docId = docs.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = docs.nextDoc()) {
+                            if (liveDocs == null || liveDocs.get(docId))
+                                return typeX;
+                        }
+                    }
+                }
+            }
         }
-
-        fetchSourceContext = normalizeFetchSourceContent(fetchSourceContext, gFields);
+        return null;
+    }
+    
+    /**
+     * Columns to fetch for the requested fields and source.
+     */
+    private String[] columns(DocumentMapper docMapper, String[] gFields, FetchSourceContext fetchSourceContext) {
         Set<String> columns = new HashSet<String>();
         if ((gFields != null) && (!fetchSourceContext.fetchSource())) {
             for (String field : gFields) {
@@ -189,7 +427,7 @@ public final class ShardGetService extends AbstractIndexShardComponent {
                     columns.add(colName);
             }
         } else {
-            columns.addAll( mapperService.documentMapper(type).getColumnDefinitions().keySet() );
+            columns.addAll( docMapper.getColumnDefinitions().keySet() );
         }
 
         if (docMapper.parentFieldMapper().active()) {
@@ -204,27 +442,34 @@ public final class ShardGetService extends AbstractIndexShardComponent {
         if (docMapper.sourceMapper().enabled()) {
             columns.add(SourceFieldMapper.NAME);
         }
-        
+        return columns.toArray(new String[columns.size()]);
+    }
+    
+    /**
+     * Build the get result of a fetched row, or a not found result when row is null.
+     */
+    private GetResult innerGetFromRow(String type, String id, String[] gFields, FetchSourceContext fetchSourceContext, DocumentMapper docMapper, UntypedResultSet.Row row) {
+        if (row == null) {
+            return new GetResult(shardId.getIndexName(), type, id, -1, false, null, null);
+        }
         Map<String, GetField> fields = null;
      
         // deal with source, but only if it's enabled (we always have it from the translog)
         Map<String, Object> sourceAsMap = null;
         BytesReference sourceToBeReturned = null;
         SourceFieldMapper sourceFieldMapper = docMapper.sourceMapper();
-        
-        // In elassandra, Engine does not store the source any more, but fetch it from cassandra.
         try {
-            String ksName = mapperService.keyspace();
-            UntypedResultSet result = clusterService.fetchRow(this.indexService, type, id, columns.toArray(new String[columns.size()]), 
-                    docMapper.getColumnDefinitions());
-            if (result.isEmpty()) {
-                return new GetResult(shardId.getIndexName(), type, id, -1, false, null, null);
-            }
-            sourceAsMap = clusterService.rowAsMap(this.indexService, type, result.one());
             if (fetchSourceContext.fetchSource()) {
-                sourceToBeReturned = clusterService.source(this.indexService, docMapper, sourceAsMap, id);
+                sourceToBeReturned = clusterService.source(this.indexService, docMapper, row, id);
             }
-        } catch (RequestExecutionException | RequestValidationException | IOException e1) {
+            // build a map only for requested fields or source filtering.
+            boolean sourceFiltering = fetchSourceContext.fetchSource() && sourceFieldMapper.enabled() &&
+                    (sourceFieldMapper.includes().length > 0 || sourceFieldMapper.excludes().length > 0 ||
+                     fetchSourceContext.includes().length > 0 || fetchSourceContext.excludes().length > 0);
+            if ((gFields != null && gFields.length > 0) || sourceFiltering) {
+                sourceAsMap = clusterService.rowAsMap(this.indexService, type, row);
+            }
+        } catch (IOException e1) {
             throw new ElasticsearchException("Cannot fetch source type [" + type + "] and id [" + id + "]", e1);
         }
         
@@ -282,9 +527,7 @@ public final class ShardGetService extends AbstractIndexShardComponent {
                         columnDefs.keySet().toArray(new String[columnDefs.size()]), 
                         ConsistencyLevel.LOCAL_ONE,
                         columnDefs);
-                Map<String, Object> sourceMap = clusterService.rowAsMap(this.indexService, type, result.one());
-               
-                source = clusterService.source(this.indexService, docMapper, sourceMap, fieldVisitor.uid().id());
+                source = clusterService.source(this.indexService, docMapper, result.one(), fieldVisitor.uid().id());
                 
                 fieldVisitor.source( BytesReference.toBytes(source) );
                 //docIdAndVersion.context.reader().document(docIdAndVersion.docId, fieldVisitor);
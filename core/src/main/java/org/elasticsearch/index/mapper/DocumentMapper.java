@@ -22,10 +22,13 @@ package org.elasticsearch.index.mapper;
 import org.apache.cassandra.config.CFMetaData;
 import org.apache.cassandra.config.ColumnDefinition;
 import org.apache.cassandra.cql3.ColumnIdentifier;
+import org.apache.cassandra.cql3.ColumnSpecification;
+import org.apache.cassandra.cql3.statements.ParsedStatement;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
+import org.elassandra.index.mapper.RowXContentSerializer;
 import org.elassandra.index.mapper.internal.NodeFieldMapper;
 import org.elassandra.index.mapper.internal.TokenFieldMapper;
 import org.elasticsearch.ElasticsearchGenerationException;
@@ -51,6 +54,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Collections.emptyMap;
 
@@ -136,6 +140,56 @@ public class DocumentMapper implements ToXContent {
     private CqlFragments cqlFragments = null;
     private Map<String, ColumnDefinition> columnDefs = null;
     
+    // row serializers by result set columns, for regular and static documents.
+    private static final int MAX_ROW_SERIALIZERS = 64;
+    private final Map<List<ColumnSpecification>, RowXContentSerializer> rowSerializers = new ConcurrentHashMap<>();
+    private final Map<List<ColumnSpecification>, RowXContentSerializer> staticRowSerializers = new ConcurrentHashMap<>();
+    
+    // prepared CQL statements by table id and key (see ClusterService.fetchStatement), dropped with this mapper on mapping update.
+    private static final int MAX_CQL_STATEMENTS = 64;
+    private final Map<String, CqlStatement> cqlStatements = new ConcurrentHashMap<>();
+    
+    private static class CqlStatement {
+        final int schemaGeneration;
+        final ParsedStatement.Prepared prepared;
+        
+        CqlStatement(int schemaGeneration, ParsedStatement.Prepared prepared) {
+            this.schemaGeneration = schemaGeneration;
+            this.prepared = prepared;
+        }
+    }
+    
+    /**
+     * @return the cached prepared statement, or null if not cached or prepared with another schema generation of its table.
+     */
+    public ParsedStatement.Prepared getCqlStatement(String key, int schemaGeneration) {
+        CqlStatement statement = cqlStatements.get(key);
+        return (statement != null && statement.schemaGeneration == schemaGeneration) ? statement.prepared : null;
+    }
+    
+    public void putCqlStatement(String key, int schemaGeneration, ParsedStatement.Prepared prepared) {
+        // keys depend on requested fields, avoid unbounded growth.
+        if (cqlStatements.size() >= MAX_CQL_STATEMENTS)
+            cqlStatements.clear();
+        cqlStatements.put(key, new CqlStatement(schemaGeneration, prepared));
+    }
+    
+    /**
+     * @return a cached serializer writing rows having these columns as a _source document.
+     */
+    public RowXContentSerializer getRowSerializer(List<ColumnSpecification> columns, boolean forStaticDocument) {
+        Map<List<ColumnSpecification>, RowXContentSerializer> serializers = forStaticDocument ? staticRowSerializers : rowSerializers;
+        RowXContentSerializer serializer = serializers.get(columns);
+        if (serializer == null) {
+            // column sets depend on requested fields, avoid unbounded growth.
+            if (serializers.size() >= MAX_ROW_SERIALIZERS)
+                serializers.clear();
+            serializer = new RowXContentSerializer(this, columns, forStaticDocument);
+            serializers.put(serializer.columns(), serializer);
+        }
+        return serializer;
+    }
+    
     public CqlFragments getCqlFragments() {
         if (this.cqlFragments == null) {
             synchronized(this) {
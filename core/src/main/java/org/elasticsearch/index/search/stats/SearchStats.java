@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.search.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.support.ToXContentToBytes;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -53,6 +54,9 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
         private long suggestTimeInMillis;
         private long suggestCurrent;
 
+        private long fetchTokenOrderedCount;
+        private long fetchPrefetchedCount;
+
         Stats() {
 
         }
@@ -62,6 +66,20 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
                 long fetchCount, long fetchTimeInMillis, long fetchCurrent,
                 long scrollCount, long scrollTimeInMillis, long scrollCurrent,
                 long suggestCount, long suggestTimeInMillis, long suggestCurrent
+        ) {
+            this(queryCount, queryTimeInMillis, queryCurrent,
+                    fetchCount, fetchTimeInMillis, fetchCurrent,
+                    scrollCount, scrollTimeInMillis, scrollCurrent,
+                    suggestCount, suggestTimeInMillis, suggestCurrent,
+                    0, 0);
+        }
+
+        public Stats(
+                long queryCount, long queryTimeInMillis, long queryCurrent,
+                long fetchCount, long fetchTimeInMillis, long fetchCurrent,
+                long scrollCount, long scrollTimeInMillis, long scrollCurrent,
+                long suggestCount, long suggestTimeInMillis, long suggestCurrent,
+                long fetchTokenOrderedCount, long fetchPrefetchedCount
         ) {
             this.queryCount = queryCount;
             this.queryTimeInMillis = queryTimeInMillis;
@@ -79,6 +97,8 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
             this.suggestTimeInMillis = suggestTimeInMillis;
             this.suggestCurrent = suggestCurrent;
 
+            this.fetchTokenOrderedCount = fetchTokenOrderedCount;
+            this.fetchPrefetchedCount = fetchPrefetchedCount;
         }
 
         public Stats(Stats stats) {
@@ -86,7 +106,8 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
                     stats.queryCount, stats.queryTimeInMillis, stats.queryCurrent,
                     stats.fetchCount, stats.fetchTimeInMillis, stats.fetchCurrent,
                     stats.scrollCount, stats.scrollTimeInMillis, stats.scrollCurrent,
-                    stats.suggestCount, stats.suggestTimeInMillis, stats.suggestCurrent
+                    stats.suggestCount, stats.suggestTimeInMillis, stats.suggestCurrent,
+                    stats.fetchTokenOrderedCount, stats.fetchPrefetchedCount
             );
         }
 
@@ -106,6 +127,9 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
             suggestCount += stats.suggestCount;
             suggestTimeInMillis += stats.suggestTimeInMillis;
             suggestCurrent += stats.suggestCurrent;
+
+            fetchTokenOrderedCount += stats.fetchTokenOrderedCount;
+            fetchPrefetchedCount += stats.fetchPrefetchedCount;
         }
 
         public long getQueryCount() {
@@ -172,6 +196,20 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
             return suggestCurrent;
         }
 
+        /**
+         * Returns the number of hits whose cassandra rows were read in token order (see index.token_ordered_fetch).
+         */
+        public long getFetchTokenOrderedCount() {
+            return fetchTokenOrderedCount;
+        }
+
+        /**
+         * Returns the number of cassandra reads of scroll hits submitted ahead of their hit within a page (see index.scroll_prefetch).
+         */
+        public long getFetchPrefetchedCount() {
+            return fetchPrefetchedCount;
+        }
+
         public static Stats readStats(StreamInput in) throws IOException {
             Stats stats = new Stats();
             stats.readFrom(in);
@@ -195,6 +233,11 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
             suggestCount = in.readVLong();
             suggestTimeInMillis = in.readVLong();
             suggestCurrent = in.readVLong();
+
+            if (in.getVersion().onOrAfter(Version.V_5_5_1)) {
+                fetchTokenOrderedCount = in.readVLong();
+                fetchPrefetchedCount = in.readVLong();
+            }
         }
 
         @Override
@@ -214,6 +257,11 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
             out.writeVLong(suggestCount);
             out.writeVLong(suggestTimeInMillis);
             out.writeVLong(suggestCurrent);
+
+            if (out.getVersion().onOrAfter(Version.V_5_5_1)) {
+                out.writeVLong(fetchTokenOrderedCount);
+                out.writeVLong(fetchPrefetchedCount);
+            }
         }
 
         @Override
@@ -225,6 +273,8 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
             builder.field(Fields.FETCH_TOTAL, fetchCount);
             builder.timeValueField(Fields.FETCH_TIME_IN_MILLIS, Fields.FETCH_TIME, fetchTimeInMillis);
             builder.field(Fields.FETCH_CURRENT, fetchCurrent);
+            builder.field(Fields.FETCH_TOKEN_ORDERED_TOTAL, fetchTokenOrderedCount);
+            builder.field(Fields.FETCH_PREFETCHED_TOTAL, fetchPrefetchedCount);
 
             builder.field(Fields.SCROLL_TOTAL, scrollCount);
             builder.timeValueField(Fields.SCROLL_TIME_IN_MILLIS, Fields.SCROLL_TIME, scrollTimeInMillis);
@@ -329,6 +379,8 @@ public class SearchStats extends ToXContentToBytes implements Streamable {
         static final String FETCH_TIME = "fetch_time";
         static final String FETCH_TIME_IN_MILLIS = "fetch_time_in_millis";
         static final String FETCH_CURRENT = "fetch_current";
+        static final String FETCH_TOKEN_ORDERED_TOTAL = "fetch_token_ordered_total";
+        static final String FETCH_PREFETCHED_TOTAL = "fetch_prefetched_total";
         static final String SCROLL_TOTAL = "scroll_total";
         static final String SCROLL_TIME = "scroll_time";
         static final String SCROLL_TIME_IN_MILLIS = "scroll_time_in_millis";
@@ -124,6 +124,43 @@ public final class ShardSearchStats implements SearchOperationListener {
         });
     }
 
+    /**
+     * Record hits of a fetch phase whose cassandra rows are read in token order.
+     */
+    public void onTokenOrderedFetch(SearchContext searchContext, long hits) {
+        computeStats(searchContext, statsHolder -> statsHolder.fetchTokenOrdered.inc(hits));
+    }
+
+    /**
+     * Record a cassandra read of a scroll hit that was submitted ahead of its hit in the page.
+     */
+    public void onPrefetchedRead(SearchContext searchContext) {
+        computeStats(searchContext, statsHolder -> statsHolder.fetchPrefetched.inc());
+    }
+
+    /**
+     * Record the start of a search served by a primary key read (see index.primary_key_pushdown), without search context.
+     */
+    public void onPrePrimaryKeySearch() {
+        totalStats.queryCurrent.inc();
+    }
+
+    public void onFailedPrimaryKeySearch() {
+        totalStats.queryCurrent.dec();
+        assert totalStats.queryCurrent.count() >= 0;
+    }
+
+    /**
+     * Record a primary key read as a query phase, and as a fetch phase when the document was found.
+     */
+    public void onPrimaryKeySearch(long tookInNanos, boolean found) {
+        totalStats.queryMetric.inc(tookInNanos);
+        totalStats.queryCurrent.dec();
+        assert totalStats.queryCurrent.count() >= 0;
+        if (found)
+            totalStats.fetchMetric.inc(0);
+    }
+
     public void clear() {
         totalStats.clear();
         synchronized (this) {
@@ -194,13 +231,16 @@ public final class ShardSearchStats implements SearchOperationListener {
         public final CounterMetric fetchCurrent = new CounterMetric();
         public final CounterMetric scrollCurrent = new CounterMetric();
         public final CounterMetric suggestCurrent = new CounterMetric();
+        public final CounterMetric fetchTokenOrdered = new CounterMetric();
+        public final CounterMetric fetchPrefetched = new CounterMetric();
 
         public SearchStats.Stats stats() {
             return new SearchStats.Stats(
                     queryMetric.count(), TimeUnit.NANOSECONDS.toMillis(queryMetric.sum()), queryCurrent.count(),
                     fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count(),
                     scrollMetric.count(), TimeUnit.NANOSECONDS.toMillis(scrollMetric.sum()), scrollCurrent.count(),
-                    suggestMetric.count(), TimeUnit.NANOSECONDS.toMillis(suggestMetric.sum()), suggestCurrent.count()
+                    suggestMetric.count(), TimeUnit.NANOSECONDS.toMillis(suggestMetric.sum()), suggestCurrent.count(),
+                    fetchTokenOrdered.count(), fetchPrefetched.count()
             );
         }
 
@@ -213,6 +253,8 @@ public final class ShardSearchStats implements SearchOperationListener {
             fetchMetric.clear();
             scrollMetric.clear();
             suggestMetric.clear();
+            fetchTokenOrdered.dec(fetchTokenOrdered.count());
+            fetchPrefetched.dec(fetchPrefetched.count());
         }
     }
 }
@@ -25,18 +25,25 @@ import org.apache.cassandra.dht.Token;
 import org.apache.cassandra.utils.Pair;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.codecs.PostingsFormat;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.CheckIndex;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.KeepOnlyLastCommitDeletionPolicy;
 import org.apache.lucene.index.SnapshotDeletionPolicy;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.ThreadInterruptedException;
 import org.elassandra.cluster.routing.AbstractSearchStrategy;
+import org.elassandra.index.ElasticSecondaryIndex;
 import org.elassandra.util.ConcurrentReferenceHashMap;
 import org.elassandra.util.ConcurrentReferenceHashMap.ReferenceType;
 import org.elasticsearch.ElasticsearchException;
@@ -63,6 +70,7 @@ import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.logging.LoggerMessageFormat;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
@@ -93,6 +101,7 @@ import org.elasticsearch.index.engine.SegmentsStats;
 import org.elasticsearch.index.fielddata.FieldDataStats;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
 import org.elasticsearch.index.fielddata.ShardFieldData;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
 import org.elasticsearch.index.flush.FlushStats;
 import org.elasticsearch.index.get.GetStats;
 import org.elasticsearch.index.get.ShardGetService;
@@ -138,6 +147,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -221,6 +231,11 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     // a relocated shard can also be target of a replication if the relocation target has not been marked as active yet and is syncing it's changes back to the relocation source
     private static final EnumSet<IndexShardState> writeAllowedStatesForReplica = EnumSet.of(IndexShardState.RECOVERING, IndexShardState.POST_RECOVERY, IndexShardState.STARTED, IndexShardState.RELOCATED);
 
+    /**
+     * Maximum number of expired documents handled by a TTL purge run.
+     */
+    public static final int TTL_PURGE_BATCH_SIZE = Integer.getInteger(ClusterService.SYSTEM_PREFIX + "ttl_purge_batch_size", 1000);
+
     private final IndexSearcherWrapper searcherWrapper;
     /**
      * True if this shard is still indexing (recently) and false if we've been idle for long enough (as periodically checked by {@link
@@ -738,6 +753,52 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         }
     }
 
+    /**
+     * Deletes documents of cassandra rows expired at nowInSec, found with a points range query on the {@link ElasticSecondaryIndex#EXPIRE_FIELD}.
+     * Each run handles at most {@link #TTL_PURGE_BATCH_SIZE} documents, the ones with the oldest expiration time first.
+     * The local cassandra row is checked again before deleting a document, because a later write of a column not mapped
+     * in elasticsearch does not update the document expiration time. The partitions of rows still alive are re-indexed to
+     * update the expiration time of their documents, so that they are not matched again by the next runs.
+     * @return the number of deleted documents.
+     */
+    public int purgeExpiredDocuments(int nowInSec) throws IOException {
+        verifyNotClosed();
+        final Query query = LongPoint.newRangeQuery(ElasticSecondaryIndex.EXPIRE_FIELD, Long.MIN_VALUE, nowInSec);
+        final Sort sort = new Sort(new SortField(ElasticSecondaryIndex.EXPIRE_FIELD, SortField.Type.LONG));
+        final List<Uid> expired = new ArrayList<>();
+        try (Engine.Searcher searcher = acquireSearcher("ttl_purge")) {
+            TopDocs topDocs = searcher.searcher().search(query, TTL_PURGE_BATCH_SIZE, sort);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                FieldsVisitor visitor = new FieldsVisitor(false);
+                searcher.searcher().doc(scoreDoc.doc, visitor);
+                expired.add(visitor.uid());
+            }
+        }
+        if (expired.isEmpty())
+            return 0;
+        
+        if (logger.isTraceEnabled())
+            logger.trace("purge {} documents expired before [{}]", expired.size(), nowInSec);
+        final boolean versionLessEngine = IndexMetaData.isIndexUsingVersionLessEngine(indexSettings.getSettings());
+        final Map<String, List<String>> alive = new HashMap<>();
+        int deleted = 0;
+        for (Uid uid : expired) {
+            if (clusterService.rowExistsInternal(this.indexService, uid.type(), uid.id())) {
+                if (logger.isDebugEnabled())
+                    logger.debug("row type={} id={} still alive, re-indexing its partition", uid.type(), uid.id());
+                alive.computeIfAbsent(uid.type(), k -> new ArrayList<>()).add(uid.id());
+                continue;
+            }
+            delete(prepareDeleteOnPrimary(uid.type(), uid.id(), 
+                    versionLessEngine ? 1L : Versions.MATCH_ANY, 
+                    versionLessEngine ? VersionType.EXTERNAL : VersionType.INTERNAL));
+            deleted++;
+        }
+        for (Map.Entry<String, List<String>> entry : alive.entrySet())
+            clusterService.reindexPartitionsInternal(this.indexService, entry.getKey(), entry.getValue());
+        return deleted;
+    }
+
     /**
      * Returns how many bytes we are currently moving from heap to disk
      */
@@ -26,6 +26,7 @@ import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.OffHeapBytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.cache.CacheLoader;
@@ -58,6 +59,10 @@ import java.util.function.Supplier;
  * Currently, the cache is only enabled for count requests, and can only be opted in on an index
  * level setting that can be dynamically changed and defaults to false.
  * <p>
+ * When <code>indices.requests.cache.off_heap.size</code> is set, cached responses are stored in native memory
+ * and this size replaces <code>indices.requests.cache.size</code> as the cache limit, only keys remain on heap.
+ * Hits are served from an on-heap copy of the cached bytes.
+ * <p>
  * There are still several TODOs left in this class, some easily addressable, some more complex, but the support
  * is functional.
  */
@@ -74,18 +79,23 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
         Setting.memorySizeSetting("indices.requests.cache.size", "1%", Property.NodeScope);
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE =
         Setting.positiveTimeSetting("indices.requests.cache.expire", new TimeValue(0), Property.NodeScope);
+    public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_OFF_HEAP_SIZE =
+        Setting.byteSizeSetting("indices.requests.cache.off_heap.size", new ByteSizeValue(0), Property.NodeScope);
 
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final ByteSizeValue size;
     private final TimeValue expire;
+    private final boolean offHeap;
     private final Cache<Key, BytesReference> cache;
 
     IndicesRequestCache(Settings settings) {
         super(settings);
         this.size = INDICES_CACHE_QUERY_SIZE.get(settings);
         this.expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
-        long sizeInBytes = size.getBytes();
+        long offHeapSizeInBytes = INDICES_CACHE_QUERY_OFF_HEAP_SIZE.get(settings).getBytes();
+        this.offHeap = offHeapSizeInBytes > 0;
+        long sizeInBytes = offHeap ? offHeapSizeInBytes : size.getBytes();
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
             .setMaximumWeight(sizeInBytes).weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed()).removalListener(this);
         if (expire != null) {
@@ -107,14 +117,18 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
     @Override
     public void onRemoval(RemovalNotification<Key, BytesReference> notification) {
         notification.getKey().entity.onRemoval(notification);
+        if (notification.getValue() instanceof OffHeapBytesReference) {
+            ((OffHeapBytesReference) notification.getValue()).close();
+        }
     }
 
     BytesReference getOrCompute(CacheEntity cacheEntity, Supplier<BytesReference> loader,
             DirectoryReader reader, BytesReference cacheKey) throws Exception {
         final Key key =  new Key(cacheEntity, reader.getVersion(), cacheKey);
-        Loader cacheLoader = new Loader(cacheEntity, loader);
+        Loader cacheLoader = new Loader(cacheEntity, loader, offHeap);
         BytesReference value = cache.computeIfAbsent(key, cacheLoader);
         if (cacheLoader.isLoaded()) {
+            value = cacheLoader.loadedValue();
             key.entity.onMiss();
             // see if its the first time we see this reader, and make sure to register a cleanup key
             CleanupKey cleanupKey = new CleanupKey(cacheEntity, reader.getVersion());
@@ -126,6 +140,11 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
             }
         } else {
             key.entity.onHit();
+            if (value instanceof OffHeapBytesReference) {
+                BytesReference copy = ((OffHeapBytesReference) value).copy();
+                // released by a concurrent eviction, compute without caching
+                value = (copy == null) ? loader.get() : copy;
+            }
         }
         return value;
     }
@@ -144,20 +163,31 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
 
         private final CacheEntity entity;
         private final Supplier<BytesReference> loader;
+        private final boolean offHeap;
         private boolean loaded;
+        private BytesReference loadedValue;
 
-        Loader(CacheEntity entity, Supplier<BytesReference> loader) {
+        Loader(CacheEntity entity, Supplier<BytesReference> loader, boolean offHeap) {
             this.entity = entity;
             this.loader = loader;
+            this.offHeap = offHeap;
         }
 
         public boolean isLoaded() {
             return this.loaded;
         }
 
+        /**
+         * The on-heap loaded value, the cached value may be an off-heap copy.
+         */
+        public BytesReference loadedValue() {
+            return this.loadedValue;
+        }
+
         @Override
         public BytesReference load(Key key) throws Exception {
-            BytesReference value = loader.get();
+            loadedValue = loader.get();
+            BytesReference value = offHeap ? new OffHeapBytesReference(loadedValue) : loadedValue;
             entity.onCached(key, value);
             loaded = true;
             return value;
@@ -27,6 +27,7 @@ import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elassandra.cluster.routing.RingSnapshot;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.action.admin.indices.stats.CommonStats;
@@ -545,6 +546,8 @@ public class IndicesService extends AbstractLifecycleComponent
             if (reason == IndexRemovalReason.DELETED) {
                 // now we are done - try to wipe data on disk if possible
                 deleteIndexStore(extraInfo, indexService.index(), indexSettings);
+                // the ring snapshot is rebuilt by the next router of the keyspace, if any.
+                RingSnapshot.invalidate(indexService.keyspace());
             }
         } catch (Exception e) {
             logger.warn((Supplier<?>) () -> new ParameterizedMessage("failed to remove index {} ([{}][{}])", index, reason, extraInfo), e);
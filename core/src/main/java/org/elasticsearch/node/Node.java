@@ -486,7 +486,7 @@ public class Node implements Closeable {
                         threadPool, scriptModule.getScriptService(), bigArrays, searchModule.getFetchPhase()));
                     b.bind(SearchTransportService.class).toInstance(searchTransportService);
                     b.bind(SearchPhaseController.class).toInstance(new SearchPhaseController(settings, bigArrays,
-                            scriptModule.getScriptService()));
+                            scriptModule.getScriptService(), threadPool));
                     b.bind(Transport.class).toInstance(transport);
                     b.bind(TransportService.class).toInstance(transportService);
                     b.bind(NetworkService.class).toInstance(networkService);
@@ -22,6 +22,7 @@ package org.elasticsearch.rest.action.search;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -112,6 +113,9 @@ public class RestSearchAction extends BaseRestHandler {
         parseSearchSource(searchRequest.source(), request);
         searchRequest.requestCache(request.paramAsBoolean("request_cache", null));
         searchRequest.tokenRangesBitsetCache(request.paramAsBoolean("token_ranges_bitset_cache", null));
+        if (request.hasParam(ClusterService.DOCVALUES_FETCH)) {
+            searchRequest.docValuesFetch(request.paramAsBoolean(ClusterService.DOCVALUES_FETCH, false));
+        }
 
         String scroll = request.param("scroll");
         if (scroll != null) {
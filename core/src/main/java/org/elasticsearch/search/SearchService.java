@@ -524,6 +524,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
         final DefaultSearchContext searchContext = new DefaultSearchContext(idGenerator.incrementAndGet(), request, shardTarget,
             engineSearcher, indexService, indexShard, bigArrays, threadPool.estimatedTimeInMillisCounter(), timeout, fetchPhase);
+        final int searchConcurrency = indexService.getIndexSettings().getSearchConcurrency();
+        if (searchConcurrency > 1) {
+            searchContext.searcher().setSliceExecutor(threadPool.executor(Names.SEARCH_SLICE), searchConcurrency);
+        }
         boolean success = false;
         try {
             // we clone the query shard context here just for rewriting otherwise we
@@ -812,6 +816,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return this.activeContexts.size();
     }
 
+    public FetchPhase getFetchPhase() {
+        return this.fetchPhase;
+    }
+
     class Reaper implements Runnable {
         @Override
         public void run() {
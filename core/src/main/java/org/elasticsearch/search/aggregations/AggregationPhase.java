@@ -75,6 +75,25 @@ public class AggregationPhase implements SearchPhase {
         }
     }
 
+    /**
+     * Creates the top level aggregators of an additional segment slice searched concurrently, and returns their collector.
+     * The first slice is collected by the aggregators created in {@link #preProcess(SearchContext)}. The post collection of
+     * the slice collectors, including the one of the first slice, is up to the caller, on the thread that searched the slice.
+     */
+    public static BucketCollector createSliceCollector(SearchContext context) throws IOException {
+        Aggregator[] aggregators = context.aggregations().factories().createTopLevelAggregators();
+        context.aggregations().addSliceAggregators(aggregators);
+        List<Aggregator> collectors = new ArrayList<>();
+        for (int i = 0; i < aggregators.length; i++) {
+            if (aggregators[i] instanceof GlobalAggregator == false) {
+                collectors.add(aggregators[i]);
+            }
+        }
+        BucketCollector collector = BucketCollector.wrap(collectors);
+        collector.preCollection();
+        return collector;
+    }
+
     @Override
     public void execute(SearchContext context) {
         if (context.aggregations() == null) {
@@ -122,11 +141,28 @@ public class AggregationPhase implements SearchPhase {
             }
         }
 
+        List<Aggregator[]> sliceAggregators = context.aggregations().sliceAggregators();
         List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
-        for (Aggregator aggregator : context.aggregations().aggregators()) {
+        for (int i = 0; i < aggregators.length; i++) {
+            Aggregator aggregator = aggregators[i];
             try {
-                aggregator.postCollection();
-                aggregations.add(aggregator.buildAggregation(0));
+                // segment slices collected concurrently were post collected by their searching thread
+                final boolean sliced = sliceAggregators.isEmpty() == false && aggregator instanceof GlobalAggregator == false;
+                if (sliced == false) {
+                    aggregator.postCollection();
+                }
+                InternalAggregation aggregation = aggregator.buildAggregation(0);
+                if (sliced) {
+                    // shard-level partial reduce of the segment slices collected concurrently
+                    List<InternalAggregation> slices = new ArrayList<>(sliceAggregators.size() + 1);
+                    slices.add(aggregation);
+                    for (Aggregator[] slice : sliceAggregators) {
+                        slices.add(slice[i].buildAggregation(0));
+                    }
+                    // scripts only run on the final reduce
+                    aggregation = aggregation.reduce(slices, new InternalAggregation.ReduceContext(context.bigArrays(), null, false));
+                }
+                aggregations.add(aggregation);
             } catch (IOException e) {
                 throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
             }
@@ -236,6 +236,19 @@ public class AggregatorFactories {
         return aggregators;
     }
 
+    /**
+     * @return true if all the factories and their sub-factories support concurrent collection of segment slices,
+     *         see {@link AggregatorFactory#supportsConcurrentCollection()}
+     */
+    public boolean supportsConcurrentCollection() {
+        for (AggregatorFactory<?> factory : factories) {
+            if (factory.supportsConcurrentCollection() == false || factory.factories.supportsConcurrentCollection() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return the number of sub-aggregator factories not including pipeline
      *         aggregator factories
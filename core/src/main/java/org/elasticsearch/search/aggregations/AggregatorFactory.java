@@ -225,6 +225,15 @@ public abstract class AggregatorFactory<AF extends AggregatorFactory<AF>> {
         return parent;
     }
 
+    /**
+     * @return true if the aggregators of this factory can be created once per segment slice of a shard, collected
+     *         concurrently and merged by a partial reduce of their results. Aggregators pruning their buckets when
+     *         building the shard result (such as <code>shard_size</code>) must not be collected per slice.
+     */
+    public boolean supportsConcurrentCollection() {
+        return false;
+    }
+
     /**
      * Utility method. Given an {@link AggregatorFactory} that creates
      * {@link Aggregator}s that only know how to collect bucket <tt>0</tt>, this
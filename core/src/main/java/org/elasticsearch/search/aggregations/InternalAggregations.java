@@ -60,6 +60,21 @@ public final class InternalAggregations extends Aggregations implements ToXConte
         }
 
         // first we collect all aggregations of the same type and list them together
+        Map<String, List<InternalAggregation>> aggByName = groupByName(aggregationsList);
+
+        // now we can use the first aggregation of each list to handle the reduce of its list
+        List<InternalAggregation> reducedAggregations = new ArrayList<>();
+        for (Map.Entry<String, List<InternalAggregation>> entry : aggByName.entrySet()) {
+            reducedAggregations.add(reduceGroup(entry.getValue(), context));
+        }
+        return new InternalAggregations(reducedAggregations);
+    }
+
+    /**
+     * Lists together the aggregations having the same name, each list being reduced independently of the others
+     * by {@link #reduceGroup(List, ReduceContext)}.
+     */
+    public static Map<String, List<InternalAggregation>> groupByName(List<InternalAggregations> aggregationsList) {
         Map<String, List<InternalAggregation>> aggByName = new HashMap<>();
         for (InternalAggregations aggregations : aggregationsList) {
             for (Aggregation aggregation : aggregations.aggregations) {
@@ -68,15 +83,15 @@ public final class InternalAggregations extends Aggregations implements ToXConte
                 aggs.add((InternalAggregation)aggregation);
             }
         }
+        return aggByName;
+    }
 
-        // now we can use the first aggregation of each list to handle the reduce of its list
-        List<InternalAggregation> reducedAggregations = new ArrayList<>();
-        for (Map.Entry<String, List<InternalAggregation>> entry : aggByName.entrySet()) {
-            List<InternalAggregation> aggregations = entry.getValue();
-            InternalAggregation first = aggregations.get(0); // the list can't be empty as it's created on demand
-            reducedAggregations.add(first.reduce(aggregations, context));
-        }
-        return new InternalAggregations(reducedAggregations);
+    /**
+     * Reduces a non empty list of aggregations having the same name.
+     */
+    public static InternalAggregation reduceGroup(List<InternalAggregation> aggregations, ReduceContext context) {
+        InternalAggregation first = aggregations.get(0); // the list can't be empty as it's created on demand
+        return first.reduce(aggregations, context);
     }
 
     public static InternalAggregations readAggregations(StreamInput in) throws IOException {
@@ -18,6 +18,9 @@
  */
 package org.elasticsearch.search.aggregations;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The aggregation context that is part of the search context.
  */
@@ -25,6 +28,7 @@ public class SearchContextAggregations {
 
     private final AggregatorFactories factories;
     private Aggregator[] aggregators;
+    private final List<Aggregator[]> sliceAggregators = new ArrayList<>();
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -50,4 +54,19 @@ public class SearchContextAggregations {
         this.aggregators = aggregators;
     }
 
+    /**
+     * @return the top level aggregators of the additional segment slices searched concurrently, their results are
+     *         reduced with the results of {@link #aggregators()}.
+     */
+    public List<Aggregator[]> sliceAggregators() {
+        return sliceAggregators;
+    }
+
+    /**
+     * Registers the top level aggregators of an additional segment slice.
+     */
+    public void addSliceAggregators(Aggregator[] aggregators) {
+        this.sliceAggregators.add(aggregators);
+    }
+
 }
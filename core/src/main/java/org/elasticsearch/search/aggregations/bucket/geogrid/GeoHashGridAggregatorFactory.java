@@ -52,6 +52,12 @@ public class GeoHashGridAggregatorFactory extends ValuesSourceAggregatorFactory<
         this.shardSize = shardSize;
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // shard_size prunes the buckets of the shard, not of a segment slice
+        return false;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData)
             throws IOException {
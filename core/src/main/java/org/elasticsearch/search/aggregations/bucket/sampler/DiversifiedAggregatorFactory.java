@@ -52,6 +52,12 @@ public class DiversifiedAggregatorFactory extends ValuesSourceAggregatorFactory<
         this.executionHint = executionHint;
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // the shard_size sample is taken per shard, not per slice
+        return false;
+    }
+
     @Override
     protected Aggregator doCreateInternal(ValuesSource valuesSource, Aggregator parent, boolean collectsFromSingleBucket,
             List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
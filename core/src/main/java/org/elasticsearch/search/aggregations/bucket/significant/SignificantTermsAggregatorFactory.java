@@ -159,6 +159,12 @@ public class SignificantTermsAggregatorFactory extends ValuesSourceAggregatorFac
         return getBackgroundFrequency(value);
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // the superset size and background frequencies are shard-level statistics, they can not be summed per slice
+        return false;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData)
             throws IOException {
@@ -72,6 +72,12 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
         this.showTermDocCountError = showTermDocCountError;
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // shard_size and shard_min_doc_count prune the buckets of the shard, not of a segment slice
+        return false;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData)
             throws IOException {
@@ -19,9 +19,12 @@
 
 package org.elasticsearch.search.aggregations.metrics;
 
+import org.apache.lucene.util.Bits;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorBase;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -30,9 +33,97 @@ import java.util.List;
 import java.util.Map;
 
 public abstract class MetricsAggregator extends AggregatorBase {
-    
+
+    // block collector of the current leaf, if any
+    private BlockCollector blockCollector;
+
     protected MetricsAggregator(String name, SearchContext context, Aggregator parent, List<PipelineAggregator> pipelineAggregators,
             Map<String, Object> metaData) throws IOException {
         super(name, AggregatorFactories.EMPTY, context, parent, pipelineAggregators, metaData);
     }
+
+    /**
+     * Collects the documents still buffered by the block collector of the previous leaf. Aggregators using
+     * {@link BlockCollector}s must call it first when a new leaf collector is requested.
+     */
+    protected final void flushBlocks() throws IOException {
+        if (blockCollector != null) {
+            blockCollector.flush();
+            blockCollector = null;
+        }
+    }
+
+    /**
+     * Registers the block collector of the current leaf, flushed when the next leaf starts or on post collection.
+     */
+    protected final LeafBucketCollector blockCollector(BlockCollector collector) throws IOException {
+        flushBlocks();
+        this.blockCollector = collector;
+        return collector;
+    }
+
+    @Override
+    protected void doPostCollection() throws IOException {
+        flushBlocks();
+    }
+
+    /**
+     * A leaf collector for single-valued numeric fields. It buffers the documents collected in a same bucket, and reads their
+     * values by blocks with {@link NumericDoubleValues#get(int[], int, double[])} so that metrics are computed in a tight
+     * loop over the values of a block rather than through a per document multi-valued iteration.
+     */
+    protected abstract static class BlockCollector extends LeafBucketCollector {
+
+        static final int BLOCK_SIZE = 256;
+
+        private final NumericDoubleValues values;
+        private final Bits docsWithField;
+        private final int[] docs = new int[BLOCK_SIZE];
+        private final double[] blockValues = new double[BLOCK_SIZE];
+        private int count = 0;
+        private long bucket = -1;
+
+        /**
+         * @param values        the single-valued doc values
+         * @param docsWithField the documents having a value, null if all documents have a value
+         */
+        protected BlockCollector(NumericDoubleValues values, Bits docsWithField) {
+            this.values = values;
+            this.docsWithField = (docsWithField instanceof Bits.MatchAllBits) ? null : docsWithField;
+        }
+
+        @Override
+        public final void collect(int doc, long bucket) throws IOException {
+            if (bucket != this.bucket || count == BLOCK_SIZE) {
+                flush();
+                this.bucket = bucket;
+            }
+            docs[count++] = doc;
+        }
+
+        final void flush() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            values.get(docs, count, blockValues);
+            int valuesCount = count;
+            if (docsWithField != null) {
+                valuesCount = 0;
+                for (int i = 0; i < count; i++) {
+                    if (docsWithField.get(docs[i])) {
+                        blockValues[valuesCount++] = blockValues[i];
+                    }
+                }
+            }
+            count = 0;
+            if (valuesCount > 0) {
+                collectBlock(bucket, blockValues, valuesCount);
+            }
+        }
+
+        /**
+         * Collects the values of {@code count} documents of a bucket, documents without value are skipped.
+         */
+        protected abstract void collectBlock(long bucket, double[] values, int count) throws IOException;
+    }
 }
@@ -23,6 +23,8 @@ import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
@@ -69,11 +71,28 @@ public class AvgAggregator extends NumericMetricsAggregator.SingleValue {
     @Override
     public LeafBucketCollector getLeafCollector(LeafReaderContext ctx,
             final LeafBucketCollector sub) throws IOException {
+        flushBlocks();
         if (valuesSource == null) {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
         final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+        final NumericDoubleValues singleton = FieldData.unwrapSingleton(values);
+        if (singleton != null) {
+            return blockCollector(new BlockCollector(singleton, FieldData.unwrapSingletonBits(values)) {
+                @Override
+                protected void collectBlock(long bucket, double[] values, int count) {
+                    counts = bigArrays.grow(counts, bucket + 1);
+                    sums = bigArrays.grow(sums, bucket + 1);
+                    double sum = 0;
+                    for (int i = 0; i < count; i++) {
+                        sum += values[i];
+                    }
+                    counts.increment(bucket, count);
+                    sums.increment(bucket, sum);
+                }
+            });
+        }
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -23,6 +23,8 @@ import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
 import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
@@ -78,24 +80,37 @@ public class StatsAggregator extends NumericMetricsAggregator.MultiValue {
     @Override
     public LeafBucketCollector getLeafCollector(LeafReaderContext ctx,
             final LeafBucketCollector sub) throws IOException {
+        flushBlocks();
         if (valuesSource == null) {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
-        final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+        final NumericDoubleValues singleton = FieldData.unwrapSingleton(values);
+        if (singleton != null) {
+            return blockCollector(new BlockCollector(singleton, FieldData.unwrapSingletonBits(values)) {
+                @Override
+                protected void collectBlock(long bucket, double[] values, int count) {
+                    grow(bucket);
+                    double sum = 0;
+                    double min = mins.get(bucket);
+                    double max = maxes.get(bucket);
+                    for (int i = 0; i < count; i++) {
+                        double value = values[i];
+                        sum += value;
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                    counts.increment(bucket, count);
+                    sums.increment(bucket, sum);
+                    mins.set(bucket, min);
+                    maxes.set(bucket, max);
+                }
+            });
+        }
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
-                if (bucket >= counts.size()) {
-                    final long from = counts.size();
-                    final long overSize = BigArrays.overSize(bucket + 1);
-                    counts = bigArrays.resize(counts, overSize);
-                    sums = bigArrays.resize(sums, overSize);
-                    mins = bigArrays.resize(mins, overSize);
-                    maxes = bigArrays.resize(maxes, overSize);
-                    mins.fill(from, overSize, Double.POSITIVE_INFINITY);
-                    maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
-                }
+                grow(bucket);
 
                 values.setDocument(doc);
                 final int valuesCount = values.count();
@@ -116,6 +131,20 @@ public class StatsAggregator extends NumericMetricsAggregator.MultiValue {
         };
     }
 
+    private void grow(long bucket) {
+        if (bucket >= counts.size()) {
+            final BigArrays bigArrays = context.bigArrays();
+            final long from = counts.size();
+            final long overSize = BigArrays.overSize(bucket + 1);
+            counts = bigArrays.resize(counts, overSize);
+            sums = bigArrays.resize(sums, overSize);
+            mins = bigArrays.resize(mins, overSize);
+            maxes = bigArrays.resize(maxes, overSize);
+            mins.fill(from, overSize, Double.POSITIVE_INFINITY);
+            maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
+        }
+    }
+
     @Override
     public boolean hasMetric(String name) {
         try {
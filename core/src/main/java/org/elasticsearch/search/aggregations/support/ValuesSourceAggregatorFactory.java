@@ -45,6 +45,12 @@ public abstract class ValuesSourceAggregatorFactory<VS extends ValuesSource, AF
         return config.timezone();
         }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // scripts share the search lookup of the context, which is not thread safe
+        return config.script() == null;
+    }
+
     @Override
     public Aggregator createInternal(Aggregator parent, boolean collectsFromSingleBucket,
             List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
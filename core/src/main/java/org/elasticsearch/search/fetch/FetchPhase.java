@@ -19,8 +19,9 @@
 
 package org.elasticsearch.search.fetch;
 
+import org.apache.cassandra.concurrent.Stage;
+import org.apache.cassandra.concurrent.StageManager;
 import org.apache.cassandra.cql3.QueryOptions;
-import org.apache.cassandra.cql3.QueryProcessor;
 import org.apache.cassandra.cql3.ResultSet;
 import org.apache.cassandra.cql3.UntypedResultSet;
 import org.apache.cassandra.cql3.UntypedResultSet.Row;
@@ -29,15 +30,18 @@ import org.apache.cassandra.db.ConsistencyLevel;
 import org.apache.cassandra.service.ClientState;
 import org.apache.cassandra.service.QueryState;
 import org.apache.cassandra.transport.messages.ResultMessage;
-import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.InPlaceMergeSorter;
 import org.elassandra.index.mapper.internal.NodeFieldMapper;
+import org.elassandra.index.mapper.internal.TokenFieldMapper;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -45,6 +49,7 @@ import org.elasticsearch.cluster.service.ClusterService.DocPrimaryKey;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.text.Text;
@@ -63,6 +68,7 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhase;
+import org.elasticsearch.search.fetch.subphase.DocValueFieldsContext;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.fetch.subphase.InnerHitsFetchSubPhase;
 import org.elasticsearch.search.internal.SearchContext;
@@ -78,6 +84,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.contentBuilder;
 
@@ -106,7 +113,7 @@ public class FetchPhase implements SearchPhase {
 
     @Override
     public void execute(SearchContext context) {
-        final FieldsVisitor fieldsVisitor;
+        FieldsVisitor fieldsVisitor;
         Set<String> fieldNames = null;
         List<String> fieldNamePatterns = null;
         StoredFieldsContext storedFieldsContext = context.storedFieldsContext();
@@ -157,34 +164,75 @@ public class FetchPhase implements SearchPhase {
             }
         }
 
+        if (fieldsVisitor != null) {
+            Set<String> docValueFields = docValueFields(context, fieldNames, fieldNamePatterns);
+            if (docValueFields != null) {
+                // requested fields are all pulled from lucene doc values, only the _uid is loaded for each hit.
+                if (docValueFields.size() > 0) {
+                    List<String> fields = new ArrayList<>(docValueFields);
+                    if (context.docValueFieldsContext() != null) {
+                        for(String field : context.docValueFieldsContext().fields())
+                            if (!docValueFields.contains(field))
+                                fields.add(field);
+                    }
+                    context.docValueFieldsContext(new DocValueFieldsContext(fields));
+                }
+                fieldNames = null;
+                fieldNamePatterns = null;
+                fieldsVisitor = new FieldsVisitor(false);
+            }
+        }
+
+        final int[] loadOrder;
+        try {
+            loadOrder = (fieldsVisitor == null) ? null : tokenOrder(context);
+        } catch (IOException e) {
+            throw ExceptionsHelper.convertToElastic(e);
+        }
+        if (loadOrder != null)
+            context.indexShard().shardShearchStats().onTokenOrderedFetch(context, loadOrder.length);
+
+        final int prefetch = context.indexShard().indexSettings().getScrollPrefetch();
+        final RowPrefetcher prefetcher = (fieldsVisitor != null && context.scrollContext() != null && prefetch > 0 && context.docIdsToLoadSize() > 1) ?
+                new RowPrefetcher(context, fieldsVisitor, loadOrder, prefetch) : null;
+
         SearchHit[] hits = new SearchHit[context.docIdsToLoadSize()];
         FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
-        for (int index = 0; index < context.docIdsToLoadSize(); index++) {
-            if(context.isCancelled()) {
-                throw new TaskCancelledException("cancelled");
-            }
-            int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
-            int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
-            LeafReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
-            int subDocId = docId - subReaderContext.docBase;
+        try {
+            for (int i = 0; i < context.docIdsToLoadSize(); i++) {
+                if(context.isCancelled()) {
+                    throw new TaskCancelledException("cancelled");
+                }
+                // submit the next cassandra reads before building the hit.
+                Future<ResultMessage> prefetched = (prefetcher == null) ? null : prefetcher.get(i);
+                // hits are loaded in token order if requested, but kept in score order.
+                int index = (loadOrder == null) ? i : loadOrder[i];
+                int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
+                int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
+                LeafReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
+                int subDocId = docId - subReaderContext.docBase;
 
-            final SearchHit searchHit;
-            try {
-                int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
-                if (rootDocId != -1) {
-                    searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId, fieldNames, fieldNamePatterns, subReaderContext);
-                } else {
-                    searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId, subReaderContext);
+                final SearchHit searchHit;
+                try {
+                    int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
+                    if (rootDocId != -1) {
+                        searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId, fieldNames, fieldNamePatterns, subReaderContext);
+                    } else {
+                        searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId, subReaderContext, prefetched);
+                    }
+                } catch (IOException e) {
+                    throw ExceptionsHelper.convertToElastic(e);
                 }
-            } catch (IOException e) {
-                throw ExceptionsHelper.convertToElastic(e);
-            }
 
-            hits[index] = searchHit;
-            hitContext.reset(searchHit, subReaderContext, subDocId, context.searcher());
-            for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
-                fetchSubPhase.hitExecute(context, hitContext);
+                hits[index] = searchHit;
+                hitContext.reset(searchHit, subReaderContext, subDocId, context.searcher());
+                for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
+                    fetchSubPhase.hitExecute(context, hitContext);
+                }
             }
+        } finally {
+            if (prefetcher != null)
+                prefetcher.close();
         }
 
         for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
@@ -194,6 +242,78 @@ public class FetchPhase implements SearchPhase {
         context.fetchResult().hits(new SearchHits(hits, context.queryResult().getTotalHits(), context.queryResult().getMaxScore()));
     }
 
+    /**
+     * When docvalues_fetch is enabled (per request or by the index setting) and the hits can be built from the lucene segment only,
+     * returns the requested stored fields to pull from doc values, otherwise null.
+     */
+    protected Set<String> docValueFields(SearchContext context, Set<String> fieldNames, List<String> fieldNamePatterns) {
+        Boolean docValuesFetch = context.request().docValuesFetch();
+        if (docValuesFetch == null)
+            docValuesFetch = context.indexShard().indexSettings().isDocValuesFetch();
+        if (!docValuesFetch || context.sourceRequested() || context.highlight() != null || context.hasScriptFields())
+            return null;
+
+        Set<String> fields = new HashSet<>();
+        if (fieldNames != null)
+            fields.addAll(fieldNames);
+        if (fieldNamePatterns != null) {
+            for(String pattern : fieldNamePatterns)
+                fields.addAll(context.mapperService().simpleMatchToIndexNames(pattern));
+        }
+        for(String field : fields) {
+            MappedFieldType fieldType = context.smartNameFieldType(field);
+            if (fieldType == null || !fieldType.hasDocValues())
+                return null;
+        }
+        return fields;
+    }
+
+    /**
+     * When index.token_ordered_fetch is enabled, returns the hit indices ordered by partition token (from the _token doc values)
+     * then lucene doc id, so that cassandra reads are nearly sequential. Returns null to load hits in score order.
+     */
+    private int[] tokenOrder(SearchContext context) throws IOException {
+        final int size = context.docIdsToLoadSize();
+        if (size < 2 || !context.indexShard().indexSettings().isTokenOrderedFetch())
+            return null;
+
+        final List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+        final SortedNumericDocValues[] tokenValues = new SortedNumericDocValues[leaves.size()];
+        final long[] tokens = new long[size];
+        final int[] docIds = new int[size];
+        for (int index = 0; index < size; index++) {
+            int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
+            int readerIndex = ReaderUtil.subIndex(docId, leaves);
+            LeafReaderContext leaf = leaves.get(readerIndex);
+            if (tokenValues[readerIndex] == null)
+                tokenValues[readerIndex] = DocValues.getSortedNumeric(leaf.reader(), TokenFieldMapper.NAME);
+            SortedNumericDocValues values = tokenValues[readerIndex];
+            values.setDocument(docId - leaf.docBase);
+            // nested documents have no token, keep them first.
+            tokens[index] = (values.count() > 0) ? values.valueAt(0) : Long.MIN_VALUE;
+            docIds[index] = docId;
+        }
+
+        final int[] order = new int[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        new InPlaceMergeSorter() {
+            @Override
+            protected int compare(int i, int j) {
+                int cmp = Long.compare(tokens[order[i]], tokens[order[j]]);
+                return (cmp != 0) ? cmp : Integer.compare(docIds[order[i]], docIds[order[j]]);
+            }
+
+            @Override
+            protected void swap(int i, int j) {
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+        }.sort(0, size);
+        return order;
+    }
+
     private int findRootDocumentIfNested(SearchContext context, LeafReaderContext subReaderContext, int subDocId) throws IOException {
         if (context.mapperService().hasNested()) {
             BitSet bits = context.bitsetFilterCache().getBitSetProducer(Queries.newNonNestedFilter()).getBitSet(subReaderContext);
@@ -205,10 +325,15 @@ public class FetchPhase implements SearchPhase {
     }
 
     protected SearchHit createSearchHit(SearchContext context, FieldsVisitor fieldsVisitor, int docId, int subDocId, LeafReaderContext subReaderContext) {
+        return createSearchHit(context, fieldsVisitor, docId, subDocId, subReaderContext, null);
+    }
+
+    private SearchHit createSearchHit(SearchContext context, FieldsVisitor fieldsVisitor, int docId, int subDocId, LeafReaderContext subReaderContext,
+            Future<ResultMessage> prefetched) {
         if (fieldsVisitor == null) {
             return new SearchHit(docId);
         }
-        loadStoredFields(context, subReaderContext, fieldsVisitor, subDocId);
+        loadStoredFields(context, subReaderContext, fieldsVisitor, subDocId, prefetched);
         fieldsVisitor.postProcess(context.mapperService());
 
         Map<String, SearchHitField> searchFields = null;
@@ -387,13 +512,10 @@ public class FetchPhase implements SearchPhase {
                     requiredColumns.add(SourceFieldMapper.NAME);
                 }
                 if (requiredColumns.size() > 0) {
-                    String query = clusterService.buildFetchQuery(
+                    // node level statement cache, shared by search contexts.
+                    cqlStatement = clusterService.fetchStatement(
                             indexService, fieldVisitor.uid().type(),
                             requiredColumns.toArray(new String[requiredColumns.size()]), staticDocument, docMapper.getColumnDefinitions());
-                    Logger logger = Loggers.getLogger(FetchPhase.class);
-                    if (logger.isTraceEnabled())
-                        logger.trace("new statement={}",query);
-                    cqlStatement = QueryProcessor.prepareInternal(query);
                     searchContext.putCqlPreparedStatement(typeKey, cqlStatement);
                 }
             }
@@ -405,11 +527,11 @@ public class FetchPhase implements SearchPhase {
         UntypedResultSet rs = UntypedResultSet.create(resultSet);
         if (!rs.isEmpty()) {
             Row row = rs.one();
-            Map<String, Object> mapObject = clusterService.rowAsMap(indexService, fieldVisitor.uid().type(), row);
-            if (searchContext.includeNode()) {
-                mapObject.put(NodeFieldMapper.NAME, clusterService.state().nodes().getLocalNodeId());
-            }
             if (fieldVisitor.requestedFields() != null && fieldVisitor.requestedFields().size() > 0) {
+                Map<String, Object> mapObject = clusterService.rowAsMap(indexService, fieldVisitor.uid().type(), row);
+                if (searchContext.includeNode()) {
+                    mapObject.put(NodeFieldMapper.NAME, clusterService.state().nodes().getLocalNodeId());
+                }
                 Map<String, List<Object>> flatMap = new HashMap<String, List<Object>>();
                 clusterService.flattenTree(fieldVisitor.requestedFields(), "", mapObject, flatMap);
                 for (String field :  fieldVisitor.requestedFields()) {
@@ -418,18 +540,32 @@ public class FetchPhase implements SearchPhase {
                 }
             }
             if (fieldVisitor.loadSource()) {
-                fieldVisitor.source( clusterService.source(indexService, searchContext.mapperService().documentMapper(fieldVisitor.uid().type()), mapObject, fieldVisitor.uid()) );
+                // serialize the row as _source without building a map.
+                String nodeId = searchContext.includeNode() ? clusterService.state().nodes().getLocalNodeId() : null;
+                fieldVisitor.source( clusterService.source(indexService, searchContext.mapperService().documentMapper(fieldVisitor.uid().type()), row, fieldVisitor.uid(), nodeId) );
             }
         }
     }
     
+    private static boolean readsCassandra(FieldsVisitor fieldVisitor) {
+        return fieldVisitor.loadSource() || (fieldVisitor.requestedFields() != null && !fieldVisitor.requestedFields().isEmpty());
+    }
+
     private void loadStoredFields(SearchContext searchContext, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, int docId) {
+        loadStoredFields(searchContext, readerContext, fieldVisitor, docId, null);
+    }
+
+    private void loadStoredFields(SearchContext searchContext, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, int docId, Future<ResultMessage> prefetched) {
         fieldVisitor.reset();
         try {
             readerContext.reader().document(docId, fieldVisitor);
         } catch (IOException e) {
             throw new FetchPhaseExecutionException(searchContext, "Failed to fetch doc id [" + docId + "]", e);
         }
+        if (!readsCassandra(fieldVisitor)) {
+            // nothing to read from cassandra
+            return;
+        }
         
         // load field from cassandra
         IndexService indexService = searchContext.indexShard().indexService();
@@ -441,7 +577,13 @@ public class FetchPhase implements SearchPhase {
             
             ParsedStatement.Prepared cqlStatement = getCqlPreparedStatement(searchContext, indexService, fieldVisitor, typeKey, docPk.isStaticDocument);
             if (cqlStatement != null) {
-                ResultMessage result = cqlStatement.statement.executeInternal(new QueryState(ClientState.forInternalCalls()), QueryOptions.forInternalCalls(ConsistencyLevel.ONE, docPk.serialize(cqlStatement)));
+                final ResultMessage result;
+                if (prefetched != null) {
+                    result = prefetched.get();
+                    searchContext.indexShard().shardShearchStats().onPrefetchedRead(searchContext);
+                } else {
+                    result = cqlStatement.statement.executeInternal(new QueryState(ClientState.forInternalCalls()), QueryOptions.forInternalCalls(ConsistencyLevel.ONE, docPk.serialize(cqlStatement)));
+                }
                 if (result instanceof ResultMessage.Rows) {
                     processCqlResultSet(searchContext, indexService, fieldVisitor, ((ResultMessage.Rows)result).result);
                 }
@@ -458,4 +600,75 @@ public class FetchPhase implements SearchPhase {
             throw new FetchPhaseExecutionException(searchContext, "Failed to fetch doc id [" + fieldVisitor.uid().id() + "] from cassandra", e);
         }
     }
+
+    /**
+     * Pipelined cassandra reads of a scroll page: while a hit is built, the reads of the next hits (in load order)
+     * are running on the cassandra read stage, with at most window reads submitted ahead of the current hit.
+     * Only reads of hits of the current page are pipelined, the next page is not prefetched, and the first hit
+     * of each page waits for its own read.
+     * Hits without a prefetched read (nested documents, failures) are read synchronously by {@link #loadStoredFields}.
+     */
+    private class RowPrefetcher implements Releasable {
+        private final SearchContext context;
+        private final FieldsVisitor fieldsVisitor;
+        private final int[] loadOrder;
+        private final int window;
+        private final List<Future<ResultMessage>> reads;
+
+        RowPrefetcher(SearchContext context, FieldsVisitor fieldsVisitor, int[] loadOrder, int window) {
+            this.context = context;
+            this.fieldsVisitor = fieldsVisitor;
+            this.loadOrder = loadOrder;
+            this.window = window;
+            this.reads = new ArrayList<>(context.docIdsToLoadSize());
+        }
+
+        /**
+         * Returns the read of the hit at the given load position, and submits the reads up to position + window.
+         * Resets the fields visitor, so it must be called before loading the hit stored fields.
+         */
+        Future<ResultMessage> get(int position) {
+            while (reads.size() < context.docIdsToLoadSize() && reads.size() <= position + window)
+                reads.add(submit(reads.size()));
+            return reads.set(position, null);
+        }
+
+        private Future<ResultMessage> submit(int position) {
+            int index = (loadOrder == null) ? position : loadOrder[position];
+            int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
+            int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
+            LeafReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
+            int subDocId = docId - subReaderContext.docBase;
+            try {
+                if (findRootDocumentIfNested(context, subReaderContext, subDocId) != -1)
+                    return null;
+                fieldsVisitor.reset();
+                subReaderContext.reader().document(subDocId, fieldsVisitor);
+                if (!readsCassandra(fieldsVisitor))
+                    return null;
+
+                IndexService indexService = context.indexShard().indexService();
+                DocPrimaryKey docPk = clusterService.parseElasticId(indexService, fieldsVisitor.uid().type(), fieldsVisitor.uid().id());
+                String typeKey = fieldsVisitor.uid().type();
+                if (docPk.isStaticDocument)
+                    typeKey += "_static";
+                ParsedStatement.Prepared cqlStatement = getCqlPreparedStatement(context, indexService, fieldsVisitor, typeKey, docPk.isStaticDocument);
+                if (cqlStatement == null)
+                    return null;
+                QueryOptions options = QueryOptions.forInternalCalls(ConsistencyLevel.ONE, docPk.serialize(cqlStatement));
+                return StageManager.getStage(Stage.READ).submit(() -> cqlStatement.statement.executeInternal(new QueryState(ClientState.forInternalCalls()), options));
+            } catch (Exception e) {
+                // the hit will be read synchronously and the error reported then.
+                return null;
+            }
+        }
+
+        @Override
+        public void close() {
+            for(Future<ResultMessage> read : reads) {
+                if (read != null)
+                    read.cancel(false);
+            }
+        }
+    }
 }
@@ -20,9 +20,12 @@
 package org.elasticsearch.search.internal;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermContext;
 import org.apache.lucene.search.CollectionStatistics;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -30,7 +33,10 @@ import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.concurrent.ParallelTasks;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.search.profile.Timer;
@@ -40,6 +46,10 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -58,6 +68,22 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
     // TODO revisit moving the profiler to inheritance or wrapping model in the future
     private QueryProfiler profiler;
 
+    // executor and maximum number of leaf slices of concurrent searches, see setSliceExecutor()
+    private Executor sliceExecutor;
+    private int concurrency = 1;
+
+    /**
+     * A {@link CollectorManager} that is notified when the collection of a slice of leaves is over.
+     */
+    public interface SliceCollectorManager<C extends Collector, T> extends CollectorManager<C, T> {
+
+        /**
+         * Called by the thread that searched the slice of the given collector, after all its leaves were collected
+         * and before {@link #reduce}.
+         */
+        void postCollection(C collector) throws IOException;
+    }
+
     public ContextIndexSearcher(Engine.Searcher searcher,
             QueryCache queryCache, QueryCachingPolicy queryCachingPolicy) {
         super(searcher.reader());
@@ -80,6 +106,98 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         this.aggregatedDfs = aggregatedDfs;
     }
 
+    /**
+     * Let {@link #search(Query, CollectorManager)} search up to <code>concurrency</code> slices of leaves in parallel,
+     * slices being executed on the given executor and by the calling thread.
+     */
+    public void setSliceExecutor(Executor executor, int concurrency) {
+        this.sliceExecutor = executor;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @return true if {@link #search(Query, CollectorManager)} searches several slices of leaves in parallel.
+     */
+    public boolean isConcurrent() {
+        return sliceExecutor != null && concurrency > 1 && leafContexts.size() > 1;
+    }
+
+    @Override
+    public <C extends Collector, T> T search(Query query, CollectorManager<C, T> collectorManager) throws IOException {
+        if (isConcurrent() == false) {
+            // no executor was given to the super class, leaves are searched sequentially with a single collector
+            return super.search(query, collectorManager);
+        }
+
+        final List<List<LeafReaderContext>> slices = slices(leafContexts, concurrency);
+        final List<C> collectors = new ArrayList<>(slices.size());
+        boolean needsScores = false;
+        for (int i = 0; i < slices.size(); i++) {
+            final C collector = collectorManager.newCollector();
+            collectors.add(collector);
+            needsScores |= collector.needsScores();
+        }
+        final Weight weight = createNormalizedWeight(query, needsScores);
+        final List<Callable<C>> tasks = new ArrayList<>(slices.size());
+        for (int i = 0; i < slices.size(); i++) {
+            final List<LeafReaderContext> leaves = slices.get(i);
+            final C collector = collectors.get(i);
+            tasks.add(() -> {
+                search(leaves, weight, collector);
+                if (collectorManager instanceof SliceCollectorManager) {
+                    ((SliceCollectorManager<C, T>) collectorManager).postCollection(collector);
+                }
+                return collector;
+            });
+        }
+
+        // the calling thread searches the first slice and any slice not started yet by the executor, so that a query
+        // never waits for a slice queued behind other queries. All slices are completed before returning, as the
+        // reader may be released as soon as this method returns.
+        try {
+            ParallelTasks.invokeAll(sliceExecutor, tasks);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ThreadInterruptedException(e);
+        } catch (Exception e) {
+            throw new ElasticsearchException(e);
+        }
+        return collectorManager.reduce(collectors);
+    }
+
+    /**
+     * Split leaves into at most <code>maxSlices</code> slices of contiguous leaves having about the same number of documents.
+     * Contiguous slices keep the doc id order of the leaves, so that merging per slice results breaks ties as a sequential search.
+     */
+    static List<List<LeafReaderContext>> slices(List<LeafReaderContext> leaves, int maxSlices) {
+        final int numSlices = Math.min(maxSlices, leaves.size());
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        final List<List<LeafReaderContext>> slices = new ArrayList<>(numSlices);
+        List<LeafReaderContext> slice = new ArrayList<>();
+        long docs = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            final LeafReaderContext leaf = leaves.get(i);
+            slice.add(leaf);
+            docs += leaf.reader().maxDoc();
+            final int remainingLeaves = leaves.size() - i - 1;
+            final int remainingSlices = numSlices - slices.size() - 1;
+            // close the slice when it reaches its share of documents, keeping at least one leaf per remaining slice
+            if (remainingSlices > 0 && (docs * numSlices >= totalDocs * (slices.size() + 1) || remainingLeaves == remainingSlices)) {
+                slices.add(slice);
+                slice = new ArrayList<>();
+            }
+        }
+        if (slice.isEmpty() == false) {
+            slices.add(slice);
+        }
+        return slices;
+    }
+
     @Override
     public Query rewrite(Query original) throws IOException {
         if (profiler != null) {
@@ -381,9 +381,10 @@ public abstract class SearchContext extends AbstractRefCounted implements Releas
 
     /**
      * Schedule the release of a resource. The time when {@link Releasable#close()} will be called on this object
-     * is function of the provided {@link Lifetime}.
+     * is function of the provided {@link Lifetime}. Resources may be registered by the threads collecting
+     * segment slices concurrently, see {@link ContextIndexSearcher#setSliceExecutor}.
      */
-    public void addReleasable(Releasable releasable, Lifetime lifetime) {
+    public synchronized void addReleasable(Releasable releasable, Lifetime lifetime) {
         if (clearables == null) {
             clearables = new EnumMap<>(Lifetime.class);
         }
@@ -395,7 +396,7 @@ public abstract class SearchContext extends AbstractRefCounted implements Releas
         releasables.add(releasable);
     }
 
-    public void clearReleasables(Lifetime lifetime) {
+    public synchronized void clearReleasables(Lifetime lifetime) {
         if (clearables != null) {
             List<List<Releasable>>releasables = new ArrayList<>();
             for (Lifetime lc : Lifetime.values()) {
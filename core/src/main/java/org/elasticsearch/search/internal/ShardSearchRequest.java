@@ -24,6 +24,7 @@ import org.apache.cassandra.dht.Token;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.metadata.AliasMetaData;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.CheckedFunction;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
@@ -157,4 +158,12 @@ public interface ShardSearchRequest {
     default Map<String,Object> extraParams() {
         return null;
     }
+    
+    /**
+     * Returns the per request docvalues_fetch option, or null to use the index setting.
+     */
+    default Boolean docValuesFetch() {
+        Map<String,Object> params = extraParams();
+        return (params == null) ? null : (Boolean) params.get(ClusterService.DOCVALUES_FETCH);
+    }
 }
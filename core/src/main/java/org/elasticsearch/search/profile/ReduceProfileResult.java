@@ -0,0 +1,195 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.profile;
+
+import org.elasticsearch.common.ParseField;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
+import static org.elasticsearch.common.xcontent.XContentParserUtils.throwUnknownField;
+import static org.elasticsearch.common.xcontent.XContentParserUtils.throwUnknownToken;
+
+/**
+ * Profiled timings of the reduce of the shard query results on the coordinating node: the total elapsed time, the time
+ * of each reduce step and the time to reduce each top-level aggregation. Steps and aggregations may overlap in time when
+ * the reduce is concurrent.
+ */
+public final class ReduceProfileResult implements ToXContentObject, Writeable {
+
+    public static final String PARTIAL_REDUCES = "partial_reduces";
+    public static final String SUGGEST = "suggest";
+    public static final String TOP_DOCS = "top_docs";
+    public static final String SIBLING_PIPELINES = "sibling_pipelines";
+
+    public static final String REDUCE = "reduce";
+    private static final ParseField CONCURRENT = new ParseField("concurrent");
+    private static final ParseField TIME = new ParseField("time");
+    private static final ParseField TIME_NANOS = new ParseField("time_in_nanos");
+    private static final ParseField BREAKDOWN = new ParseField("breakdown");
+    private static final ParseField AGGREGATIONS = new ParseField("aggregations");
+
+    private final boolean concurrent;
+    private final long time;
+    private final Map<String, Long> breakdown;
+    private final Map<String, Long> aggregations;
+
+    public ReduceProfileResult(boolean concurrent, long time, Map<String, Long> breakdown, Map<String, Long> aggregations) {
+        this.concurrent = concurrent;
+        this.time = time;
+        this.breakdown = Collections.unmodifiableMap(new TreeMap<>(breakdown));
+        this.aggregations = Collections.unmodifiableMap(new TreeMap<>(aggregations));
+    }
+
+    /**
+     * Read from a stream.
+     */
+    public ReduceProfileResult(StreamInput in) throws IOException {
+        this.concurrent = in.readBoolean();
+        this.time = in.readLong();
+        this.breakdown = readTimings(in);
+        this.aggregations = readTimings(in);
+    }
+
+    private static Map<String, Long> readTimings(StreamInput in) throws IOException {
+        int size = in.readVInt();
+        Map<String, Long> timings = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            timings.put(in.readString(), in.readLong());
+        }
+        return Collections.unmodifiableMap(timings);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeBoolean(concurrent);
+        out.writeLong(time);
+        writeTimings(out, breakdown);
+        writeTimings(out, aggregations);
+    }
+
+    private static void writeTimings(StreamOutput out, Map<String, Long> timings) throws IOException {
+        out.writeVInt(timings.size());
+        for (Map.Entry<String, Long> entry : timings.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    /**
+     * @return true if independent parts of the reduce were executed concurrently
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * @return the total elapsed time of the final reduce in nanoseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the elapsed time in nanoseconds of each reduce step
+     */
+    public Map<String, Long> getBreakdown() {
+        return breakdown;
+    }
+
+    /**
+     * @return the elapsed time in nanoseconds to reduce each top-level aggregation, by aggregation name
+     */
+    public Map<String, Long> getAggregations() {
+        return aggregations;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, ToXContent.Params params) throws IOException {
+        builder.startObject()
+            .field(CONCURRENT.getPreferredName(), concurrent)
+            .field(TIME.getPreferredName(), String.format(Locale.US, "%.10gms", time / 1000000.0))
+            .field(TIME_NANOS.getPreferredName(), time);
+        builder.field(BREAKDOWN.getPreferredName(), breakdown);
+        builder.field(AGGREGATIONS.getPreferredName(), aggregations);
+        return builder.endObject();
+    }
+
+    public static ReduceProfileResult fromXContent(XContentParser parser) throws IOException {
+        XContentParser.Token token = parser.currentToken();
+        ensureExpectedToken(XContentParser.Token.START_OBJECT, token, parser::getTokenLocation);
+        String currentFieldName = null;
+        boolean concurrent = false;
+        long time = -1;
+        Map<String, Long> breakdown = Collections.emptyMap();
+        Map<String, Long> aggregations = Collections.emptyMap();
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                currentFieldName = parser.currentName();
+            } else if (token.isValue()) {
+                if (CONCURRENT.match(currentFieldName)) {
+                    concurrent = parser.booleanValue();
+                } else if (TIME.match(currentFieldName)) {
+                    // we need to consume this value, but we use the raw nanosecond value
+                    parser.text();
+                } else if (TIME_NANOS.match(currentFieldName)) {
+                    time = parser.longValue();
+                } else {
+                    throwUnknownField(currentFieldName, parser.getTokenLocation());
+                }
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                if (BREAKDOWN.match(currentFieldName)) {
+                    breakdown = parseTimings(parser);
+                } else if (AGGREGATIONS.match(currentFieldName)) {
+                    aggregations = parseTimings(parser);
+                } else {
+                    throwUnknownField(currentFieldName, parser.getTokenLocation());
+                }
+            } else {
+                throwUnknownToken(token, parser.getTokenLocation());
+            }
+        }
+        return new ReduceProfileResult(concurrent, time, breakdown, aggregations);
+    }
+
+    private static Map<String, Long> parseTimings(XContentParser parser) throws IOException {
+        Map<String, Long> timings = new TreeMap<>();
+        XContentParser.Token token;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser::getTokenLocation);
+            String name = parser.currentName();
+            ensureExpectedToken(XContentParser.Token.VALUE_NUMBER, parser.nextToken(), parser::getTokenLocation);
+            timings.put(name, parser.longValue());
+        }
+        return timings;
+    }
+}
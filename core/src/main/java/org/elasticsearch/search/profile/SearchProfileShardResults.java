@@ -19,6 +19,8 @@ package org.elasticsearch.search.profile;
  * under the License.
  */
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -39,13 +41,13 @@ import java.util.Map;
 import java.util.TreeSet;
 
 import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
-import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureFieldName;
 import static org.elasticsearch.common.xcontent.XContentParserUtils.throwUnknownField;
 import static org.elasticsearch.common.xcontent.XContentParserUtils.throwUnknownToken;
 
 /**
  * A container class to hold all the profile results across all shards.  Internally
- * holds a map of shard ID -&gt; Profiled results
+ * holds a map of shard ID -&gt; Profiled results, and the optional profiled timings
+ * of the reduce on the coordinating node
  */
 public final class SearchProfileShardResults implements Writeable, ToXContent{
 
@@ -56,8 +58,15 @@ public final class SearchProfileShardResults implements Writeable, ToXContent{
 
     private Map<String, ProfileShardResult> shardResults;
 
+    private final ReduceProfileResult reduceResult;
+
     public SearchProfileShardResults(Map<String, ProfileShardResult> shardResults) {
+        this(shardResults, null);
+    }
+
+    public SearchProfileShardResults(Map<String, ProfileShardResult> shardResults, @Nullable ReduceProfileResult reduceResult) {
         this.shardResults =  Collections.unmodifiableMap(shardResults);
+        this.reduceResult = reduceResult;
     }
 
     public SearchProfileShardResults(StreamInput in) throws IOException {
@@ -70,12 +79,25 @@ public final class SearchProfileShardResults implements Writeable, ToXContent{
             shardResults.put(key, shardResult);
         }
         shardResults = Collections.unmodifiableMap(shardResults);
+        if (in.getVersion().onOrAfter(Version.V_5_5_1)) {
+            reduceResult = in.readOptionalWriteable(ReduceProfileResult::new);
+        } else {
+            reduceResult = null;
+        }
     }
 
     public Map<String, ProfileShardResult> getShardResults() {
         return this.shardResults;
     }
 
+    /**
+     * @return the profiled timings of the reduce on the coordinating node, or null if not profiled
+     */
+    @Nullable
+    public ReduceProfileResult getReduceResult() {
+        return this.reduceResult;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeInt(shardResults.size());
@@ -83,6 +105,9 @@ public final class SearchProfileShardResults implements Writeable, ToXContent{
             out.writeString(entry.getKey());
             entry.getValue().writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_5_1)) {
+            out.writeOptionalWriteable(reduceResult);
+        }
     }
 
     @Override
@@ -103,7 +128,12 @@ public final class SearchProfileShardResults implements Writeable, ToXContent{
             profileShardResult.getAggregationProfileResults().toXContent(builder, params);
             builder.endObject();
         }
-        builder.endArray().endObject();
+        builder.endArray();
+        if (reduceResult != null) {
+            builder.field(ReduceProfileResult.REDUCE);
+            reduceResult.toXContent(builder, params);
+        }
+        builder.endObject();
         return builder;
     }
 
@@ -111,13 +141,24 @@ public final class SearchProfileShardResults implements Writeable, ToXContent{
         XContentParser.Token token = parser.currentToken();
         ensureExpectedToken(XContentParser.Token.START_OBJECT, token, parser::getTokenLocation);
         Map<String, ProfileShardResult> searchProfileResults = new HashMap<>();
-        ensureFieldName(parser, parser.nextToken(), SHARDS_FIELD);
-        ensureExpectedToken(XContentParser.Token.START_ARRAY, parser.nextToken(), parser::getTokenLocation);
-        while((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
-            parseSearchProfileResultsEntry(parser, searchProfileResults);
+        ReduceProfileResult reduceResult = null;
+        String currentFieldName = null;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                currentFieldName = parser.currentName();
+            } else if (token == XContentParser.Token.START_ARRAY && SHARDS_FIELD.equals(currentFieldName)) {
+                while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                    parseSearchProfileResultsEntry(parser, searchProfileResults);
+                }
+            } else if (token == XContentParser.Token.START_OBJECT && ReduceProfileResult.REDUCE.equals(currentFieldName)) {
+                reduceResult = ReduceProfileResult.fromXContent(parser);
+            } else if (token == XContentParser.Token.START_ARRAY || token == XContentParser.Token.START_OBJECT) {
+                throwUnknownField(currentFieldName, parser.getTokenLocation());
+            } else {
+                throwUnknownToken(token, parser.getTokenLocation());
+            }
         }
-        ensureExpectedToken(XContentParser.Token.END_OBJECT, parser.nextToken(), parser::getTokenLocation);
-        return new SearchProfileShardResults(searchProfileResults);
+        return new SearchProfileShardResults(searchProfileResults, reduceResult);
     }
 
     private static void parseSearchProfileResultsEntry(XContentParser parser,
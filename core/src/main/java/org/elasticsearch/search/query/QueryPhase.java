@@ -25,6 +25,7 @@ import org.apache.lucene.queries.MinDocQuery;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
@@ -38,6 +39,7 @@ import org.apache.lucene.search.TimeLimitingCollector;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopDocsCollector;
 import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TopScoreDocCollector;
 import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.Weight;
@@ -52,6 +54,8 @@ import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.BucketCollector;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.profile.ProfileShardResult;
@@ -63,10 +67,14 @@ import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 import org.elasticsearch.search.suggest.SuggestPhase;
 
+import java.io.IOException;
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 /**
@@ -163,6 +171,11 @@ public class QueryPhase implements SearchPhase {
 
             assert query == searcher.rewrite(query); // already rewritten
 
+            if (searcher instanceof ContextIndexSearcher && ((ContextIndexSearcher) searcher).isConcurrent()
+                    && canSearchConcurrently(searchContext)) {
+                return executeConcurrently(searchContext, (ContextIndexSearcher) searcher, query, totalNumDocs == 0 ? 1 : numDocs);
+            }
+
             if (searchContext.size() == 0) { // no matter what the value of from is
                 final TotalHitCountCollector totalHitCountCollector = new TotalHitCountCollector();
                 collector = totalHitCountCollector;
@@ -419,4 +432,142 @@ public class QueryPhase implements SearchPhase {
             throw new QueryPhaseExecutionException(searchContext, "Failed to execute main query", e);
         }
     }
+
+    /**
+     * Concurrent segment search supports requests collecting top docs and/or aggregations supporting concurrent collection
+     * (see {@link org.elasticsearch.search.aggregations.AggregatorFactories#supportsConcurrentCollection()}), without scroll,
+     * collapsing, profiling, terminate_after or timeout, other requests search leaves sequentially.
+     */
+    static boolean canSearchConcurrently(SearchContext searchContext) {
+        if (searchContext.scrollContext() != null
+            || searchContext.collapse() != null
+            || searchContext.getProfilers() != null
+            || searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+            || (searchContext.timeout() != null && searchContext.timeout().equals(SearchService.NO_TIMEOUT) == false)) {
+            return false;
+        }
+        final Map<Class<?>, Collector> queryCollectors = searchContext.queryCollectors();
+        if (queryCollectors.isEmpty()) {
+            // counts are optimized by the sequential search
+            return searchContext.size() > 0;
+        }
+        return queryCollectors.size() == 1 && queryCollectors.containsKey(AggregationPhase.class)
+            && searchContext.aggregations().factories().supportsConcurrentCollection();
+    }
+
+    /**
+     * Collect top docs of each leaf slice in parallel and merge them, see {@link ContextIndexSearcher#search(Query, CollectorManager)}.
+     * Each slice collects its own aggregators, reduced by {@link AggregationPhase#execute(SearchContext)}.
+     * @return whether the rescoring phase should be executed
+     */
+    private static boolean executeConcurrently(SearchContext searchContext, ContextIndexSearcher searcher, Query query,
+                                               int numDocs) throws IOException {
+        final SortAndFormats sf = searchContext.sort();
+        final FieldDoc after = searchContext.searchAfter();
+        final boolean rescore = searchContext.size() > 0 && sf == null && searchContext.rescore().isEmpty() == false;
+        if (sf == null) {
+            for (RescoreSearchContext rescoreContext : searchContext.rescore()) {
+                numDocs = Math.max(rescoreContext.window(), numDocs);
+            }
+        }
+        final int topN = numDocs;
+        final Weight filterWeight = searchContext.parsedPostFilter() == null ? null
+            : searcher.createNormalizedWeight(searchContext.parsedPostFilter().query(), false);
+
+        final Collector aggregationCollector = searchContext.queryCollectors().get(AggregationPhase.class);
+
+        final CollectorManager<Collector, TopDocs> collectorManager = new ContextIndexSearcher.SliceCollectorManager<Collector, TopDocs>() {
+            private final List<TopDocsCollector<?>> topDocsCollectors = new ArrayList<>();
+            private final List<TotalHitCountCollector> totalHitCountCollectors = new ArrayList<>();
+            // aggregation collectors of the slices, populated before the slices are searched
+            private final Map<Collector, BucketCollector> aggregationCollectors = new IdentityHashMap<>();
+
+            @Override
+            public Collector newCollector() throws IOException {
+                Collector collector;
+                if (searchContext.size() == 0) {
+                    final TotalHitCountCollector totalHitCountCollector = new TotalHitCountCollector();
+                    totalHitCountCollectors.add(totalHitCountCollector);
+                    collector = totalHitCountCollector;
+                } else {
+                    final TopDocsCollector<?> topDocsCollector;
+                    if (sf != null) {
+                        topDocsCollector = TopFieldCollector.create(sf.sort, topN, after, true,
+                            searchContext.trackScores(), searchContext.trackScores());
+                    } else {
+                        topDocsCollector = TopScoreDocCollector.create(topN, after);
+                    }
+                    topDocsCollectors.add(topDocsCollector);
+                    collector = topDocsCollector;
+                }
+                if (filterWeight != null) {
+                    collector = new FilteredCollector(collector, filterWeight);
+                }
+                BucketCollector sliceAggregationCollector = null;
+                if (aggregationCollector != null) {
+                    // the first slice uses the aggregators of the search context
+                    final boolean firstSlice = topDocsCollectors.size() + totalHitCountCollectors.size() == 1;
+                    sliceAggregationCollector = firstSlice ? (BucketCollector) aggregationCollector
+                        : AggregationPhase.createSliceCollector(searchContext);
+                    collector = MultiCollector.wrap(collector, sliceAggregationCollector);
+                }
+                // apply the minimum score after multi collector so we filter aggs as well
+                if (searchContext.minimumScore() != null) {
+                    collector = new MinimumScoreCollector(collector, searchContext.minimumScore());
+                }
+                collector = new CancellableCollector(searchContext.getTask()::isCancelled, searchContext.lowLevelCancellation(), collector);
+                if (sliceAggregationCollector != null) {
+                    aggregationCollectors.put(collector, sliceAggregationCollector);
+                }
+                return collector;
+            }
+
+            @Override
+            public void postCollection(Collector collector) throws IOException {
+                // aggregators may defer work to the end of the collection, that must run on the thread owning the slice leaves
+                final BucketCollector sliceAggregationCollector = aggregationCollectors.get(collector);
+                if (sliceAggregationCollector != null) {
+                    sliceAggregationCollector.postCollection();
+                }
+            }
+
+            @Override
+            public TopDocs reduce(Collection<Collector> collectors) throws IOException {
+                final TopDocs topDocs;
+                if (searchContext.size() == 0) {
+                    int totalHits = 0;
+                    for (TotalHitCountCollector totalHitCountCollector : totalHitCountCollectors) {
+                        totalHits += totalHitCountCollector.getTotalHits();
+                    }
+                    return new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS, 0);
+                } else if (sf != null) {
+                    final TopFieldDocs[] sliceTopDocs = new TopFieldDocs[topDocsCollectors.size()];
+                    for (int i = 0; i < sliceTopDocs.length; i++) {
+                        sliceTopDocs[i] = (TopFieldDocs) topDocsCollectors.get(i).topDocs();
+                    }
+                    topDocs = TopDocs.merge(sf.sort, 0, topN, sliceTopDocs, true);
+                } else {
+                    final TopDocs[] sliceTopDocs = new TopDocs[topDocsCollectors.size()];
+                    for (int i = 0; i < sliceTopDocs.length; i++) {
+                        sliceTopDocs[i] = topDocsCollectors.get(i).topDocs();
+                    }
+                    topDocs = TopDocs.merge(0, topN, sliceTopDocs, true);
+                }
+                // slice indices were only used to break ties, shard indices are set by the coordinating node
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    scoreDoc.shardIndex = -1;
+                }
+                return topDocs;
+            }
+        };
+
+        final TopDocs topDocs;
+        try {
+            topDocs = searcher.search(query, collectorManager);
+        } finally {
+            searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
+        }
+        searchContext.queryResult().topDocs(topDocs, sf == null || searchContext.size() == 0 ? new DocValueFormat[0] : sf.formats);
+        return rescore;
+    }
 }
@@ -22,11 +22,13 @@ package org.elasticsearch.threadpool;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.SizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.node.Node;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
@@ -40,6 +42,10 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
     private final Setting<Integer> sizeSetting;
     private final Setting<Integer> queueSizeSetting;
+    private final Setting<Boolean> autoQueueSizeSetting;
+    private final Setting<Integer> minQueueSizeSetting;
+    private final Setting<TimeValue> targetQueueTimeSetting;
+    private final Setting<TimeValue> autoQueueIntervalSetting;
 
     /**
      * Construct a fixed executor builder; the settings will have the
@@ -54,6 +60,20 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         this(settings, name, size, queueSize, "thread_pool." + name);
     }
 
+    /**
+     * Construct a fixed executor builder whose queue size may be adjusted to the measured queue time; the settings will
+     * have the key prefix "thread_pool." followed by the executor name.
+     *
+     * @param settings  the node-level settings
+     * @param name      the name of the executor
+     * @param size      the fixed number of threads
+     * @param queueSize the size of the backing queue, also the max queue size when the queue size is adjusted
+     * @param autoQueue whether the queue size may be adjusted
+     */
+    FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final boolean autoQueue) {
+        this(settings, name, size, queueSize, "thread_pool." + name, autoQueue);
+    }
+
     /**
      * Construct a fixed executor builder.
      *
@@ -64,6 +84,11 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
      * @param prefix    the prefix for the settings keys
      */
     public FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final String prefix) {
+        this(settings, name, size, queueSize, prefix, false);
+    }
+
+    private FixedExecutorBuilder(final Settings settings, final String name, final int size, final int queueSize, final String prefix,
+                                 final boolean autoQueue) {
         super(name);
         final String sizeKey = settingsKey(prefix, "size");
         this.sizeSetting =
@@ -75,6 +100,23 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         final String queueSizeKey = settingsKey(prefix, "queue_size");
         this.queueSizeSetting =
             Setting.intSetting(queueSizeKey, queueSize, Setting.Property.NodeScope);
+        if (autoQueue) {
+            this.autoQueueSizeSetting = Setting.boolSetting(settingsKey(prefix, "auto_queue_size"), false, Setting.Property.NodeScope);
+            this.minQueueSizeSetting = new Setting<>(
+                settingsKey(prefix, "min_queue_size"),
+                s -> Integer.toString(Math.min(sizeSetting.get(s), queueSizeSetting.get(s))),
+                s -> Setting.parseInt(s, 0, settingsKey(prefix, "min_queue_size")),
+                Setting.Property.NodeScope);
+            this.targetQueueTimeSetting = Setting.timeSetting(settingsKey(prefix, "target_queue_time"),
+                TimeValue.timeValueSeconds(1), TimeValue.timeValueMillis(1), Setting.Property.NodeScope);
+            this.autoQueueIntervalSetting = Setting.timeSetting(settingsKey(prefix, "auto_queue_interval"),
+                TimeValue.timeValueSeconds(5), TimeValue.timeValueMillis(10), Setting.Property.NodeScope);
+        } else {
+            this.autoQueueSizeSetting = null;
+            this.minQueueSizeSetting = null;
+            this.targetQueueTimeSetting = null;
+            this.autoQueueIntervalSetting = null;
+        }
     }
 
     private int applyHardSizeLimit(final Settings settings, final String name) {
@@ -87,7 +129,11 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
-        return Arrays.asList(sizeSetting, queueSizeSetting);
+        final List<Setting<?>> settings = new ArrayList<>(Arrays.asList(sizeSetting, queueSizeSetting));
+        if (autoQueueSizeSetting != null) {
+            settings.addAll(Arrays.asList(autoQueueSizeSetting, minQueueSizeSetting, targetQueueTimeSetting, autoQueueIntervalSetting));
+        }
+        return settings;
     }
 
     @Override
@@ -95,6 +141,10 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         final String nodeName = Node.NODE_NAME_SETTING.get(settings);
         final int size = sizeSetting.get(settings);
         final int queueSize = queueSizeSetting.get(settings);
+        if (autoQueueSizeSetting != null && autoQueueSizeSetting.get(settings) && queueSize > 0) {
+            return new FixedExecutorSettings(nodeName, size, queueSize, minQueueSizeSetting.get(settings),
+                targetQueueTimeSetting.get(settings), autoQueueIntervalSetting.get(settings));
+        }
         return new FixedExecutorSettings(nodeName, size, queueSize);
     }
 
@@ -103,7 +153,13 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
         int size = settings.size;
         int queueSize = settings.queueSize;
         final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
-        final ExecutorService executor = EsExecutors.newFixed(name(), size, queueSize, threadFactory, threadContext);
+        final ExecutorService executor;
+        if (settings.targetQueueTime != null) {
+            executor = EsExecutors.newAutoQueueFixed(name(), size, settings.minQueueSize, queueSize, settings.targetQueueTime,
+                settings.autoQueueInterval, threadFactory, threadContext);
+        } else {
+            executor = EsExecutors.newFixed(name(), size, queueSize, threadFactory, threadContext);
+        }
         final ThreadPool.Info info =
             new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.FIXED, size, size, null, queueSize < 0 ? null : new SizeValue(queueSize));
         return new ThreadPool.ExecutorHolder(executor, info);
@@ -123,11 +179,22 @@ public final class FixedExecutorBuilder extends ExecutorBuilder<FixedExecutorBui
 
         private final int size;
         private final int queueSize;
+        private final int minQueueSize;
+        private final TimeValue targetQueueTime;
+        private final TimeValue autoQueueInterval;
 
         FixedExecutorSettings(final String nodeName, final int size, final int queueSize) {
+            this(nodeName, size, queueSize, queueSize, null, null);
+        }
+
+        FixedExecutorSettings(final String nodeName, final int size, final int queueSize, final int minQueueSize,
+                              final TimeValue targetQueueTime, final TimeValue autoQueueInterval) {
             super(nodeName);
             this.size = size;
             this.queueSize = queueSize;
+            this.minQueueSize = minQueueSize;
+            this.targetQueueTime = targetQueueTime;
+            this.autoQueueInterval = autoQueueInterval;
         }
 
     }
@@ -37,6 +37,7 @@ import org.elasticsearch.common.util.concurrent.EsAbortPolicy;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.QueueResizingEsThreadPoolExecutor;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.util.concurrent.XRejectedExecutionHandler;
 import org.elasticsearch.common.xcontent.ToXContent;
@@ -72,6 +73,8 @@ public class ThreadPool extends AbstractComponent implements Closeable {
         public static final String INDEX = "index";
         public static final String BULK = "bulk";
         public static final String SEARCH = "search";
+        public static final String SEARCH_SLICE = "search_slice";
+        public static final String SEARCH_REDUCE = "search_reduce";
         public static final String MANAGEMENT = "management";
         public static final String FLUSH = "flush";
         public static final String REFRESH = "refresh";
@@ -127,6 +130,8 @@ public class ThreadPool extends AbstractComponent implements Closeable {
         map.put(Names.INDEX, ThreadPoolType.FIXED);
         map.put(Names.BULK, ThreadPoolType.FIXED);
         map.put(Names.SEARCH, ThreadPoolType.FIXED);
+        map.put(Names.SEARCH_SLICE, ThreadPoolType.FIXED);
+        map.put(Names.SEARCH_REDUCE, ThreadPoolType.FIXED);
         map.put(Names.MANAGEMENT, ThreadPoolType.SCALING);
         map.put(Names.FLUSH, ThreadPoolType.SCALING);
         map.put(Names.REFRESH, ThreadPoolType.SCALING);
@@ -168,10 +173,12 @@ public class ThreadPool extends AbstractComponent implements Closeable {
         final int halfProcMaxAt10 = halfNumberOfProcessorsMaxTen(availableProcessors);
         final int genericThreadPoolMax = boundedBy(4 * availableProcessors, 128, 512);
         builders.put(Names.GENERIC, new ScalingExecutorBuilder(Names.GENERIC, 4, genericThreadPoolMax, TimeValue.timeValueSeconds(30)));
-        builders.put(Names.INDEX, new FixedExecutorBuilder(settings, Names.INDEX, availableProcessors, 200));
-        builders.put(Names.BULK, new FixedExecutorBuilder(settings, Names.BULK, availableProcessors, 200)); // now that we reuse bulk for index/delete ops
+        builders.put(Names.INDEX, new FixedExecutorBuilder(settings, Names.INDEX, availableProcessors, 200, true));
+        builders.put(Names.BULK, new FixedExecutorBuilder(settings, Names.BULK, availableProcessors, 200, true)); // now that we reuse bulk for index/delete ops
         builders.put(Names.GET, new FixedExecutorBuilder(settings, Names.GET, availableProcessors, 1000));
-        builders.put(Names.SEARCH, new FixedExecutorBuilder(settings, Names.SEARCH, searchThreadPoolSize(availableProcessors), 1000));
+        builders.put(Names.SEARCH, new FixedExecutorBuilder(settings, Names.SEARCH, searchThreadPoolSize(availableProcessors), 1000, true));
+        builders.put(Names.SEARCH_SLICE, new FixedExecutorBuilder(settings, Names.SEARCH_SLICE, availableProcessors, 1000));
+        builders.put(Names.SEARCH_REDUCE, new FixedExecutorBuilder(settings, Names.SEARCH_REDUCE, availableProcessors, 1000));
         builders.put(Names.MANAGEMENT, new ScalingExecutorBuilder(Names.MANAGEMENT, 1, 5, TimeValue.timeValueMinutes(5)));
         // no queue as this means clients will need to handle rejections on listener queue even if the operation succeeded
         // the assumption here is that the listeners should be very lightweight on the listeners side
@@ -296,6 +303,15 @@ public class ThreadPool extends AbstractComponent implements Closeable {
             long rejected = -1;
             int largest = -1;
             long completed = -1;
+            int queueCapacity = -1;
+            long queueAdjustments = -1;
+            long minQueueTimeInMillis = -1;
+            if (holder.executor() instanceof QueueResizingEsThreadPoolExecutor) {
+                QueueResizingEsThreadPoolExecutor queueResizingExecutor = (QueueResizingEsThreadPoolExecutor) holder.executor();
+                queueCapacity = queueResizingExecutor.getQueueCapacity();
+                queueAdjustments = queueResizingExecutor.getQueueAdjustments();
+                minQueueTimeInMillis = TimeUnit.NANOSECONDS.toMillis(queueResizingExecutor.getLastMinQueueTimeNanos());
+            }
             if (holder.executor() instanceof ThreadPoolExecutor) {
                 ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) holder.executor();
                 threads = threadPoolExecutor.getPoolSize();
@@ -308,7 +324,8 @@ public class ThreadPool extends AbstractComponent implements Closeable {
                     rejected = ((XRejectedExecutionHandler) rejectedExecutionHandler).rejected();
                 }
             }
-            stats.add(new ThreadPoolStats.Stats(name, threads, queue, active, rejected, largest, completed));
+            stats.add(new ThreadPoolStats.Stats(name, threads, queue, active, rejected, largest, completed, queueCapacity, queueAdjustments,
+                minQueueTimeInMillis));
         }
         return new ThreadPoolStats(stats);
     }
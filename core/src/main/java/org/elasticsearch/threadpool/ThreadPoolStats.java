@@ -19,6 +19,7 @@
 
 package org.elasticsearch.threadpool;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -41,8 +42,16 @@ public class ThreadPoolStats implements Writeable, ToXContent, Iterable<ThreadPo
         private final long rejected;
         private final int largest;
         private final long completed;
+        private final int queueCapacity;
+        private final long queueAdjustments;
+        private final long minQueueTimeInMillis;
 
         public Stats(String name, int threads, int queue, int active, long rejected, int largest, long completed) {
+            this(name, threads, queue, active, rejected, largest, completed, -1, -1, -1);
+        }
+
+        public Stats(String name, int threads, int queue, int active, long rejected, int largest, long completed,
+                     int queueCapacity, long queueAdjustments, long minQueueTimeInMillis) {
             this.name = name;
             this.threads = threads;
             this.queue = queue;
@@ -50,6 +59,9 @@ public class ThreadPoolStats implements Writeable, ToXContent, Iterable<ThreadPo
             this.rejected = rejected;
             this.largest = largest;
             this.completed = completed;
+            this.queueCapacity = queueCapacity;
+            this.queueAdjustments = queueAdjustments;
+            this.minQueueTimeInMillis = minQueueTimeInMillis;
         }
 
         public Stats(StreamInput in) throws IOException {
@@ -60,6 +72,15 @@ public class ThreadPoolStats implements Writeable, ToXContent, Iterable<ThreadPo
             rejected = in.readLong();
             largest = in.readInt();
             completed = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_5_5_1)) {
+                queueCapacity = in.readInt();
+                queueAdjustments = in.readLong();
+                minQueueTimeInMillis = in.readLong();
+            } else {
+                queueCapacity = -1;
+                queueAdjustments = -1;
+                minQueueTimeInMillis = -1;
+            }
         }
 
         @Override
@@ -71,6 +92,11 @@ public class ThreadPoolStats implements Writeable, ToXContent, Iterable<ThreadPo
             out.writeLong(rejected);
             out.writeInt(largest);
             out.writeLong(completed);
+            if (out.getVersion().onOrAfter(Version.V_5_5_1)) {
+                out.writeInt(queueCapacity);
+                out.writeLong(queueAdjustments);
+                out.writeLong(minQueueTimeInMillis);
+            }
         }
 
         public String getName() {
@@ -101,6 +127,27 @@ public class ThreadPoolStats implements Writeable, ToXContent, Iterable<ThreadPo
             return this.completed;
         }
 
+        /**
+         * @return the current queue capacity of an executor adjusting its queue size, -1 otherwise.
+         */
+        public int getQueueCapacity() {
+            return this.queueCapacity;
+        }
+
+        /**
+         * @return the number of queue capacity adjustments of an executor adjusting its queue size, -1 otherwise.
+         */
+        public long getQueueAdjustments() {
+            return this.queueAdjustments;
+        }
+
+        /**
+         * @return the minimum queue time of the last interval of an executor adjusting its queue size, -1 otherwise.
+         */
+        public long getMinQueueTimeInMillis() {
+            return this.minQueueTimeInMillis;
+        }
+
         @Override
         public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
             builder.startObject(name);
@@ -122,6 +169,15 @@ public class ThreadPoolStats implements Writeable, ToXContent, Iterable<ThreadPo
             if (completed != -1) {
                 builder.field(Fields.COMPLETED, completed);
             }
+            if (queueCapacity != -1) {
+                builder.field(Fields.QUEUE_CAPACITY, queueCapacity);
+            }
+            if (queueAdjustments != -1) {
+                builder.field(Fields.QUEUE_ADJUSTMENTS, queueAdjustments);
+            }
+            if (minQueueTimeInMillis != -1) {
+                builder.field(Fields.MIN_QUEUE_TIME_IN_MILLIS, minQueueTimeInMillis);
+            }
             builder.endObject();
             return builder;
         }
@@ -173,6 +229,9 @@ public class ThreadPoolStats implements Writeable, ToXContent, Iterable<ThreadPo
         static final String REJECTED = "rejected";
         static final String LARGEST = "largest";
         static final String COMPLETED = "completed";
+        static final String QUEUE_CAPACITY = "queue_capacity";
+        static final String QUEUE_ADJUSTMENTS = "queue_adjustments";
+        static final String MIN_QUEUE_TIME_IN_MILLIS = "min_queue_time_in_millis";
     }
 
     @Override
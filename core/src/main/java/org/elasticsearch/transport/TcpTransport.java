@@ -178,6 +178,7 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
     // connections while no connect operations is going on... (this might help with 100% CPU when stopping the transport?)
     protected final ReadWriteLock globalLock = new ReentrantReadWriteLock();
     protected final boolean compress;
+    protected final Compressor messageCompressor;
     protected volatile BoundTransportAddress boundAddress;
     private final String transportName;
     protected final ConnectionProfile defaultConnectionProfile;
@@ -198,6 +199,7 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
         this.pingSchedule = PING_SCHEDULE.get(settings);
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.compress = Transport.TRANSPORT_TCP_COMPRESS.get(settings);
+        this.messageCompressor = CompressorFactory.compressor(Transport.TRANSPORT_TCP_COMPRESSION_SCHEME.get(settings));
         this.networkService = networkService;
         this.transportName = transportName;
         this.blockingClient = TCP_BLOCKING_CLIENT.get(settings);
@@ -1074,13 +1076,15 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
         status = TransportStatus.setRequest(status);
         ReleasableBytesStreamOutput bStream = new ReleasableBytesStreamOutput(bigArrays);
         boolean addedReleaseListener = false;
+        // reserve the header, written once the message size is known
+        bStream.skip(TcpHeader.HEADER_SIZE);
         StreamOutput stream = Streams.flushOnCloseStream(bStream);
         try {
             // only compress if asked, and, the request is not bytes, since then only
             // the header part is compressed, and the "body" can't be extracted as compressed
             if (options.compress() && canCompress(request)) {
                 status = TransportStatus.setCompress(status);
-                stream = CompressorFactory.COMPRESSOR.streamOutput(stream);
+                stream = messageCompressor.streamOutput(stream);
             }
 
             // we pick the smallest of the 2, to support both backward and forward compatibility
@@ -1139,7 +1143,10 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
      */
     public void sendErrorResponse(Version nodeVersion, Channel channel, final Exception error, final long requestId,
                                   final String action) throws IOException {
-        try (BytesStreamOutput stream = new BytesStreamOutput()) {
+        final ReleasableBytesStreamOutput stream = new ReleasableBytesStreamOutput(bigArrays);
+        boolean addedReleaseListener = false;
+        try {
+            stream.skip(TcpHeader.HEADER_SIZE);
             stream.setVersion(nodeVersion);
             RemoteTransportException tx = new RemoteTransportException(
                 nodeName(), new InetSocketTransportAddress(getLocalAddress(channel)), action, error);
@@ -1148,10 +1155,20 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
             byte status = 0;
             status = TransportStatus.setResponse(status);
             status = TransportStatus.setError(status);
-            final BytesReference bytes = stream.bytes();
-            final BytesReference header = buildHeader(requestId, status, nodeVersion, bytes.length());
-            Runnable onRequestSent = () -> transportServiceAdapter.onResponseSent(requestId, action, error);
-            sendMessage(channel, new CompositeBytesReference(header, bytes), onRequestSent);
+            final BytesReference message = writeHeader(requestId, status, nodeVersion, stream, BytesArray.EMPTY);
+            Runnable onRequestSent = () -> { // this might be called in a different thread
+                try {
+                    IOUtils.closeWhileHandlingException(stream);
+                } finally {
+                    transportServiceAdapter.onResponseSent(requestId, action, error);
+                }
+            };
+            sendMessage(channel, message, onRequestSent);
+            addedReleaseListener = true;
+        } finally {
+            if (!addedReleaseListener) {
+                IOUtils.close(stream);
+            }
         }
     }
 
@@ -1173,11 +1190,13 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
         status = TransportStatus.setResponse(status); // TODO share some code with sendRequest
         ReleasableBytesStreamOutput bStream = new ReleasableBytesStreamOutput(bigArrays);
         boolean addedReleaseListener = false;
+        // reserve the header, written once the message size is known
+        bStream.skip(TcpHeader.HEADER_SIZE);
         StreamOutput stream = Streams.flushOnCloseStream(bStream);
         try {
             if (options.compress()) {
                 status = TransportStatus.setCompress(status);
-                stream = CompressorFactory.COMPRESSOR.streamOutput(stream);
+                stream = messageCompressor.streamOutput(stream);
             }
             threadPool.getThreadContext().writeTo(stream);
             stream.setVersion(nodeVersion);
@@ -1201,23 +1220,27 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
     }
 
     /**
-     * Writes the Tcp message header into a bytes reference.
+     * Writes the Tcp message header into the space reserved at the beginning of the written bytes, so that the message
+     * is sent from the recycled pages of the stream without any additional buffer.
      *
      * @param requestId       the request ID
      * @param status          the request status
      * @param protocolVersion the protocol version used to serialize the data in the message
-     * @param length          the payload length in bytes
+     * @param writtenBytes    the written bytes, starting with {@link TcpHeader#HEADER_SIZE} reserved bytes
+     * @param zeroCopyBuffer  bytes sent after the written bytes
      * @see TcpHeader
      */
-    final BytesReference buildHeader(long requestId, byte status, Version protocolVersion, int length) throws IOException {
-        try (BytesStreamOutput headerOutput = new BytesStreamOutput(TcpHeader.HEADER_SIZE)) {
-            headerOutput.setVersion(protocolVersion);
-            TcpHeader.writeHeader(headerOutput, requestId, status, protocolVersion, length);
-            final BytesReference bytes = headerOutput.bytes();
-            assert bytes.length() == TcpHeader.HEADER_SIZE : "header size mismatch expected: " + TcpHeader.HEADER_SIZE + " but was: "
-                + bytes.length();
-            return bytes;
-        }
+    private BytesReference writeHeader(long requestId, byte status, Version protocolVersion, ReleasableBytesStreamOutput writtenBytes,
+                                       BytesReference zeroCopyBuffer) throws IOException {
+        final int length = writtenBytes.size();
+        assert length >= TcpHeader.HEADER_SIZE : "header was not reserved";
+        writtenBytes.seek(0);
+        TcpHeader.writeHeader(writtenBytes, requestId, status, protocolVersion, length - TcpHeader.HEADER_SIZE + zeroCopyBuffer.length());
+        assert writtenBytes.size() == TcpHeader.HEADER_SIZE : "header size mismatch expected: " + TcpHeader.HEADER_SIZE + " but was: "
+            + writtenBytes.size();
+        writtenBytes.seek(length);
+        final BytesReference message = writtenBytes.bytes();
+        return zeroCopyBuffer.length() == 0 ? message : new CompositeBytesReference(message, zeroCopyBuffer);
     }
 
     /**
@@ -1240,9 +1263,7 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
         // we barf on the decompressing end when we read past EOF on purpose in the #validateRequest method.
         // this might be a problem in deflate after all but it's important to close it for now.
         stream.close();
-        final BytesReference messageBody = writtenBytes.bytes();
-        final BytesReference header = buildHeader(requestId, status, stream.getVersion(), messageBody.length() + zeroCopyBuffer.length());
-        return new CompositeBytesReference(header, messageBody, zeroCopyBuffer);
+        return writeHeader(requestId, status, stream.getVersion(), writtenBytes, zeroCopyBuffer);
     }
 
     /**
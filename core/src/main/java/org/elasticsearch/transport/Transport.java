@@ -25,6 +25,7 @@ import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.component.LifecycleComponent;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.transport.BoundTransportAddress;
@@ -42,6 +43,13 @@ import java.util.Map;
 public interface Transport extends LifecycleComponent {
 
     Setting<Boolean> TRANSPORT_TCP_COMPRESS = Setting.boolSetting("transport.tcp.compress", false, Property.NodeScope);
+    /**
+     * Compressor of messages sent when compression is enabled, received messages are decompressed whatever their scheme.
+     */
+    Setting<String> TRANSPORT_TCP_COMPRESSION_SCHEME = new Setting<>("transport.tcp.compression_scheme", "deflate", s -> {
+        CompressorFactory.compressor(s);
+        return s;
+    }, Property.NodeScope);
 
     void transportServiceAdapter(TransportServiceAdapter service);
 
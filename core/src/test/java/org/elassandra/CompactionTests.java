@@ -23,14 +23,19 @@ import org.apache.cassandra.cql3.UntypedResultSet;
 import org.apache.cassandra.db.ConsistencyLevel;
 import org.apache.cassandra.metrics.CassandraMetricsRegistry;
 import org.apache.cassandra.service.StorageService;
+import org.apache.lucene.document.LongPoint;
+import org.elassandra.index.ElasticSecondaryIndex;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.Map;
 
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
@@ -313,4 +318,99 @@ public class CompactionTests extends ESSingleNodeTestCase {
         assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.wildcardQuery("c","*")).get().getHits().getTotalHits(), equalTo(2*N));
         assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.wildcardQuery("b","*")).get().getHits().getTotalHits(), equalTo(N));
     }
+    
+    @Test
+    public void ttlPurgeTest() throws Exception {
+        IndexService indexService = createIndex("test", Settings.builder().put(IndexMetaData.SETTING_TTL_PURGE_INTERVAL, "1s").build());
+        ensureGreen("test");
+        
+        long N = 10;
+        
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS test.t1 ( a int, b text, c text, primary key (a) )");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{ \"t1\" : { \"discover\" : \".*\" }}").get());
+        
+        int i=0;
+        for(int j=0 ; j < N; j++) {
+            i++;
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?)", i, "x", "x");
+            i++;
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?) USING TTL 2", i, "y", "y");
+            i++;
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,c) VALUES (?,?)", i, "z");
+            process(ConsistencyLevel.ONE,"update test.t1 USING TTL 2 SET b = ? WHERE a = ?", "z", i);
+        }
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).get().getHits().getTotalHits(), equalTo(3*N));
+        assertThat(expiringDocuments(indexService), equalTo((int)N));
+        
+        Thread.sleep(5*1000);  // wait TTL expiration and purge
+        
+        // rows having a column without TTL are not expired.
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).get().getHits().getTotalHits(), equalTo(2*N));
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("c:y")).get().getHits().getTotalHits(), equalTo(0L));
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("c:z")).get().getHits().getTotalHits(), equalTo(N));
+    }    
+    @Test
+    public void ttlPurgeUpdateTest() throws Exception {
+        IndexService indexService = createIndex("test", Settings.builder().put(IndexMetaData.SETTING_TTL_PURGE_INTERVAL, "1s").build());
+        ensureGreen("test");
+        
+        long N = 10;
+        
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS test.t1 ( a int, b text, c text, d text, primary key (a) )");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{ \"t1\" : { \"discover\" : \"^((?!d).*)\" }}").get());
+        
+        int i=0;
+        for(int j=0 ; j < N; j++) {
+            // the row marker of the INSERT does not expire.
+            i++;
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?)", i, "x", "x");
+            process(ConsistencyLevel.ONE,"update test.t1 USING TTL 2 SET b = ?, c = ? WHERE a = ?", "x", "x", i);
+            // the unmapped column d does not expire.
+            i++;
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?) USING TTL 2", i, "y", "y");
+            process(ConsistencyLevel.ONE,"update test.t1 SET d = ? WHERE a = ?", "y", i);
+            // expired row.
+            i++;
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?) USING TTL 2", i, "z", "z");
+        }
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).get().getHits().getTotalHits(), equalTo(3*N));
+        
+        Thread.sleep(5*1000);  // wait TTL expiration and purge
+        
+        // documents of live cassandra rows are not purged.
+        assertThat(process(ConsistencyLevel.ONE,"SELECT * FROM test.t1").size(), equalTo((int)(2*N)));
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).get().getHits().getTotalHits(), equalTo(2*N));
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.queryStringQuery("c:z")).get().getHits().getTotalHits(), equalTo(0L));
+        // partitions of live rows are re-indexed with their new expiration time, and not checked again.
+        assertThat(expiringDocuments(indexService), equalTo(0));
+    }
+    
+    @Test
+    public void ttlNoPurgeTest() throws Exception {
+        IndexService indexService = createIndex("test");
+        ensureGreen("test");
+        
+        long N = 10;
+        
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS test.t1 ( a int, b text, c text, primary key (a) )");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{ \"t1\" : { \"discover\" : \".*\" }}").get());
+        
+        int i=0;
+        for(int j=0 ; j < N; j++) {
+            i++;
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?) USING TTL 3600", i, "y", "y");
+            i++;
+            process(ConsistencyLevel.ONE,"update test.t1 USING TTL 3600 SET b = ?, c = ? WHERE a = ?", "z", "z", i);
+        }
+        assertThat(client().prepareSearch().setIndices("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).get().getHits().getTotalHits(), equalTo(2*N));
+        // the expiration time is not indexed when the TTL purge is disabled.
+        assertThat(expiringDocuments(indexService), equalTo(0));
+    }
+    
+    private int expiringDocuments(IndexService indexService) throws IOException {
+        client().admin().indices().prepareRefresh(indexService.index().getName()).get();
+        try (Engine.Searcher searcher = indexService.getShard(0).acquireSearcher("test")) {
+            return searcher.searcher().count(LongPoint.newRangeQuery(ElasticSecondaryIndex.EXPIRE_FIELD, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+    }
 }
@@ -15,21 +15,36 @@
  */
 package org.elassandra;
 
+import org.apache.cassandra.cql3.statements.ParsedStatement;
 import org.apache.cassandra.db.ConsistencyLevel;
 import org.apache.cassandra.service.StorageService;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.junit.Test;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 
 /**
  * Elassandra composite key tests.
@@ -427,4 +442,208 @@ curl -XGET "http://$NODE:9200/test/timeseries/_search?pretty=true&q=meta.region:
     
     
 
+    @Test
+    public void multiGetTest() throws Exception {
+        createIndex("test");
+        ensureGreen("test");
+        process(ConsistencyLevel.ONE,"CREATE TABLE test.t1 (a text, b int, c text, primary key ((a),b))");
+        process(ConsistencyLevel.ONE,"CREATE TABLE test.t2 (a text primary key, c text)");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t2").setSource("{\"t2\":{\"discover\":\".*\"}}").get());
+        for(int i=0; i < 10; i++) {
+            process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,b,c) VALUES (?,?,?)", "p"+(i % 3), i, "v"+i);
+            process(ConsistencyLevel.ONE,"INSERT INTO test.t2 (a,c) VALUES (?,?)", "p"+i, "w"+i);
+        }
+
+        // rows of the same partition, missing rows and several tables in one request.
+        MultiGetRequestBuilder builder = client().prepareMultiGet();
+        for(int i=0; i < 12; i++) {
+            builder.add("test", "t1", "[\"p"+(i % 3)+"\","+i+"]");
+            builder.add("test", "t2", "p"+i);
+        }
+        builder.add(new MultiGetRequest.Item("test", "t1", "[\"p1\",1]").storedFields("c"));
+        MultiGetItemResponse[] responses = builder.get().getResponses();
+        assertThat(responses.length, equalTo(25));
+        for(int i=0; i < 12; i++) {
+            GetResponse r1 = responses[2*i].getResponse();
+            GetResponse r2 = responses[2*i+1].getResponse();
+            assertThat(r1.isExists(), equalTo(i < 10));
+            assertThat(r2.isExists(), equalTo(i < 10));
+            if (i < 10) {
+                assertThat(r1.getSource().get("c"), equalTo("v"+i));
+                assertThat(r2.getSource().get("c"), equalTo("w"+i));
+                assertThat(r1.getSourceAsString(), equalTo(client().prepareGet("test", "t1", r1.getId()).get().getSourceAsString()));
+            }
+        }
+        assertThat(responses[24].getResponse().getField("c").getValue(), equalTo("v1"));
+    }
+
+    @Test
+    public void getAllTypesTest() throws Exception {
+        createIndex("test");
+        ensureGreen("test");
+        for(int i=1; i <= 3; i++) {
+            process(ConsistencyLevel.ONE,"CREATE TABLE test.t"+i+" (a text primary key, c text)");
+            assertAcked(client().admin().indices().preparePutMapping("test").setType("t"+i).setSource("{\"t"+i+"\":{\"discover\":\".*\"}}").get());
+        }
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t2 (a,c) VALUES ('x','foo')");
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t3 (a,c) VALUES ('y','bar')");
+
+        // found from the _uid terms.
+        client().admin().indices().prepareRefresh("test").get();
+        GetResponse response = client().prepareGet("test", "_all", "x").get();
+        assertThat(response.isExists(), equalTo(true));
+        assertThat(response.getType(), equalTo("t2"));
+
+        // not yet searchable, found by probing tables.
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,c) VALUES ('z','baz')");
+        response = client().prepareGet("test", "_all", "z").get();
+        assertThat(response.isExists(), equalTo(true));
+        assertThat(response.getType(), equalTo("t1"));
+
+        assertThat(client().prepareGet("test", "_all", "w").get().isExists(), equalTo(false));
+    }
+
+    @Test
+    public void fetchStatementCacheTest() throws Exception {
+        IndexService indexService = createIndex("test");
+        ensureGreen("test");
+        process(ConsistencyLevel.ONE,"CREATE TABLE test.t1 (a text primary key, b text, c text)");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,b,c) VALUES ('x','foo','bar')");
+
+        DocumentMapper docMapper = indexService.mapperService().documentMapper("t1");
+        ParsedStatement.Prepared prepared = clusterService().fetchStatement(indexService, "t1", new String[] { "b", "c" }, false, docMapper.getColumnDefinitions());
+        assertThat(clusterService().fetchStatement(indexService, "t1", new String[] { "c", "b" }, false, docMapper.getColumnDefinitions()), sameInstance(prepared));
+        assertThat(client().prepareGet("test", "t1", "x").get().getSource().get("b"), equalTo("foo"));
+
+        // a schema change of another table does not invalidate cached statements.
+        process(ConsistencyLevel.ONE,"CREATE TABLE test.t2 (a text primary key, b text)");
+        assertThat(clusterService().fetchStatement(indexService, "t1", new String[] { "b", "c" }, false, docMapper.getColumnDefinitions()), sameInstance(prepared));
+
+        // a schema change of the table invalidates its cached statements.
+        process(ConsistencyLevel.ONE,"ALTER TABLE test.t1 ADD d text");
+        assertThat(clusterService().fetchStatement(indexService, "t1", new String[] { "b", "c" }, false, docMapper.getColumnDefinitions()), not(sameInstance(prepared)));
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,b,c,d) VALUES ('y','foo2','bar2','baz2')");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        assertThat(client().prepareGet("test", "t1", "y").get().getSource().get("d"), equalTo("baz2"));
+        assertThat(client().prepareMultiGet().add("test", "t1", "x", "y").get().getResponses()[1].getResponse().getSource().get("d"), equalTo("baz2"));
+    }
+
+    @Test
+    public void tokenOrderedFetchTest() throws Exception {
+        createIndex("test", Settings.builder().put(IndexMetaData.SETTING_TOKEN_ORDERED_FETCH, true).build());
+        ensureGreen("test");
+        process(ConsistencyLevel.ONE,"CREATE TABLE test.t1 (a text, b int, c text, primary key ((a),b))");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        for(int i=0; i < 20; i++)
+            process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,b,c) VALUES (?,?,?)", "p"+(i % 7), i, "v"+i);
+
+        // hits are read in token order but returned in the requested sort order.
+        long tokenOrderedHits = client().admin().indices().prepareStats("test").setSearch(true).get().getTotal().getSearch().getTotal().getFetchTokenOrderedCount();
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery())
+                .addSort("b", SortOrder.DESC).setSize(20).get();
+        SearchHits hits = rsp.getHits();
+        assertThat(hits.getHits().length, equalTo(20));
+        assertThat(client().admin().indices().prepareStats("test").setSearch(true).get().getTotal().getSearch().getTotal().getFetchTokenOrderedCount() - tokenOrderedHits,
+                equalTo(20L));
+        for(int i=0; i < 20; i++) {
+            assertThat(hits.getHits()[i].getSource().get("b"), equalTo(19 - i));
+            assertThat(hits.getHits()[i].getSource().get("c"), equalTo("v"+(19 - i)));
+        }
+    }
+
+    @Test
+    public void scrollPrefetchTest() throws Exception {
+        createIndex("test", Settings.builder()
+                .put(IndexMetaData.SETTING_SCROLL_PREFETCH, 4)
+                .put(IndexMetaData.SETTING_TOKEN_ORDERED_FETCH, true)
+                .build());
+        ensureGreen("test");
+        process(ConsistencyLevel.ONE,"CREATE TABLE test.t1 (a text, b int, c text, primary key ((a),b))");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        for(int i=0; i < 50; i++)
+            process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,b,c) VALUES (?,?,?)", "p"+(i % 11), i, "v"+i);
+
+        long prefetchedReads = client().admin().indices().prepareStats("test").setSearch(true).get().getTotal().getSearch().getTotal().getFetchPrefetchedCount();
+        Set<String> values = new HashSet<>();
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery())
+                .addSort("_doc", SortOrder.ASC).setScroll(TimeValue.timeValueMinutes(1)).setSize(7).get();
+        while (rsp.getHits().getHits().length > 0) {
+            for(SearchHit hit : rsp.getHits().getHits()) {
+                assertThat(hit.getSource().get("c"), equalTo("v"+hit.getSource().get("b")));
+                values.add((String) hit.getSource().get("c"));
+            }
+            rsp = client().prepareSearchScroll(rsp.getScrollId()).setScroll(TimeValue.timeValueMinutes(1)).get();
+        }
+        client().prepareClearScroll().addScrollId(rsp.getScrollId()).get();
+        assertThat(values.size(), equalTo(50));
+        // every page of 7 hits is read through the prefetcher, the last page of a single hit is read synchronously.
+        assertThat(client().admin().indices().prepareStats("test").setSearch(true).get().getTotal().getSearch().getTotal().getFetchPrefetchedCount() - prefetchedReads,
+                equalTo(49L));
+    }
+
+    @Test
+    public void primaryKeyPushdownTest() throws Exception {
+        createIndex("test", Settings.builder().put(IndexMetaData.SETTING_PRIMARY_KEY_PUSHDOWN, true).build());
+        ensureGreen("test");
+        process(ConsistencyLevel.ONE,"CREATE TABLE test.t1 (a text, b int, c text, primary key ((a),b))");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,b,c) VALUES ('a',1,'x')");
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t1 (a,b,c) VALUES ('a',2,'y')");
+
+        // realtime token-routed read, no refresh needed, recorded in the search stats.
+        long queryCount = client().admin().indices().prepareStats("test").setSearch(true).get().getTotal().getSearch().getTotal().getQueryCount();
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("_id", "[\"a\",2]")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+        assertThat(rsp.getHits().getHits()[0].getId(), equalTo("[\"a\",2]"));
+        assertThat(rsp.getHits().getHits()[0].getSource().get("c"), equalTo("y"));
+        assertThat(client().admin().indices().prepareStats("test").setSearch(true).get().getTotal().getSearch().getTotal().getQueryCount(),
+                equalTo(queryCount + 1));
+
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery("a", "a")).filter(QueryBuilders.termQuery("b", 1))).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+        assertThat(rsp.getHits().getHits()[0].getSource().get("c"), equalTo("x"));
+
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.idsQuery("t1").addIds("[\"a\",3]")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(0L));
+
+        // not fully determined by the primary key, regular search.
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("a", "a")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(2L));
+
+        // named queries need the regular search to report the matched queries.
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.termQuery("_id", "[\"a\",1]").queryName("q")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+        assertThat(rsp.getHits().getHits()[0].getMatchedQueries(), equalTo(new String[] { "q" }));
+    
+        // coerced numeric terms match rows of another _id, regular search.
+        client().admin().indices().prepareRefresh("test").get();
+        for (Object b : new Object[] { "1.0", 1.0d, "01" }) {
+            rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.boolQuery()
+                    .filter(QueryBuilders.termQuery("a", "a")).filter(QueryBuilders.termQuery("b", b))).get();
+            assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+            assertThat(rsp.getHits().getHits()[0].getId(), equalTo("[\"a\",1]"));
+        }
+    }
+
+    @Test
+    public void primaryKeyPushdownNormalizerTest() throws Exception {
+        createIndex("test", Settings.builder().put(IndexMetaData.SETTING_PRIMARY_KEY_PUSHDOWN, true)
+                .put("index.analysis.normalizer.lowercase.type", "custom")
+                .putArray("index.analysis.normalizer.lowercase.filter", "lowercase").build());
+        ensureGreen("test");
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t2")
+                .setSource("{\"t2\":{\"properties\":{\"a\":{\"type\":\"keyword\",\"cql_collection\":\"singleton\",\"cql_primary_key_order\":0,\"cql_partition_key\":true,\"normalizer\":\"lowercase\"},"
+                        + "\"c\":{\"type\":\"keyword\",\"cql_collection\":\"singleton\"}}}}").get());
+        process(ConsistencyLevel.ONE,"INSERT INTO test.t2 (a,c) VALUES ('ABC','x')");
+        client().admin().indices().prepareRefresh("test").get();
+
+        // the normalized term matches the row ABC, not a row abc.
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t2").setQuery(QueryBuilders.termQuery("a", "abc")).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+        assertThat(rsp.getHits().getHits()[0].getId(), equalTo("ABC"));
+    }
+
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.utils.ByteBufferUtil;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * Check that a _source stored as compressed SMILE is decoded by get and search.
+ */
+public class CompressedSourceTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testCompressedSource() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .setSettings(Settings.builder().put(IndexMetaData.SETTING_COMPRESS_SOURCE, true))
+                .addMapping("t1", "{\"t1\":{\"_source\":{\"enabled\":true}}}", XContentType.JSON)
+                .get());
+        ensureGreen("test");
+
+        client().prepareIndex("test", "t1", "1").setSource("{\"name\":\"foo\",\"age\":12,\"tags\":[\"a\",\"b\"]}", XContentType.JSON).get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        UntypedResultSet rs = process(ConsistencyLevel.ONE, "SELECT \"_source\" FROM test.t1 WHERE \"_id\" = '1'");
+        assertThat(rs.size(), equalTo(1));
+        assertThat(CompressorFactory.isCompressed(new BytesArray(ByteBufferUtil.getArray(rs.one().getBytes("_source")))), equalTo(true));
+
+        GetResponse get = client().prepareGet("test", "t1", "1").get();
+        Map<String, Object> source = get.getSourceAsMap();
+        assertThat(source.get("name"), equalTo("foo"));
+        assertThat(source.get("age"), equalTo(12));
+
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).get();
+        assertThat(rsp.getHits().getHits()[0].getSourceAsMap().get("name"), equalTo("foo"));
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).setFetchSource("age", null).get();
+        assertThat(rsp.getHits().getHits()[0].getSourceAsMap().size(), equalTo(1));
+        assertThat(rsp.getHits().getHits()[0].getSourceAsMap().get("age"), equalTo(12));
+    }
+}
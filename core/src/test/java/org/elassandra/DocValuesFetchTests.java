@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+/**
+ * Check that stored fields having doc values are fetched from lucene when docvalues_fetch is enabled.
+ */
+public class DocValuesFetchTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void testDocValuesFetch() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .addMapping("t1", XContentFactory.jsonBuilder().startObject().startObject("t1").startObject("properties")
+                        .startObject("name").field("type", "keyword").field("cql_collection", "singleton").endObject()
+                        .startObject("age").field("type", "long").field("cql_collection", "singleton").endObject()
+                        .startObject("text").field("type", "text").field("cql_collection", "singleton").endObject()
+                        .endObject().endObject().endObject())
+                .get());
+        ensureGreen("test");
+
+        client().prepareIndex("test", "t1", "1").setSource("{\"name\":\"foo\",\"age\":12,\"text\":\"hello world\"}", XContentType.JSON).get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        // per request option
+        SearchResponse rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery())
+                .storedFields("name", "age").setDocValuesFetch(true).get();
+        assertThat(rsp.getHits().getTotalHits(), equalTo(1L));
+        SearchHit hit = rsp.getHits().getHits()[0];
+        assertThat(hit.getId(), equalTo("1"));
+        assertThat(hit.getSourceRef(), nullValue());
+        assertThat(hit.field("name").getValue(), equalTo("foo"));
+        assertThat(hit.field("age").getValue(), equalTo(12L));
+
+        // text field has no doc values, fallback to a cassandra fetch.
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery())
+                .storedFields("name", "text").setDocValuesFetch(true).get();
+        hit = rsp.getHits().getHits()[0];
+        assertThat(hit.field("name").getValue(), equalTo("foo"));
+        assertThat(hit.field("text").getValue(), equalTo("hello world"));
+
+        // index default, overridden by the request.
+        assertAcked(client().admin().indices().prepareUpdateSettings("test")
+                .setSettings(Settings.builder().put(IndexMetaData.SETTING_DOCVALUES_FETCH, true)).get());
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).storedFields("age").get();
+        assertThat(rsp.getHits().getHits()[0].field("age").getValue(), equalTo(12L));
+        rsp = client().prepareSearch("test").setTypes("t1").setQuery(QueryBuilders.matchAllQuery()).storedFields("age").setDocValuesFetch(false).get();
+        assertThat(((Number)rsp.getHits().getHits()[0].field("age").getValue()).longValue(), equalTo(12L));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.elassandra.action.export.ExportAction;
+import org.elassandra.action.export.ExportRequest;
+import org.elassandra.action.export.ExportResponse;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Token range export tests.
+ */
+public class ExportTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void exportTest() throws Exception {
+        createIndex("test");
+        ensureGreen("test");
+
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS test.t1 ( a int, b int, c text, primary key ((a),b) )");
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("t1").field("discover",".*").endObject().endObject();
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource(mapping).get());
+
+        int N = 100;
+        for(int i=0 ; i < N; i++) {
+            for(int j=0; j < 3; j++)
+                process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?)", i, j, (i % 2 == 0) ? "even" : "odd");
+        }
+
+        // export all rows by pages of 10 rows.
+        assertThat(exportAll(10), equalTo(3*N));
+
+        // export filtered rows in one page.
+        client().admin().indices().prepareRefresh("test").get();
+        ExportResponse response = client().execute(ExportAction.INSTANCE,
+                new ExportRequest("test", "t1").query(QueryBuilders.termQuery("c", "even")).size(10*N)).get();
+        assertThat(response.nextToken(), nullValue());
+        assertThat(response.hits().size(), equalTo(3*N/2));
+    }
+
+    @Test
+    public void exportWidePartitionTest() throws Exception {
+        createIndex("test");
+        ensureGreen("test");
+
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS test.t1 ( a int, b int, c text, primary key ((a),b) )");
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("t1").field("discover",".*").endObject().endObject();
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource(mapping).get());
+
+        // partitions wider than the page size.
+        int N = 5;
+        int W = 25;
+        for(int i=0 ; i < N; i++) {
+            for(int j=0; j < W; j++)
+                process(ConsistencyLevel.ONE,"insert into test.t1 (a,b,c) VALUES (?,?,?)", i, j, (j % 2 == 0) ? "even" : "odd");
+        }
+
+        assertThat(exportAll(10), equalTo(N*W));
+        assertThat(exportAll(W), equalTo(N*W));
+
+        // a page never reads more rows than its size.
+        ExportResponse response = client().execute(ExportAction.INSTANCE, new ExportRequest("test", "t1").size(10)).get();
+        assertThat(response.hits().size(), equalTo(10));
+        assertThat(response.nextAfter(), notNullValue());
+
+        // filtered rows of wide partitions.
+        client().admin().indices().prepareRefresh("test").get();
+        Set<String> ids = new HashSet<String>();
+        Long token = Long.MIN_VALUE;
+        String after = null;
+        do {
+            response = client().execute(ExportAction.INSTANCE,
+                    new ExportRequest("test", "t1").query(QueryBuilders.termQuery("c", "even")).token(token).after(after).size(10)).get();
+            assertThat(response.hits().size() <= 10, equalTo(true));
+            for(ExportResponse.Hit hit : response.hits())
+                assertThat(ids.add(hit.id()), equalTo(true));
+            token = response.nextToken();
+            after = response.nextAfter();
+        } while (token != null);
+        assertThat(ids.size(), equalTo(N*((W+1)/2)));
+
+        assertThat(new ExportRequest("test", "t1").size(ExportRequest.MAX_SIZE + 1).validate(), notNullValue());
+    }
+
+    /**
+     * Export all rows of test.t1 by pages, and check that rows are exported once in token order.
+     * @return the number of exported rows.
+     */
+    private int exportAll(int size) throws Exception {
+        Set<String> ids = new HashSet<String>();
+        long lastToken = Long.MIN_VALUE;
+        Long token = Long.MIN_VALUE;
+        String after = null;
+        do {
+            ExportResponse response = client().execute(ExportAction.INSTANCE, new ExportRequest("test", "t1").token(token).after(after).size(size)).get();
+            assertThat(response.hits().size() <= size, equalTo(true));
+            for(ExportResponse.Hit hit : response.hits()) {
+                assertThat(hit.token() >= lastToken, equalTo(true));
+                lastToken = hit.token();
+                assertThat(ids.add(hit.id()), equalTo(true));
+            }
+            token = response.nextToken();
+            after = response.nextAfter();
+            if (token != null)
+                assertThat(token, greaterThan(Long.MIN_VALUE));
+        } while (token != null);
+        return ids.size();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.service.StorageService;
+import org.elassandra.cluster.routing.AbstractSearchStrategy;
+import org.elassandra.cluster.routing.RingSnapshot;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+/**
+ * Check that routers of indices mapped to the same keyspace share the same ring snapshot, and that it is dropped with the keyspace.
+ */
+public class RingSnapshotTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void sharedRingSnapshotTest() throws Exception {
+        createIndex("ks1", Settings.builder().put(IndexMetaData.SETTING_KEYSPACE, "ks").build());
+        createIndex("ks2", Settings.builder().put(IndexMetaData.SETTING_KEYSPACE, "ks").build());
+        ensureGreen("ks1", "ks2");
+
+        RingSnapshot ring = RingSnapshot.of("ks");
+        assertThat(ring.ringVersion(), equalTo(StorageService.instance.getTokenMetadata().getRingVersion()));
+        assertThat(RingSnapshot.of("ks"), sameInstance(ring));
+        assertThat(ring.size(), equalTo(StorageService.instance.getTokenMetadata().sortedTokens().size()));
+
+        ClusterState state = clusterService().state();
+        AbstractSearchStrategy.Router router1 = clusterService().updateRouter(state.metaData().index("ks1"), state);
+        AbstractSearchStrategy.Router router2 = clusterService().updateRouter(state.metaData().index("ks2"), state);
+        assertThat(router1.isConsistent(), equalTo(true));
+        assertThat(router2.isConsistent(), equalTo(true));
+        assertThat(RingSnapshot.of("ks"), sameInstance(ring));
+
+        RingSnapshot.invalidate("ks");
+        assertThat(RingSnapshot.of("ks").ringVersion(), equalTo(ring.ringVersion()));
+    }
+
+    @Test
+    public void invalidateRingSnapshotTest() throws Exception {
+        createIndex("ks1", Settings.builder().put(IndexMetaData.SETTING_KEYSPACE, "ks").build());
+        ensureGreen("ks1");
+
+        // deleting an index drops the snapshot of its keyspace.
+        RingSnapshot.of("ks");
+        assertThat(RingSnapshot.cached("ks"), notNullValue());
+        assertAcked(client().admin().indices().prepareDelete("ks1").get());
+        assertThat(RingSnapshot.cached("ks"), nullValue());
+
+        // dropping a keyspace drops its snapshot.
+        process(ConsistencyLevel.ONE, "CREATE KEYSPACE ks3 WITH replication = {'class': 'NetworkTopologyStrategy', '" + DatabaseDescriptor.getLocalDataCenter() + "': '1'}");
+        RingSnapshot.of("ks3");
+        assertThat(RingSnapshot.cached("ks3"), notNullValue());
+        process(ConsistencyLevel.ONE, "DROP KEYSPACE ks3");
+        assertThat(RingSnapshot.cached("ks3"), nullValue());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.elassandra;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.elassandra.index.mapper.RowXContentSerializer;
+import org.elassandra.index.mapper.internal.NodeFieldMapper;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * Check that rows serialized by the {@link RowXContentSerializer} match documents built from {@link ClusterService#rowAsMap}.
+ */
+public class RowXContentSerializerTests extends ESSingleNodeTestCase {
+
+    @Test
+    public void rowSerializerTest() throws Exception {
+        IndexService indexService = createIndex("ks1");
+        ensureGreen("ks1");
+
+        process(ConsistencyLevel.ONE,"CREATE TABLE ks1.t1 (a text, b int, c timestamp, d bigint, e double, f boolean, g uuid, h timeuuid, i inet, j list<text>, k set<int>, l map<text,int>, primary key ((a),b))");
+        assertAcked(client().admin().indices().preparePutMapping("ks1").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        process(ConsistencyLevel.ONE,"INSERT INTO ks1.t1 (a,b,c,d,e,f,g,h,i,j,k,l) VALUES ('x',1,'2017-11-11',12,1.5,true,ae8c9260-dd02-11e6-b9d5-bbfb41c263ba,ae8c9260-dd02-11e6-b9d5-bbfb41c263ba,'127.0.0.1',['v1','v2'],{1,2,3},{'m1':1,'m2':2})");
+        process(ConsistencyLevel.ONE,"INSERT INTO ks1.t1 (a,b,d,j,k) VALUES ('y',2,13,['v1'],{4})");
+
+        DocumentMapper docMapper = indexService.mapperService().documentMapper("t1");
+        UntypedResultSet rs = process(ConsistencyLevel.ONE,"SELECT * FROM ks1.t1");
+        assertThat(rs.size(), equalTo(2));
+        for(UntypedResultSet.Row row : rs) {
+            Map<String, Object> expected = XContentHelper.convertToMap(
+                    ClusterService.buildDocument(docMapper, clusterService().rowAsMap(indexService, "t1", row), true).bytes(), true, XContentType.JSON).v2();
+            RowXContentSerializer serializer = docMapper.getRowSerializer(row.getColumns(), false);
+            assertThat(docMapper.getRowSerializer(row.getColumns(), false), sameInstance(serializer));
+            assertThat(XContentHelper.convertToMap(serializer.toXContent(row, XContentType.JSON), true, XContentType.JSON).v2(), equalTo(expected));
+            assertThat(XContentHelper.convertToMap(serializer.toXContent(row, XContentType.SMILE), true, XContentType.SMILE).v2(), equalTo(expected));
+        }
+
+        GetResponse response = client().prepareGet("ks1", "t1", "[\"y\",2]").get();
+        assertThat(response.isExists(), equalTo(true));
+        assertThat(response.getSource().get("d"), equalTo(13));
+        assertThat(response.getSource().get("j"), equalTo("v1"));
+        assertThat(client().prepareSearch("ks1").setTypes("t1").get().getHits().getHits()[0].getSource().containsKey("a"), equalTo(true));
+    }
+
+    @Test
+    public void includeNodeIdTest() throws Exception {
+        IndexService indexService = createIndex("ks2", Settings.builder().put(IndexMetaData.SETTING_INCLUDE_NODE_ID, true).build());
+        ensureGreen("ks2");
+
+        process(ConsistencyLevel.ONE,"CREATE TABLE ks2.t1 (a text, b int, c text, primary key ((a),b))");
+        assertAcked(client().admin().indices().preparePutMapping("ks2").setType("t1").setSource("{\"t1\":{\"discover\":\".*\"}}").get());
+        process(ConsistencyLevel.ONE,"INSERT INTO ks2.t1 (a,b,c) VALUES ('x',1,'foo')");
+
+        DocumentMapper docMapper = indexService.mapperService().documentMapper("t1");
+        UntypedResultSet.Row row = process(ConsistencyLevel.ONE,"SELECT a,b,c FROM ks2.t1").one();
+        Map<String, Object> source = XContentHelper.convertToMap(
+                docMapper.getRowSerializer(row.getColumns(), false).toXContent(row, XContentType.JSON, "node1"), true, XContentType.JSON).v2();
+        assertThat(source.get(NodeFieldMapper.NAME), equalTo("node1"));
+        assertThat(source.get("c"), equalTo("foo"));
+
+        // _source of search hits rebuilt from the row includes the _node field.
+        String localNodeId = clusterService().localNode().getId();
+        SearchHit hit = client().prepareSearch("ks2").setTypes("t1").get().getHits().getHits()[0];
+        assertThat(hit.getSource().get(NodeFieldMapper.NAME), equalTo(localNodeId));
+        assertThat(hit.getSource().get("c"), equalTo("foo"));
+    }
+}
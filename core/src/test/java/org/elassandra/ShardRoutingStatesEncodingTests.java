@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.elassandra.discovery.ShardRoutingStatesEncoding;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.routing.ShardRoutingState;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+public class ShardRoutingStatesEncodingTests extends ESTestCase {
+
+    private MetaData metaData(long version, int numIndices) {
+        MetaData.Builder metaDataBuilder = MetaData.builder().clusterUUID("cluster").version(version);
+        for (int i = 0; i < numIndices; i++) {
+            metaDataBuilder.put(IndexMetaData.builder("index" + i)
+                    .settings(Settings.builder()
+                            .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                            .put(IndexMetaData.SETTING_INDEX_UUID, UUIDs.randomBase64UUID()))
+                    .numberOfShards(1)
+                    .numberOfReplicas(0));
+        }
+        return metaDataBuilder.build();
+    }
+
+    public void testEncodeDecode() throws Exception {
+        int numIndices = randomIntBetween(0, 100);
+        MetaData metaData = metaData(randomIntBetween(1, 1000), numIndices);
+        Map<String, ShardRoutingState> states = new HashMap<>();
+        for (int i = 0; i < numIndices; i++) {
+            ShardRoutingState state = randomFrom(ShardRoutingState.values());
+            if (state != ShardRoutingState.UNASSIGNED)
+                states.put("index" + i, state);
+        }
+        long generation = randomIntBetween(1, 1000);
+        String value = ShardRoutingStatesEncoding.encode(generation, metaData, states);
+        assertThat(ShardRoutingStatesEncoding.generation(value), equalTo(generation));
+        assertThat(ShardRoutingStatesEncoding.metaDataVersion(value), equalTo(metaData.version()));
+        assertThat(ShardRoutingStatesEncoding.decode(value, metaData), equalTo(states));
+
+        // ordinals cannot be resolved with another metadata version.
+        assertThat(ShardRoutingStatesEncoding.decode(value, metaData(metaData.version() + 1, numIndices)), nullValue());
+    }
+
+    public void testEmptyAndLegacy() throws Exception {
+        MetaData metaData = metaData(3, 2);
+        assertThat(ShardRoutingStatesEncoding.decode(ShardRoutingStatesEncoding.encodeEmpty(5), metaData).isEmpty(), equalTo(true));
+        assertThat(ShardRoutingStatesEncoding.decode(ShardRoutingStatesEncoding.EMPTY_LEGACY, metaData).isEmpty(), equalTo(true));
+        assertThat(ShardRoutingStatesEncoding.decode("{\"index0\":3}", metaData), equalTo(Collections.singletonMap("index0", ShardRoutingState.STARTED)));
+    }
+
+    public void testDiff() {
+        Map<String, ShardRoutingState> previous = new HashMap<>();
+        previous.put("a", ShardRoutingState.STARTED);
+        previous.put("b", ShardRoutingState.INITIALIZING);
+        previous.put("c", ShardRoutingState.UNASSIGNED);
+        Map<String, ShardRoutingState> current = new HashMap<>();
+        current.put("a", ShardRoutingState.STARTED);
+        current.put("b", ShardRoutingState.STARTED);
+        current.put("d", ShardRoutingState.STARTED);
+        assertThat(ShardRoutingStatesEncoding.diff(previous, current), equalTo(new HashSet<>(Arrays.asList("b", "d"))));
+        assertThat(ShardRoutingStatesEncoding.diff(current, null), equalTo(new HashSet<>(Arrays.asList("a", "b", "d"))));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017 Strapdata (http://www.strapdata.com)
+ * Contains some code from Elasticsearch (http://www.elastic.co)
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.elassandra;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.service.StorageService;
+import org.elassandra.index.mapper.internal.TokenFieldMapper;
+import org.elassandra.search.aggregations.bucket.token.TokenRangeAggregationBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.bucket.range.Range;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.junit.Test;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Check token_range aggregation bucket counts computed from points (match_all or _token range query)
+ * are the same as counts computed from doc values.
+ */
+public class TokenRangeAggregationTests extends ESSingleNodeTestCase {
+
+    private long[] bucketCounts(QueryBuilder query) {
+        TokenRangeAggregationBuilder aggregation = new TokenRangeAggregationBuilder("tokens").field(TokenFieldMapper.NAME);
+        long step = 1L << 61;
+        for(int i=0; i < 7; i++)
+            aggregation.addRange(Long.MIN_VALUE + i * step, Long.MIN_VALUE + (i + 1) * step);
+        aggregation.addRange(Long.MIN_VALUE + 7 * step, Long.MAX_VALUE);
+        SearchResponse response = client().prepareSearch("test").setTypes("t1").setQuery(query).setSize(0).addAggregation(aggregation).get();
+        Range range = response.getAggregations().get("tokens");
+        long[] counts = new long[range.getBuckets().size()];
+        for(int i=0; i < counts.length; i++)
+            counts[i] = range.getBuckets().get(i).getDocCount();
+        return counts;
+    }
+
+    @Test
+    public void pointCountTest() throws Exception {
+        createIndex("test");
+        ensureGreen("test");
+
+        process(ConsistencyLevel.ONE,"CREATE TABLE IF NOT EXISTS test.t1 ( a int, b text, primary key (a) )");
+        XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject("t1").field("discover",".*").endObject().endObject();
+        assertAcked(client().admin().indices().preparePutMapping("test").setType("t1").setSource(mapping).get());
+
+        int N = 200;
+        for(int i=0 ; i < N; i++)
+            process(ConsistencyLevel.ONE,"insert into test.t1 (a,b) VALUES (?,?)", i, "x");
+        StorageService.instance.forceKeyspaceFlush("test","t1");
+        client().admin().indices().prepareRefresh("test").get();
+
+        long[] counts = bucketCounts(QueryBuilders.existsQuery("b"));
+        long total = 0;
+        for(long count : counts)
+            total += count;
+        assertThat(total, equalTo((long)N));
+        assertThat(bucketCounts(QueryBuilders.matchAllQuery()), equalTo(counts));
+
+        long[] filteredCounts = bucketCounts(QueryBuilders.boolQuery().must(QueryBuilders.existsQuery("b")).filter(QueryBuilders.rangeQuery(TokenFieldMapper.NAME).gte(0L)));
+        assertThat(bucketCounts(QueryBuilders.rangeQuery(TokenFieldMapper.NAME).gte(0L)), equalTo(filteredCounts));
+
+        // segments with deleted documents are collected from doc values.
+        for(int i=0 ; i < N; i+=2)
+            process(ConsistencyLevel.ONE,"delete from test.t1 WHERE a = ?", i);
+        client().admin().indices().prepareRefresh("test").get();
+        assertThat(bucketCounts(QueryBuilders.matchAllQuery()), equalTo(bucketCounts(QueryBuilders.existsQuery("b"))));
+    }
+}
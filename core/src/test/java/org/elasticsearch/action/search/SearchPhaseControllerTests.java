@@ -34,16 +34,22 @@ import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.metrics.max.InternalMax;
+import org.elasticsearch.search.aggregations.metrics.min.InternalMin;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.profile.ProfileShardResult;
+import org.elasticsearch.search.profile.ReduceProfileResult;
+import org.elasticsearch.search.profile.aggregation.AggregationProfileShardResult;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.TestCluster;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Before;
 
 import java.io.IOException;
@@ -51,6 +57,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -460,6 +467,49 @@ public class SearchPhaseControllerTests extends ESTestCase {
         }
     }
 
+    public void testConcurrentReduce() throws Exception {
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            Settings settings = Settings.builder().put(SearchPhaseController.CONCURRENT_REDUCE_SETTING.getKey(), true).build();
+            SearchPhaseController controller = new SearchPhaseController(settings, BigArrays.NON_RECYCLING_INSTANCE, null, threadPool);
+            int numResults = randomIntBetween(2, 20);
+            int max = Integer.MIN_VALUE;
+            int min = Integer.MAX_VALUE;
+            List<SearchPhaseResult> results = new ArrayList<>();
+            for (int i = 0; i < numResults; i++) {
+                int number = randomIntBetween(1, 1000);
+                max = Math.max(max, number);
+                min = Math.min(min, number);
+                QuerySearchResult result = new QuerySearchResult(i, new SearchShardTarget("node", new Index("a", "b"), i));
+                result.topDocs(new TopDocs(1, new ScoreDoc[] {new ScoreDoc(0, number)}, number), new DocValueFormat[0]);
+                result.aggregations(new InternalAggregations(Arrays.asList(
+                    new InternalMax("max", number, DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap()),
+                    new InternalMin("min", number, DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap()))));
+                result.profileResults(new ProfileShardResult(Collections.emptyList(),
+                    new AggregationProfileShardResult(Collections.emptyList())));
+                result.setShardIndex(i);
+                result.size(1);
+                results.add(result);
+            }
+
+            SearchPhaseController.ReducedQueryPhase reduce = controller.reducedQueryPhase(results, false);
+            assertEquals(numResults, reduce.totalHits);
+            assertEquals(1, reduce.scoreDocs.length);
+            assertEquals(max, reduce.scoreDocs[0].score, 0.0f);
+            assertEquals(max, ((InternalMax) reduce.aggregations.get("max")).getValue(), 0.0D);
+            assertEquals(min, ((InternalMin) reduce.aggregations.get("min")).getValue(), 0.0D);
+
+            ReduceProfileResult reduceProfile = reduce.shardResults.getReduceResult();
+            assertNotNull(reduceProfile);
+            assertTrue(reduceProfile.isConcurrent());
+            assertEquals(numResults, reduce.shardResults.getShardResults().size());
+            assertThat(reduceProfile.getAggregations().keySet(), equalTo(new HashSet<>(Arrays.asList("max", "min"))));
+            assertTrue(reduceProfile.getBreakdown().containsKey(ReduceProfileResult.TOP_DOCS));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
     public void testReduceTopNWithFromOffset() {
         SearchRequest request = new SearchRequest();
         request.source(new SearchSourceBuilder().size(5).from(5));
@@ -355,6 +355,36 @@ public class CacheTests extends ESTestCase {
     }
 
 
+    // promote more entries than a read buffer can hold, then check that the buffered promotions are replayed in order
+    // before the next insertion evicts entries
+    public void testBufferedPromotionOrder() {
+        int maximumWeight = randomIntBetween(4 * Cache.ReadBuffer.SIZE, numberOfEntries);
+        List<Integer> evictedKeys = new ArrayList<>();
+        Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(maximumWeight)
+                        .removalListener(notification -> evictedKeys.add(notification.getKey()))
+                        .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        int promoted = maximumWeight / 2;
+        for (int i = 0; i < promoted; i++) {
+            assertEquals(Integer.toString(i), cache.get(i));
+        }
+        for (int i = 0; i < maximumWeight - promoted; i++) {
+            cache.put(maximumWeight + i, Integer.toString(maximumWeight + i));
+        }
+        assertEquals(maximumWeight, cache.count());
+        assertEquals(maximumWeight - promoted, evictedKeys.size());
+        for (int i = 0; i < evictedKeys.size(); i++) {
+            assertEquals(promoted + i, (int) evictedKeys.get(i));
+        }
+        for (int i = 0; i < promoted; i++) {
+            assertNotNull(cache.get(i));
+        }
+    }
+
     // randomly invalidate some cached entries, then check that a lookup for each of those and only those keys is null
     public void testInvalidate() {
         Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.apache.lucene.util.TestUtil;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class Lz4CompressTests extends ESTestCase {
+
+    private final Compressor compressor = new Lz4Compressor();
+
+    public void testRandom() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            byte bytes[] = new byte[TestUtil.nextInt(random(), 1, 300000)];
+            random().nextBytes(bytes);
+            BytesReference compressed = compress(compressor, bytes);
+            assertTrue(compressor.isCompressed(compressed));
+            try (StreamInput in = compressor.streamInput(compressed.streamInput())) {
+                byte uncompressed[] = new byte[bytes.length];
+                in.readBytes(uncompressed, 0, uncompressed.length);
+                assertArrayEquals(bytes, uncompressed);
+                assertEquals(-1, in.read());
+            }
+        }
+    }
+
+    public void testHeaderDetection() throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject().field("field", randomAlphaOfLength(1000)).endObject();
+        BytesReference json = builder.bytes();
+        BytesReference lz4 = compress(CompressorFactory.LZ4, BytesReference.toBytes(json));
+        BytesReference deflate = compress(CompressorFactory.DEFLATE, BytesReference.toBytes(json));
+
+        assertThat(CompressorFactory.compressor(lz4), sameInstance(CompressorFactory.LZ4));
+        assertThat(CompressorFactory.compressor(deflate), sameInstance(CompressorFactory.DEFLATE));
+        assertNull(CompressorFactory.compressor(json));
+        assertFalse(CompressorFactory.DEFLATE.isCompressed(lz4));
+        assertThat(CompressorFactory.uncompressIfNeeded(lz4), equalTo(json));
+        assertThat(CompressorFactory.uncompressIfNeeded(deflate), equalTo(json));
+        assertThat(new CompressedXContent(lz4).string(), equalTo(json.utf8ToString()));
+    }
+
+    public void testCompressionScheme() {
+        assertThat(CompressorFactory.compressor("deflate"), sameInstance(CompressorFactory.DEFLATE));
+        assertThat(CompressorFactory.compressor("lz4"), sameInstance(CompressorFactory.LZ4));
+        expectThrows(IllegalArgumentException.class, () -> CompressorFactory.compressor("snappy"));
+    }
+
+    private static BytesReference compress(Compressor compressor, byte[] bytes) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (StreamOutput compressedOut = compressor.streamOutput(out)) {
+            compressedOut.writeBytes(bytes);
+        }
+        return out.bytes();
+    }
+}
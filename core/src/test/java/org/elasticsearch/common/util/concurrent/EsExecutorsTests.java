@@ -21,6 +21,7 @@ package org.elasticsearch.common.util.concurrent;
 
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matcher;
 
@@ -381,4 +382,104 @@ public class EsExecutorsTests extends ESTestCase {
         }
 
     }
+
+    public void testAutoQueueFixedCapacityAdjustments() throws InterruptedException {
+        QueueResizingEsThreadPoolExecutor executor = EsExecutors.newAutoQueueFixed(getTestName(), 1, 10, 100,
+            TimeValue.timeValueMillis(100), TimeValue.timeValueHours(1), EsExecutors.daemonThreadFactory("dummy"), threadContext);
+        try {
+            assertThat(executor.getQueueCapacity(), equalTo(100));
+
+            // standing queue, capacity is halved down to the min queue size
+            executor.adjustQueueCapacity(TimeUnit.MILLISECONDS.toNanos(200));
+            assertThat(executor.getQueueCapacity(), equalTo(50));
+            executor.adjustQueueCapacity(TimeUnit.MILLISECONDS.toNanos(200));
+            executor.adjustQueueCapacity(TimeUnit.MILLISECONDS.toNanos(200));
+            executor.adjustQueueCapacity(TimeUnit.MILLISECONDS.toNanos(200));
+            assertThat(executor.getQueueCapacity(), equalTo(10));
+            assertThat(executor.getQueueAdjustments(), equalTo(4L));
+            assertThat(executor.getLastMinQueueTimeNanos(), equalTo(TimeUnit.MILLISECONDS.toNanos(200)));
+
+            // below the target, capacity grows by steps up to the max queue size
+            executor.adjustQueueCapacity(TimeUnit.MILLISECONDS.toNanos(10));
+            assertThat(executor.getQueueCapacity(), equalTo(19));
+            for (int i = 0; i < 20; i++) {
+                executor.adjustQueueCapacity(0);
+            }
+            assertThat(executor.getQueueCapacity(), equalTo(100));
+
+            // no task ran during the interval
+            executor.adjustQueueCapacity(Long.MAX_VALUE);
+            assertThat(executor.getQueueCapacity(), equalTo(100));
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    public void testAutoQueueFixedRejectedAndForced() throws Exception {
+        QueueResizingEsThreadPoolExecutor executor = EsExecutors.newAutoQueueFixed(getTestName(), 1, 0, 1,
+            TimeValue.timeValueMillis(1), TimeValue.timeValueHours(1), EsExecutors.daemonThreadFactory("dummy"), threadContext);
+        final CountDownLatch wait = new CountDownLatch(1);
+        final CountDownLatch executed = new CountDownLatch(3);
+        try {
+            final Runnable blocking = () -> {
+                try {
+                    wait.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                executed.countDown();
+            };
+            executor.execute(blocking);
+            executor.execute(executed::countDown);
+            expectThrows(EsRejectedExecutionException.class, () -> executor.execute(() -> fail("should be rejected")));
+
+            final AtomicBoolean rejected = new AtomicBoolean();
+            final AtomicBoolean after = new AtomicBoolean();
+            executor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    fail("should be rejected");
+                }
+
+                @Override
+                public void onRejection(Exception e) {
+                    rejected.set(true);
+                }
+
+                @Override
+                public void onAfter() {
+                    after.set(true);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            assertThat(rejected.get(), equalTo(true));
+            assertThat(after.get(), equalTo(true));
+
+            executor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    executed.countDown();
+                }
+
+                @Override
+                public boolean isForceExecution() {
+                    return true;
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            wait.countDown();
+            executed.await();
+        } finally {
+            wait.countDown();
+            terminate(executor);
+        }
+    }
 }
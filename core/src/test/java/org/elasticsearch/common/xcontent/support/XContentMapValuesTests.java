@@ -36,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
@@ -601,4 +602,38 @@ public class XContentMapValuesTests extends ESTestCase {
         expected.put("photosCount", 2);
         assertEquals(expected, filtered);
     }
+
+    public void testFilterTopLevel() {
+        Predicate<String> filter = XContentMapValues.filterTopLevel(new String[] {"obj.field1", "photos*"}, new String[] {"photosCount", "obj.field2"});
+        assertTrue(filter.test("obj"));
+        assertTrue(filter.test("photos"));
+        assertFalse(filter.test("photosCount"));
+        assertFalse(filter.test("other"));
+
+        filter = XContentMapValues.filterTopLevel(new String[0], new String[] {"obj"});
+        assertFalse(filter.test("obj"));
+        assertTrue(filter.test("objects"));
+        assertTrue(filter.test("other"));
+
+        // the projected top-level keys must be enough to build the filtered map
+        Map<String, Object> obj = new HashMap<>();
+        obj.put("field1", 1);
+        obj.put("field2", 2);
+        Map<String, Object> map = new HashMap<>();
+        map.put("obj", obj);
+        map.put("photos", 3);
+        map.put("photosCount", 4);
+        map.put("other", 5);
+        String[] includes = new String[] {"obj.*", "photos"};
+        String[] excludes = new String[] {"obj.field2"};
+        filter = XContentMapValues.filterTopLevel(includes, excludes);
+        Map<String, Object> projected = new HashMap<>();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (filter.test(entry.getKey())) {
+                projected.put(entry.getKey(), entry.getValue());
+            }
+        }
+        assertEquals(XContentMapValues.filter(map, includes, excludes), XContentMapValues.filter(projected, includes, excludes));
+        assertEquals(2, projected.size());
+    }
 }
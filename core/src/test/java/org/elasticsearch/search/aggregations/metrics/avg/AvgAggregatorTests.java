@@ -100,6 +100,25 @@ public class AvgAggregatorTests extends AggregatorTestCase {
         });
     }
 
+    public void testSingleValuedBlocks() throws IOException {
+        final int numDocs = randomIntBetween(1, 2000);
+        final long[] sumAndCount = new long[2];
+        testCase(new MatchAllDocsQuery(), iw -> {
+            for (int i = 0; i < numDocs; i++) {
+                if (randomInt(4) == 0) {
+                    iw.addDocument(singleton(new NumericDocValuesField("wrong_number", i)));
+                } else {
+                    long value = randomIntBetween(-1000, 1000);
+                    sumAndCount[0] += value;
+                    sumAndCount[1]++;
+                    iw.addDocument(singleton(new NumericDocValuesField("number", value)));
+                }
+            }
+        }, avg -> {
+            assertEquals(sumAndCount[1] == 0 ? Double.NaN : (double) sumAndCount[0] / sumAndCount[1], avg.getValue(), 0.000001);
+        });
+    }
+
     private void testCase(Query query, CheckedConsumer<RandomIndexWriter, IOException> buildIndex, Consumer<InternalAvg> verify)
             throws IOException {
         Directory directory = newDirectory();
@@ -0,0 +1,184 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.search.aggregations.metrics.stats;
+
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.search.FieldValueQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.CheckedConsumer;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorTestCase;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.support.ValueType;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static java.util.Collections.singleton;
+
+public class StatsAggregatorTests extends AggregatorTestCase {
+
+    public void testNoDocs() throws IOException {
+        testCase(new MatchAllDocsQuery(), iw -> {
+            // Intentionally not writing any docs
+        }, stats -> {
+            assertEquals(0, stats.getCount());
+            assertEquals(0, stats.getSum(), 0);
+            assertEquals(Double.POSITIVE_INFINITY, stats.getMin(), 0);
+            assertEquals(Double.NEGATIVE_INFINITY, stats.getMax(), 0);
+        });
+    }
+
+    public void testSomeMatchesNumericDocValues() throws IOException {
+        testCase(new FieldValueQuery("number"), iw -> {
+            iw.addDocument(singleton(new NumericDocValuesField("number", 7)));
+            iw.addDocument(singleton(new NumericDocValuesField("number", 2)));
+            iw.addDocument(singleton(new NumericDocValuesField("number", 3)));
+        }, stats -> {
+            assertEquals(3, stats.getCount());
+            assertEquals(12, stats.getSum(), 0);
+            assertEquals(2, stats.getMin(), 0);
+            assertEquals(7, stats.getMax(), 0);
+            assertEquals(4, stats.getAvg(), 0);
+        });
+    }
+
+    public void testMultiValued() throws IOException {
+        testCase(new MatchAllDocsQuery(), iw -> {
+            iw.addDocument(Arrays.asList(new SortedNumericDocValuesField("number", 7), new SortedNumericDocValuesField("number", 1)));
+            iw.addDocument(singleton(new SortedNumericDocValuesField("number", 4)));
+        }, stats -> {
+            assertEquals(3, stats.getCount());
+            assertEquals(12, stats.getSum(), 0);
+            assertEquals(1, stats.getMin(), 0);
+            assertEquals(7, stats.getMax(), 0);
+        });
+    }
+
+    public void testSingleValuedBlocks() throws IOException {
+        final int numDocs = randomIntBetween(1, 2000);
+        final SimpleStats expected = new SimpleStats();
+        testCase(new MatchAllDocsQuery(), iw -> {
+            for (int i = 0; i < numDocs; i++) {
+                if (randomInt(4) == 0) {
+                    iw.addDocument(singleton(new NumericDocValuesField("wrong_number", i)));
+                } else {
+                    long value = randomIntBetween(-1000, 1000);
+                    expected.add(value);
+                    iw.addDocument(singleton(new NumericDocValuesField("number", value)));
+                }
+            }
+        }, expected::assertEquals);
+    }
+
+    public void testSingleValuedBlocksInBuckets() throws IOException {
+        final int numGroups = randomIntBetween(2, 10);
+        final int numDocs = randomIntBetween(1, 2000);
+        final SimpleStats[] expected = new SimpleStats[numGroups];
+        for (int i = 0; i < numGroups; i++) {
+            expected[i] = new SimpleStats();
+        }
+        Directory directory = newDirectory();
+        RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory);
+        for (int i = 0; i < numDocs; i++) {
+            int group = randomInt(numGroups - 1);
+            if (randomInt(4) == 0) {
+                indexWriter.addDocument(singleton(new NumericDocValuesField("group", group)));
+            } else {
+                long value = randomIntBetween(-1000, 1000);
+                expected[group].add(value);
+                indexWriter.addDocument(Arrays.asList(new NumericDocValuesField("group", group), new NumericDocValuesField("number", value)));
+            }
+        }
+        indexWriter.close();
+
+        IndexReader indexReader = DirectoryReader.open(directory);
+        IndexSearcher indexSearcher = newSearcher(indexReader, true, true);
+
+        TermsAggregationBuilder aggregationBuilder = new TermsAggregationBuilder("_terms", ValueType.LONG).field("group")
+            .size(numGroups).collectMode(randomFrom(Aggregator.SubAggCollectionMode.values()))
+            .subAggregation(AggregationBuilders.stats("_name").field("number"));
+        MappedFieldType groupFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        groupFieldType.setName("group");
+        MappedFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName("number");
+        Terms terms = search(indexSearcher, new MatchAllDocsQuery(), aggregationBuilder, groupFieldType, fieldType);
+        for (Terms.Bucket bucket : terms.getBuckets()) {
+            expected[bucket.getKeyAsNumber().intValue()].assertEquals(bucket.getAggregations().get("_name"));
+        }
+        indexReader.close();
+        directory.close();
+    }
+
+    private void testCase(Query query, CheckedConsumer<RandomIndexWriter, IOException> buildIndex, Consumer<InternalStats> verify)
+            throws IOException {
+        Directory directory = newDirectory();
+        RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory);
+        buildIndex.accept(indexWriter);
+        indexWriter.close();
+
+        IndexReader indexReader = DirectoryReader.open(directory);
+        IndexSearcher indexSearcher = newSearcher(indexReader, true, true);
+
+        StatsAggregationBuilder aggregationBuilder = new StatsAggregationBuilder("_name").field("number");
+        MappedFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName("number");
+        try (StatsAggregator aggregator = createAggregator(aggregationBuilder, indexSearcher, fieldType)) {
+            aggregator.preCollection();
+            indexSearcher.search(query, aggregator);
+            aggregator.postCollection();
+            verify.accept((InternalStats) aggregator.buildAggregation(0L));
+        }
+        indexReader.close();
+        directory.close();
+    }
+
+    private static class SimpleStats {
+        long count = 0;
+        long sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(long value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        void assertEquals(Stats stats) {
+            StatsAggregatorTests.assertEquals(count, stats.getCount());
+            StatsAggregatorTests.assertEquals(sum, stats.getSum(), 0);
+            StatsAggregatorTests.assertEquals(min, stats.getMin(), 0);
+            StatsAggregatorTests.assertEquals(max, stats.getMax(), 0);
+        }
+    }
+}
@@ -19,7 +19,10 @@
 
 package org.elasticsearch.search.profile;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -54,7 +57,21 @@ public class SearchProfileShardResultsTests  extends ESTestCase {
             AggregationProfileShardResult aggProfileShardResult = AggregationProfileShardResultTests.createTestItem(1);
             searchProfileResults.put(randomAlphaOfLengthBetween(5, 10), new ProfileShardResult(queryProfileResults, aggProfileShardResult));
         }
-        return new SearchProfileShardResults(searchProfileResults);
+        ReduceProfileResult reduceResult = null;
+        if (randomBoolean()) {
+            Map<String, Long> breakdown = new HashMap<>();
+            breakdown.put(ReduceProfileResult.TOP_DOCS, randomNonNegativeLong());
+            if (randomBoolean()) {
+                breakdown.put(ReduceProfileResult.SUGGEST, randomNonNegativeLong());
+            }
+            Map<String, Long> aggregations = new HashMap<>();
+            int aggs = randomIntBetween(0, 3);
+            for (int i = 0; i < aggs; i++) {
+                aggregations.put(randomAlphaOfLengthBetween(5, 10), randomNonNegativeLong());
+            }
+            reduceResult = new ReduceProfileResult(randomBoolean(), randomNonNegativeLong(), breakdown, aggregations);
+        }
+        return new SearchProfileShardResults(searchProfileResults, reduceResult);
     }
 
     public void testFromXContent() throws IOException {
@@ -74,4 +91,28 @@ public class SearchProfileShardResultsTests  extends ESTestCase {
         assertToXContentEquivalent(originalBytes, toXContent(parsed, xContentType, humanReadable), xContentType);
     }
 
+    public void testSerialization() throws IOException {
+        SearchProfileShardResults shardResult = createTestItem();
+        XContentType xContentType = randomFrom(XContentType.values());
+        BytesReference originalBytes = toXContent(shardResult, xContentType, false);
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            shardResult.writeTo(out);
+            SearchProfileShardResults read = new SearchProfileShardResults(out.bytes().streamInput());
+            assertEquals(shardResult.getReduceResult() == null, read.getReduceResult() == null);
+            assertToXContentEquivalent(originalBytes, toXContent(read, xContentType, false), xContentType);
+        }
+
+        // the reduce profile is not sent to nodes before 5.5.1
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(Version.V_5_5_0);
+            shardResult.writeTo(out);
+            StreamInput in = out.bytes().streamInput();
+            in.setVersion(Version.V_5_5_0);
+            SearchProfileShardResults read = new SearchProfileShardResults(in);
+            assertEquals(0, in.available());
+            assertNull(read.getReduceResult());
+            assertEquals(shardResult.getShardResults().keySet(), read.getShardResults().keySet());
+        }
+    }
+
 }
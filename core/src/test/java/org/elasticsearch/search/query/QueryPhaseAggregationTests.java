@@ -0,0 +1,239 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.action.search.SearchTask;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.AggregatorTestCase;
+import org.elasticsearch.search.aggregations.SearchContextAggregations;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.max.Max;
+import org.elasticsearch.search.aggregations.metrics.sum.Sum;
+import org.elasticsearch.search.aggregations.support.ValueType;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.rescore.RescoreSearchContext;
+import org.elasticsearch.test.IndexSettingsModule;
+import org.elasticsearch.test.TestSearchContext;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.mockito.Mockito.when;
+
+public class QueryPhaseAggregationTests extends AggregatorTestCase {
+
+    public void testConcurrentAggregations() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+        final int numDocs = scaledRandomIntBetween(100, 500);
+        for (int i = 0; i < numDocs; ++i) {
+            Document doc = new Document();
+            doc.add(new NumericDocValuesField("group", randomInt(9)));
+            doc.add(new NumericDocValuesField("number", randomIntBetween(-100, 100)));
+            w.addDocument(doc);
+            if (i == numDocs / 2 || rarely()) {
+                w.commit();
+            }
+        }
+        final IndexReader reader = w.getReader();
+        w.close();
+        assertTrue(reader.leaves().size() > 1);
+
+        MappedFieldType groupFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        groupFieldType.setName("group");
+        MappedFieldType numberFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        numberFieldType.setName("number");
+        MapperService mapperService = mapperServiceMock();
+        when(mapperService.getIndexSettings()).thenReturn(IndexSettingsModule.newIndexSettings("test", Settings.EMPTY));
+        QueryShardContext queryShardContext = queryShardContextMock(mapperService,
+            new MappedFieldType[] { groupFieldType, numberFieldType }, new NoneCircuitBreakerService());
+
+        AggregationBuilder aggregationBuilder = AggregationBuilders.histogram("groups").field("group").interval(1)
+            .minDocCount(randomIntBetween(0, 1))
+            .subAggregation(AggregationBuilders.sum("sum").field("number"))
+            .subAggregation(AggregationBuilders.max("max").field("number"));
+
+        ThreadPoolExecutor executor = EsExecutors.newFixed("test", 2, 10, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY));
+        try {
+            Histogram expected = aggregate(reader, queryShardContext, aggregationBuilder, null, 1, false);
+            Histogram histogram = aggregate(reader, queryShardContext, aggregationBuilder, executor, randomIntBetween(2, 4), true);
+            assertEquals(expected.getBuckets().size(), histogram.getBuckets().size());
+            for (int i = 0; i < expected.getBuckets().size(); i++) {
+                Histogram.Bucket expectedBucket = expected.getBuckets().get(i);
+                Histogram.Bucket bucket = histogram.getBuckets().get(i);
+                assertEquals(expectedBucket.getKey(), bucket.getKey());
+                assertEquals(expectedBucket.getDocCount(), bucket.getDocCount());
+                assertEquals(((Sum) expectedBucket.getAggregations().get("sum")).getValue(),
+                    ((Sum) bucket.getAggregations().get("sum")).getValue(), 0d);
+                assertEquals(((Max) expectedBucket.getAggregations().get("max")).getValue(),
+                    ((Max) bucket.getAggregations().get("max")).getValue(), 0d);
+            }
+
+            // scripts share the search lookup of the search context
+            TestSearchContext context = newSearchContext(queryShardContext, new ContextIndexSearcher(
+                new Engine.Searcher("test", new IndexSearcher(reader)), null, IndexSearcher.getDefaultQueryCachingPolicy()));
+            context.aggregations(new SearchContextAggregations(AggregatorFactories.builder()
+                .addAggregator(AggregationBuilders.significantTerms("terms").field("group")).build(context, null)));
+            new AggregationPhase().preProcess(context);
+            assertFalse(QueryPhase.canSearchConcurrently(context));
+            context.clearReleasables(SearchContext.Lifetime.CONTEXT);
+        } finally {
+            terminate(executor);
+            reader.close();
+            dir.close();
+        }
+    }
+
+    public void testShardMinDocCountAcrossSlices() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+        // each group has one document per segment, and only reaches shard_min_doc_count on the whole shard
+        final int numSegments = 4;
+        for (int i = 0; i < numSegments; ++i) {
+            for (int group = 0; group < 10; ++group) {
+                Document doc = new Document();
+                doc.add(new NumericDocValuesField("group", group));
+                w.addDocument(doc);
+            }
+            Document doc = new Document();
+            doc.add(new NumericDocValuesField("group", 10 + i));
+            w.addDocument(doc);
+            w.commit();
+        }
+        final IndexReader reader = w.getReader();
+        w.close();
+        assertEquals(numSegments, reader.leaves().size());
+
+        MappedFieldType groupFieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        groupFieldType.setName("group");
+        MapperService mapperService = mapperServiceMock();
+        when(mapperService.getIndexSettings()).thenReturn(IndexSettingsModule.newIndexSettings("test", Settings.EMPTY));
+        QueryShardContext queryShardContext = queryShardContextMock(mapperService,
+            new MappedFieldType[] { groupFieldType }, new NoneCircuitBreakerService());
+
+        AggregationBuilder aggregationBuilder = AggregationBuilders.terms("groups").valueType(ValueType.LONG).field("group")
+            .size(20).shardSize(20).minDocCount(2).shardMinDocCount(2);
+
+        ThreadPoolExecutor executor = EsExecutors.newFixed("test", 2, 10, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY));
+        try {
+            // terms are collected on the whole shard even when the searcher is concurrent
+            Terms terms = aggregate(reader, queryShardContext, aggregationBuilder, executor, numSegments, false);
+            assertEquals(10, terms.getBuckets().size());
+            for (Terms.Bucket bucket : terms.getBuckets()) {
+                assertEquals(numSegments, bucket.getDocCount());
+            }
+        } finally {
+            terminate(executor);
+            reader.close();
+            dir.close();
+        }
+    }
+
+    private <T extends Aggregation> T aggregate(IndexReader reader, QueryShardContext queryShardContext,
+                                                AggregationBuilder aggregationBuilder, Executor executor, int concurrency,
+                                                boolean concurrent) throws IOException {
+        ContextIndexSearcher searcher = new ContextIndexSearcher(new Engine.Searcher("test", new IndexSearcher(reader)),
+            null, IndexSearcher.getDefaultQueryCachingPolicy());
+        TestSearchContext context = newSearchContext(queryShardContext, searcher);
+        context.aggregations(new SearchContextAggregations(AggregatorFactories.builder().addAggregator(aggregationBuilder)
+            .build(context, null)));
+        AggregationPhase aggregationPhase = new AggregationPhase();
+        aggregationPhase.preProcess(context);
+        if (executor != null) {
+            searcher.setSliceExecutor(executor, concurrency);
+            assertTrue(searcher.isConcurrent());
+            assertEquals(concurrent, QueryPhase.canSearchConcurrently(context));
+        }
+        try {
+            SearchContextAggregations aggregations = context.aggregations();
+            QueryPhase.execute(context, searcher);
+            assertEquals(concurrent, aggregations.sliceAggregators().isEmpty() == false);
+            aggregationPhase.execute(context);
+            assertEquals(reader.numDocs(), context.queryResult().topDocs().totalHits);
+            return context.queryResult().consumeAggs().get("groups");
+        } finally {
+            context.clearReleasables(SearchContext.Lifetime.CONTEXT);
+        }
+    }
+
+    private static TestSearchContext newSearchContext(QueryShardContext queryShardContext, ContextIndexSearcher searcher) {
+        final BigArrays bigArrays = new MockBigArrays(Settings.EMPTY, new NoneCircuitBreakerService());
+        TestSearchContext context = new TestSearchContext(queryShardContext) {
+            @Override
+            public TimeValue timeout() {
+                return SearchService.NO_TIMEOUT;
+            }
+
+            @Override
+            public List<RescoreSearchContext> rescore() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public BigArrays bigArrays() {
+                return bigArrays;
+            }
+
+            @Override
+            public ContextIndexSearcher searcher() {
+                return searcher;
+            }
+        };
+        context.parsedQuery(new ParsedQuery(new MatchAllDocsQuery()));
+        context.setSize(0);
+        context.setTask(new SearchTask(123L, "", "", "", null));
+        return context;
+    }
+}
@@ -38,15 +38,27 @@ import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.elasticsearch.action.search.SearchTask;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.query.ParsedQuery;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.TestSearchContext;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class QueryPhaseTests extends ESTestCase {
@@ -169,4 +181,70 @@ public class QueryPhaseTests extends ESTestCase {
         assertTrue(collected.get());
     }
 
+    public void testConcurrentSegmentSearch() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+        final int numDocs = scaledRandomIntBetween(100, 200);
+        for (int i = 0; i < numDocs; ++i) {
+            Document doc = new Document();
+            doc.add(new StringField("foo", randomFrom("bar", "baz"), Store.NO));
+            w.addDocument(doc);
+            if (i == numDocs / 2 || rarely()) {
+                w.commit();
+            }
+        }
+        final IndexReader reader = w.getReader();
+        w.close();
+        assertTrue(reader.leaves().size() > 1);
+
+        ThreadPoolExecutor executor = EsExecutors.newFixed("test", 2, 10, EsExecutors.daemonThreadFactory("test"),
+            new ThreadContext(Settings.EMPTY));
+        try {
+            List<Query> queries = Arrays.asList(new MatchAllDocsQuery(), new TermQuery(new Term("foo", "bar")),
+                new ConstantScoreQuery(new TermQuery(new Term("foo", "baz"))));
+            for (Query query : queries) {
+                TestSearchContext context = new TestSearchContext(null) {
+                    @Override
+                    public TimeValue timeout() {
+                        return SearchService.NO_TIMEOUT;
+                    }
+
+                    @Override
+                    public List<RescoreSearchContext> rescore() {
+                        return Collections.emptyList();
+                    }
+                };
+                context.parsedQuery(new ParsedQuery(query));
+                context.setSize(randomIntBetween(1, 20));
+                context.setTask(new SearchTask(123L, "", "", "", null));
+
+                ContextIndexSearcher contextSearcher = new ContextIndexSearcher(new Engine.Searcher("test", new IndexSearcher(reader)),
+                    null, IndexSearcher.getDefaultQueryCachingPolicy());
+                contextSearcher.setSliceExecutor(executor, randomIntBetween(2, 4));
+                assertTrue(contextSearcher.isConcurrent());
+                assertTrue(QueryPhase.canSearchConcurrently(context));
+
+                QueryPhase.execute(context, contextSearcher);
+                TopDocs expected = new IndexSearcher(reader).search(query, context.size());
+                TopDocs topDocs = context.queryResult().topDocs();
+                assertEquals(expected.totalHits, topDocs.totalHits);
+                assertEquals(expected.getMaxScore(), topDocs.getMaxScore(), 0f);
+                assertEquals(expected.scoreDocs.length, topDocs.scoreDocs.length);
+                for (int i = 0; i < expected.scoreDocs.length; i++) {
+                    // ties are broken by doc id as in a sequential search
+                    assertEquals(expected.scoreDocs[i].doc, topDocs.scoreDocs[i].doc);
+                    assertEquals(expected.scoreDocs[i].score, topDocs.scoreDocs[i].score, 0f);
+                }
+
+                context.terminateAfter(1);
+                assertFalse(QueryPhase.canSearchConcurrently(context));
+            }
+        } finally {
+            terminate(executor);
+            reader.close();
+            dir.close();
+        }
+    }
+
 }
@@ -19,6 +19,9 @@
 
 package org.elasticsearch.search.stats;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.index.search.stats.SearchStats;
 import org.elasticsearch.index.search.stats.SearchStats.Stats;
 import org.elasticsearch.test.ESTestCase;
@@ -32,9 +35,9 @@ public class SearchStatsUnitTests extends ESTestCase {
         // let's create two dummy search stats with groups
         Map<String, Stats> groupStats1 = new HashMap<>();
         Map<String, Stats> groupStats2 = new HashMap<>();
-        groupStats2.put("group1", new Stats(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1));
-        SearchStats searchStats1 = new SearchStats(new Stats(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1), 0, groupStats1);
-        SearchStats searchStats2 = new SearchStats(new Stats(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1), 0, groupStats2);
+        groupStats2.put("group1", new Stats(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1));
+        SearchStats searchStats1 = new SearchStats(new Stats(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1), 0, groupStats1);
+        SearchStats searchStats2 = new SearchStats(new Stats(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1), 0, groupStats2);
 
         // adding these two search stats and checking group stats are correct
         searchStats1.add(searchStats2);
@@ -65,5 +68,28 @@ public class SearchStatsUnitTests extends ESTestCase {
         assertEquals(equalTo, stats.getSuggestCount());
         assertEquals(equalTo, stats.getSuggestTimeInMillis());
         assertEquals(equalTo, stats.getSuggestCurrent());
+        assertEquals(equalTo, stats.getFetchTokenOrderedCount());
+        assertEquals(equalTo, stats.getFetchPrefetchedCount());
+    }
+
+    public void testSerialization() throws Exception {
+        Stats stats = new Stats(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14);
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        Stats read = Stats.readStats(out.bytes().streamInput());
+        assertEquals(12, read.getSuggestCurrent());
+        assertEquals(13, read.getFetchTokenOrderedCount());
+        assertEquals(14, read.getFetchPrefetchedCount());
+
+        // fetch counters are not sent to nodes before 5.5.1
+        out = new BytesStreamOutput();
+        out.setVersion(Version.V_5_5_0);
+        stats.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(Version.V_5_5_0);
+        read = Stats.readStats(in);
+        assertEquals(12, read.getSuggestCurrent());
+        assertEquals(0, read.getFetchTokenOrderedCount());
+        assertEquals(0, read.getFetchPrefetchedCount());
     }
 }
@@ -19,7 +19,9 @@
 
 package org.elasticsearch.threadpool;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -62,6 +64,32 @@ public class ThreadPoolStatsTests extends ESTestCase {
         assertThat(threads, contains(-1, -1, 1, 2, 3,-1,-1));
     }
 
+    public void testThreadPoolStatsSerialization() throws IOException {
+        ThreadPoolStats.Stats stats = new ThreadPoolStats.Stats(ThreadPool.Names.SEARCH, 3, 10, 2, 1L, 3, 100L, 1000, 4L, 25L);
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            stats.writeTo(out);
+            ThreadPoolStats.Stats read = new ThreadPoolStats.Stats(out.bytes().streamInput());
+            assertThat(read.getCompleted(), equalTo(100L));
+            assertThat(read.getQueueCapacity(), equalTo(1000));
+            assertThat(read.getQueueAdjustments(), equalTo(4L));
+            assertThat(read.getMinQueueTimeInMillis(), equalTo(25L));
+        }
+
+        // the queue statistics are not sent to nodes before 5.5.1.
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(Version.V_5_5_0);
+            stats.writeTo(out);
+            StreamInput in = out.bytes().streamInput();
+            in.setVersion(Version.V_5_5_0);
+            ThreadPoolStats.Stats read = new ThreadPoolStats.Stats(in);
+            assertThat(in.available(), equalTo(0));
+            assertThat(read.getCompleted(), equalTo(100L));
+            assertThat(read.getQueueCapacity(), equalTo(-1));
+            assertThat(read.getQueueAdjustments(), equalTo(-1L));
+            assertThat(read.getMinQueueTimeInMillis(), equalTo(-1L));
+        }
+    }
+
     public void testThreadPoolStatsToXContent() throws IOException {
         try (BytesStreamOutput os = new BytesStreamOutput()) {
 
@@ -177,6 +177,7 @@ public class TCPTransportTests extends ESTestCase {
                     StreamInput streamIn = reference.streamInput();
                     streamIn.skip(TcpHeader.MARKER_BYTES_SIZE);
                     int len = streamIn.readInt();
+                    assertEquals(reference.length() - TcpHeader.MARKER_BYTES_SIZE - TcpHeader.MESSAGE_LENGTH_SIZE, len);
                     long requestId = streamIn.readLong();
                     assertEquals(42, requestId);
                     byte status = streamIn.readByte();
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link BytesStreamOutput} writing into pooled direct buffers of the channel allocator, so that HTTP response bodies are
+ * rendered directly into the buffers written to the socket: no heap pages and no copy to a direct buffer on write.
+ * The buffers grow by adding components to a composite buffer, never by copying. {@link #bytes()} wraps the buffer without
+ * copying, and the buffers are released when the stream is closed.
+ */
+final class Netty4ByteBufStreamOutput extends BytesStreamOutput implements Releasable {
+
+    private final CompositeByteBuf buffer;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    Netty4ByteBufStreamOutput(ByteBufAllocator allocator) {
+        super(0);
+        this.buffer = allocator.compositeDirectBuffer(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long position() {
+        return buffer.writerIndex();
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        buffer.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (b.length < (offset + length)) {
+            throw new IllegalArgumentException("Illegal offset " + offset + "/length " + length + " for byte[] of length " + b.length);
+        }
+        buffer.writeBytes(b, offset, length);
+    }
+
+    @Override
+    public void reset() {
+        buffer.clear();
+    }
+
+    @Override
+    public void seek(long position) {
+        if (position > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " cannot hold more than 2GB of data");
+        }
+        if (position > buffer.writerIndex()) {
+            buffer.ensureWritable((int) position - buffer.writerIndex());
+        }
+        buffer.writerIndex((int) position);
+    }
+
+    @Override
+    public void skip(int length) {
+        seek(((long) buffer.writerIndex()) + length);
+    }
+
+    @Override
+    public int size() {
+        return buffer.writerIndex();
+    }
+
+    @Override
+    public BytesReference bytes() {
+        return Netty4Utils.toBytesReference(buffer);
+    }
+
+    /**
+     * @return true if the given buffer shares the memory of this stream, and must be retained to outlive the stream.
+     */
+    boolean owns(ByteBuf buf) {
+        return buf == buffer || buf.unwrap() == buffer;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            buffer.release();
+        }
+    }
+}
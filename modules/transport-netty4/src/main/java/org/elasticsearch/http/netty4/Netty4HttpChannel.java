@@ -86,6 +86,9 @@ final class Netty4HttpChannel extends AbstractRestChannel {
 
     @Override
     protected BytesStreamOutput newBytesOutput() {
+        if (transport.directResponseBuffers) {
+            return new Netty4ByteBufStreamOutput(channel.alloc());
+        }
         return new ReleasableBytesStreamOutput(transport.bigArrays);
     }
 
@@ -98,6 +101,10 @@ final class Netty4HttpChannel extends AbstractRestChannel {
         if (HttpMethod.HEAD.equals(nettyRequest.method())) {
             resp = newResponse(Unpooled.EMPTY_BUFFER);
         } else {
+            if (bytesOutputOrNull() instanceof Netty4ByteBufStreamOutput && ((Netty4ByteBufStreamOutput) bytesOutputOrNull()).owns(buffer)) {
+                // the response is written from the direct buffers of the stream, released by both the write and the stream close
+                buffer.retain();
+            }
             resp = newResponse(buffer);
         }
         resp.setStatus(getStatus(response.status()));
@@ -115,7 +122,7 @@ final class Netty4HttpChannel extends AbstractRestChannel {
 
         BytesReference content = response.content();
         boolean releaseContent = content instanceof Releasable;
-        boolean releaseBytesStreamOutput = bytesOutputOrNull() instanceof ReleasableBytesStreamOutput;
+        boolean releaseBytesStreamOutput = bytesOutputOrNull() instanceof Releasable;
         try {
             // If our response doesn't specify a content-type header, set one
             setHeaderField(resp, HttpHeaderNames.CONTENT_TYPE.toString(), response.contentType(), false);
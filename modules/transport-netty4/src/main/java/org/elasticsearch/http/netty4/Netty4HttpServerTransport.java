@@ -146,6 +146,8 @@ public class Netty4HttpServerTransport extends AbstractLifecycleComponent implem
     public static final Setting<ByteSizeValue> SETTING_HTTP_TCP_RECEIVE_BUFFER_SIZE =
         Setting.byteSizeSetting("http.tcp.receive_buffer_size", NetworkService.TcpSettings.TCP_RECEIVE_BUFFER_SIZE,
             Property.NodeScope, Property.Shared);
+    public static final Setting<Boolean> SETTING_HTTP_NETTY_DIRECT_RESPONSE_BUFFERS =
+        boolSetting("http.netty.direct_response_buffers", false, Property.NodeScope);
     public static final Setting<ByteSizeValue> SETTING_HTTP_NETTY_RECEIVE_PREDICTOR_SIZE =
         Setting.byteSizeSetting("http.netty.receive_predictor_size", new ByteSizeValue(64, ByteSizeUnit.KB), Property.NodeScope);
     public static final Setting<ByteSizeValue> SETTING_HTTP_NETTY_RECEIVE_PREDICTOR_MIN =
@@ -199,6 +201,9 @@ public class Netty4HttpServerTransport extends AbstractLifecycleComponent implem
 
     protected final ByteSizeValue maxCumulationBufferCapacity;
     protected final int maxCompositeBufferComponents;
+
+    // render responses into pooled direct buffers of the channel allocator instead of recycled heap pages
+    final boolean directResponseBuffers;
     private final Dispatcher dispatcher;
 
     protected volatile ServerBootstrap serverBootstrap;
@@ -231,6 +236,7 @@ public class Netty4HttpServerTransport extends AbstractLifecycleComponent implem
         this.resetCookies = SETTING_HTTP_RESET_COOKIES.get(settings);
         this.maxCumulationBufferCapacity = SETTING_HTTP_NETTY_MAX_CUMULATION_BUFFER_CAPACITY.get(settings);
         this.maxCompositeBufferComponents = SETTING_HTTP_NETTY_MAX_COMPOSITE_BUFFER_COMPONENTS.get(settings);
+        this.directResponseBuffers = SETTING_HTTP_NETTY_DIRECT_RESPONSE_BUFFERS.get(settings);
         this.workerCount = SETTING_HTTP_WORKER_COUNT.get(settings);
         this.blockingServer = SETTING_HTTP_TCP_BLOCKING_SERVER.get(settings);
         this.port = SETTING_HTTP_PORT.get(settings);
@@ -21,6 +21,7 @@ package org.elasticsearch.http.netty4;
 
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelFuture;
@@ -282,6 +283,53 @@ public class Netty4HttpChannelTests extends ESTestCase {
         }
     }
 
+    public void testDirectResponseBuffers() throws IOException {
+        final Settings settings = Settings.builder().put(Netty4HttpServerTransport.SETTING_HTTP_NETTY_DIRECT_RESPONSE_BUFFERS.getKey(), true)
+            .build();
+        final NamedXContentRegistry registry = xContentRegistry();
+        try (Netty4HttpServerTransport httpServerTransport =
+                 new Netty4HttpServerTransport(settings, networkService, bigArrays, threadPool, registry, new NullDispatcher())) {
+            final FullHttpRequest httpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+            final EmbeddedChannel embeddedChannel = new EmbeddedChannel();
+            final Netty4HttpRequest request = new Netty4HttpRequest(registry, httpRequest, embeddedChannel);
+            final Netty4HttpChannel channel =
+                new Netty4HttpChannel(httpServerTransport, request, null, randomBoolean(), threadPool.getThreadContext());
+            final BytesStreamOutput out = channel.bytesOutput();
+            assertThat(out, instanceOf(Netty4ByteBufStreamOutput.class));
+
+            final String value = randomAlphaOfLength(randomIntBetween(1, 100000));
+            final XContentBuilder builder = channel.newBuilder();
+            builder.startObject().field("value", value).endObject();
+            channel.sendResponse(new BytesRestResponse(RestStatus.OK, builder));
+
+            final FullHttpResponse response = embeddedChannel.readOutbound();
+            try {
+                assertThat(response.content().isDirect(), is(true));
+                assertThat(response.content().toString(StandardCharsets.UTF_8), equalTo("{\"value\":\"" + value + "\"}"));
+                assertThat(response.headers().get(HttpHeaderNames.CONTENT_LENGTH),
+                    equalTo(Integer.toString(response.content().readableBytes())));
+            } finally {
+                response.release();
+            }
+            // released by both the channel write and the stream close
+            assertThat(response.content().refCnt(), equalTo(0));
+        }
+    }
+
+    public void testDirectResponseBuffersSkipAndSeek() throws IOException {
+        try (Netty4ByteBufStreamOutput out = new Netty4ByteBufStreamOutput(UnpooledByteBufAllocator.DEFAULT)) {
+            out.writeByte((byte) 1);
+            out.skip(4);
+            assertThat(out.position(), equalTo(5L));
+            out.writeByte((byte) 2);
+            out.seek(1);
+            out.writeInt(3);
+            out.seek(6);
+            assertThat(out.size(), equalTo(6));
+            assertThat(BytesReference.toBytes(out.bytes()), equalTo(new byte[] { 1, 0, 0, 0, 3, 2 }));
+        }
+    }
+
     public void testConnectionClose() throws Exception {
         final Settings settings = Settings.builder().build();
         try (Netty4HttpServerTransport httpServerTransport =